@@ -0,0 +1,161 @@
+package com.lance.mybatissharp.benchmark;
+
+import com.lance.mybatissharp.schema.annotation.Table;
+import com.lance.mybatissharp.schema.utils.ClassTools;
+import com.lance.mybatissharp.schema.utils.TableClassScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * 扫描生成的jar中的实体类，一半的类打了{@code @Table}
+ * <p>ClassTools用Class.forName加载类，生成的jar需要加到系统类加载器中，只能在Java 8下运行；
+ * 每组参数在单独的JVM中执行，类只在第一次扫描时加载</p>
+ *
+ * @author Lance
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassScanBenchmark {
+
+    private static final String TABLE_DESCRIPTOR = "L" + Table.class.getName().replace('.', '/') + ";";
+
+    @Param({"100", "1000", "10000"})
+    private int classCount;
+
+    private String      packageName;
+    private File        jarFile;
+    private ClassLoader contextClassLoader;
+
+    @Setup
+    public void setup() throws Exception {
+        packageName = "bench.gen.p" + classCount;
+        jarFile = File.createTempFile("mybatis-sharp-bench-", ".jar");
+        writeJar(jarFile, packageName.replace('.', '/'), classCount);
+
+        ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+        if (!(systemClassLoader instanceof URLClassLoader)) {
+            throw new IllegalStateException("ClassScanBenchmark需要在Java 8下运行");
+        }
+        Method addURL = URLClassLoader.class.getDeclaredMethod("addURL", URL.class);
+        addURL.setAccessible(true);
+        addURL.invoke(systemClassLoader, jarFile.toURI().toURL());
+
+        contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(systemClassLoader);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Thread.currentThread().setContextClassLoader(contextClassLoader);
+        if (!jarFile.delete()) {
+            jarFile.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Set<Class<?>> classTools() {
+        return ClassTools.getClasses(packageName);
+    }
+
+    @Benchmark
+    public Set<Class<?>> tableClassScanner() {
+        return new TableClassScanner(ClassLoader.getSystemClassLoader()).scan(packageName);
+    }
+
+    private static void writeJar(File file, String packagePath, int classCount) throws IOException {
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file))) {
+            jar.putNextEntry(new JarEntry(packagePath + "/"));
+            jar.closeEntry();
+            for (int i = 0; i < classCount; i++) {
+                String className = packagePath + "/Entity" + i;
+                jar.putNextEntry(new JarEntry(className + ".class"));
+                jar.write(classFile(className, i % 2 == 0 ? "t_gen_" + i : null));
+                jar.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * 生成只有类名、父类和可选的{@code @Table(name = ...)}的最小class文件
+     */
+    private static byte[] classFile(String className, String tableName) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(52);
+
+        // 常量池：1 本类，2 类名，3 父类，4 父类名，5-8 注解
+        out.writeShort(tableName == null ? 5 : 9);
+        out.writeByte(7);
+        out.writeShort(2);
+        out.writeByte(1);
+        out.writeUTF(className);
+        out.writeByte(7);
+        out.writeShort(4);
+        out.writeByte(1);
+        out.writeUTF("java/lang/Object");
+        if (tableName != null) {
+            out.writeByte(1);
+            out.writeUTF("RuntimeVisibleAnnotations");
+            out.writeByte(1);
+            out.writeUTF(TABLE_DESCRIPTOR);
+            out.writeByte(1);
+            out.writeUTF("name");
+            out.writeByte(1);
+            out.writeUTF(tableName);
+        }
+
+        // public class，没有接口、字段、方法
+        out.writeShort(0x0021);
+        out.writeShort(1);
+        out.writeShort(3);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+
+        if (tableName == null) {
+            out.writeShort(0);
+        } else {
+            out.writeShort(1);
+            out.writeShort(5);
+            out.writeInt(11);
+            out.writeShort(1);
+            out.writeShort(6);
+            out.writeShort(1);
+            out.writeShort(7);
+            out.writeByte('s');
+            out.writeShort(8);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
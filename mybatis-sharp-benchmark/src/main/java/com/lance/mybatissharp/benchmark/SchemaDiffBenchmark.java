@@ -0,0 +1,151 @@
+package com.lance.mybatissharp.benchmark;
+
+import com.lance.mybatissharp.schema.MyBatisSchemaSettings;
+import com.lance.mybatissharp.schema.MyBatisSchemaUpdate;
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.MigrationPlan;
+import com.lance.mybatissharp.schema.command.SysMysqlColumns;
+import com.lance.mybatissharp.schema.command.SysMysqlTables;
+import com.lance.mybatissharp.schema.command.TableModel;
+import com.lance.mybatissharp.schema.dao.CreateMysqlTablesMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比model结构与库中结构的耗时，库中结构由假的Mapper返回，不需要数据库
+ * <p>每张表20个字段，每10张表中有1张表需要增加、删除、修改字段</p>
+ * <p>通过planModels传入表结构，不需要生成实体类</p>
+ *
+ * @author Lance
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaDiffBenchmark {
+
+    private static final int COLUMN_COUNT   = 20;
+    private static final int CHANGED_EVERY  = 10;
+    private static final String SERVER_VERSION = "8.0.22";
+
+    @Param({"10", "100", "1000", "10000"})
+    private int tableCount;
+
+    private List<TableModel>    tableModels;
+    private MyBatisSchemaUpdate schemaUpdate;
+
+    @Setup
+    public void setup() {
+        tableModels = new ArrayList<>();
+        List<SysMysqlColumns> columns = new ArrayList<>();
+        List<SysMysqlTables> tables = new ArrayList<>();
+        for (int t = 0; t < tableCount; t++) {
+            String tableName = "t_bench_" + t;
+            boolean changed = t % CHANGED_EVERY == 0;
+
+            TableModel tableModel = new TableModel(tableName);
+            List<CreateTableParam> fields = tableModel.getFields();
+            fields.add(field("id", "bigint", 20, true));
+            for (int c = 1; c < COLUMN_COUNT; c++) {
+                // 需要修改的表：c1变长，最后一个字段是新增的
+                int length = changed && c == 1 ? 128 : 64;
+                String name = changed && c == COLUMN_COUNT - 1 ? "c_added" : "c" + c;
+                fields.add(field(name, "varchar", length, false));
+            }
+            tableModels.add(tableModel);
+
+            columns.add(column(tableName, "id", "bigint", "bigint(20)", "PRI", "auto_increment", "NO"));
+            for (int c = 1; c < COLUMN_COUNT; c++) {
+                columns.add(column(tableName, "c" + c, "varchar", "varchar(64)", "", "", "YES"));
+            }
+
+            SysMysqlTables table = new SysMysqlTables();
+            table.setTable_name(tableName);
+            table.setEngine("InnoDB");
+            table.setTable_rows(1000L);
+            table.setData_length(1024L * 1024);
+            table.setIndex_length(0L);
+            tables.add(table);
+        }
+
+        MyBatisSchemaSettings settings = new MyBatisSchemaSettings().setTableAuto("update").setDdlAlgorithmEnabled(true);
+        schemaUpdate = new MyBatisSchemaUpdate(settings);
+        schemaUpdate.setCreateMysqlTablesMapper(fakeMapper(columns, tables));
+    }
+
+    @Benchmark
+    public MigrationPlan plan() {
+        return schemaUpdate.planModels(tableModels);
+    }
+
+    private static CreateTableParam field(String name, String type, int length, boolean key) {
+        CreateTableParam param = new CreateTableParam();
+        param.setFieldName(name);
+        param.setFieldType(type);
+        param.setFieldLength(length);
+        param.setFieldDecimalLength(0);
+        param.setFieldIsNull(!key);
+        param.setFieldIsKey(key);
+        param.setFieldIsAutoIncrement(key);
+        param.setFieldDefaultValue("NULL");
+        param.setFieldIsUnique(false);
+        param.setFileTypeLength(1);
+        return param;
+    }
+
+    private static SysMysqlColumns column(String tableName, String name, String dataType, String columnType,
+                                          String key, String extra, String nullable) {
+        SysMysqlColumns column = new SysMysqlColumns();
+        column.setTable_name(tableName);
+        column.setColumn_name(name);
+        column.setData_type(dataType);
+        column.setColumn_type(columnType);
+        column.setColumn_key(key);
+        column.setExtra(extra);
+        column.setIs_nullable(nullable);
+        if ("varchar".equals(dataType)) {
+            column.setCharacter_maximum_length("64");
+            column.setCharacter_octet_length("256");
+        }
+        return column;
+    }
+
+    /**
+     * 只实现对比时用到的查询
+     */
+    private static CreateMysqlTablesMapper fakeMapper(List<SysMysqlColumns> columns, List<SysMysqlTables> tables) {
+        return (CreateMysqlTablesMapper) Proxy.newProxyInstance(CreateMysqlTablesMapper.class.getClassLoader(),
+                new Class<?>[]{CreateMysqlTablesMapper.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findServerVersion":
+                            return SERVER_VERSION;
+                        case "findAllTableEnsemble":
+                            return columns;
+                        case "findAllIndexes":
+                        case "findAllPartitions":
+                            return Collections.emptyList();
+                        case "findAllTables":
+                            return tables;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
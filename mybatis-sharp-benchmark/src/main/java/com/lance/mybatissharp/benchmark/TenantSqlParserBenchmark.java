@@ -0,0 +1,117 @@
+package com.lance.mybatissharp.benchmark;
+
+import com.lance.mybatissharp.plugins.tenant.TenantSchemaHandler;
+import com.lance.mybatissharp.plugins.tenant.TenantSchemaSqlParser;
+import com.lance.mybatissharp.plugins.tenant.TenantSqlCache;
+import com.lance.mybatissharp.plugins.tenant.TenantSqlTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户SQL改写的吞吐量，SQL按顺序轮流使用，租户按顺序轮流切换
+ * <ul>
+ *     <li>parse：每次都经过JSqlParser解析</li>
+ *     <li>sqlCache：按（SQL，租户）缓存改写结果，租户数超过缓存容量时退化为解析</li>
+ *     <li>template：每条SQL只解析一次，按租户拼接</li>
+ * </ul>
+ *
+ * @author Lance
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TenantSqlParserBenchmark {
+
+    private static final String[] SQL_CORPUS = {
+            "select * from t_player where id = ?",
+            "select id, name, level from t_player where guild_id = ? and level > ? order by level desc limit 20",
+            "select p.id, p.name, g.name from t_player p left join t_guild g on p.guild_id = g.id where p.id = ?",
+            "select p.id, sum(o.amount) from t_player p join t_order o on o.player_id = p.id "
+                    + "join t_item i on i.id = o.item_id where o.create_time > ? group by p.id having sum(o.amount) > ?",
+            "select id from t_player where id in (select player_id from t_order where amount > ?)",
+            "select id, name from t_player where level > ? union all select id, name from t_player_archive where level > ?",
+            "select * from (select player_id, count(*) c from t_order group by player_id) t where t.c > ?",
+            "with top as (select player_id from t_order order by amount desc limit 10) "
+                    + "select p.* from t_player p join top on top.player_id = p.id",
+            "insert into t_player (id, name, level) values (?, ?, ?)",
+            "insert into t_order (id, player_id, amount) values (?, ?, ?) on duplicate key update amount = amount + ?",
+            "update t_player set level = level + 1 where id = ?",
+            "update t_player p join t_guild g on p.guild_id = g.id set p.guild_name = g.name where g.id = ?",
+            "delete from t_order where player_id = ? and create_time < ?",
+            "delete from t_item where id not in (select item_id from t_order)",
+            "select count(*) from t_player p where exists (select 1 from t_order o where o.player_id = p.id)",
+            "select p.id from t_player p join t_config c on c.key_name = p.config_key where p.id = ?",
+    };
+
+    @Param({"parse", "sqlCache", "template"})
+    private String mode;
+
+    @Param({"10", "1000"})
+    private int tenantCount;
+
+    private String[]              schemas;
+    private MutableSchemaHandler  handler;
+    private TenantSchemaSqlParser parser;
+    private int                   sqlIndex;
+    private int                   tenantIndex;
+
+    @Setup
+    public void setup() {
+        schemas = new String[tenantCount];
+        for (int i = 0; i < tenantCount; i++) {
+            schemas[i] = "tenant_" + i;
+        }
+        handler = new MutableSchemaHandler();
+        parser = new TenantSchemaSqlParser().setTenantSchemaHandler(handler);
+        if ("sqlCache".equals(mode)) {
+            parser.setSqlCache(new TenantSqlCache<>(4096));
+        } else if ("template".equals(mode)) {
+            parser.setTemplateCache(new TenantSqlCache<TenantSqlTemplate>(4096));
+        }
+    }
+
+    @Benchmark
+    public String rewrite() {
+        String sql = SQL_CORPUS[sqlIndex];
+        if (++sqlIndex == SQL_CORPUS.length) {
+            sqlIndex = 0;
+            if (++tenantIndex == schemas.length) {
+                tenantIndex = 0;
+            }
+        }
+        handler.schema = schemas[tenantIndex];
+        return parser.parser(null, sql).getSql();
+    }
+
+    /**
+     * 当前租户由基准测试切换，t_config为公共表
+     */
+    private static class MutableSchemaHandler implements TenantSchemaHandler {
+
+        private String schema;
+
+        @Override
+        public String getTenantSchema() {
+            return schema;
+        }
+
+        @Override
+        public boolean doTableFilter(String tableName) {
+            return "t_config".equals(tableName);
+        }
+    }
+}
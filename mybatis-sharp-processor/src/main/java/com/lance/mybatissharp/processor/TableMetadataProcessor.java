@@ -0,0 +1,501 @@
+package com.lance.mybatissharp.processor;
+
+import com.lance.mybatissharp.schema.annotation.Column;
+import com.lance.mybatissharp.schema.annotation.Index;
+import com.lance.mybatissharp.schema.annotation.LengthCount;
+import com.lance.mybatissharp.schema.annotation.Partition;
+import com.lance.mybatissharp.schema.annotation.Table;
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.constants.MySqlTypeConstant;
+import com.lance.mybatissharp.schema.utils.ColumnTypeTools;
+import com.lance.mybatissharp.schema.utils.IndexTools;
+import com.lance.mybatissharp.schema.utils.PartitionTools;
+import com.lance.mybatissharp.schema.utils.TableOptionTools;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译期读取{@code @Table}、{@code @Column}、{@code @Index}、{@code @Partition}，为每个实体生成建表元数据，并为整个编译模块生成一个注册表，
+ * 运行时MyBatisSchemaUpdate通过ServiceLoader加载，不再反射解析实体
+ * <p>注册表类名默认为第一个实体所在包下的MyBatisSharpTableMetadataRegistry，可以通过
+ * {@code -Amybatissharp.registry=完整类名}指定</p>
+ *
+ * @author Lance
+ */
+public class TableMetadataProcessor extends AbstractProcessor {
+
+    /** 指定注册表类名的编译参数 */
+    public static final String REGISTRY_OPTION = "mybatissharp.registry";
+
+    /** 默认注册表类名 */
+    private static final String DEFAULT_REGISTRY_NAME = "MyBatisSharpTableMetadataRegistry";
+
+    /** 生成的元数据类名后缀 */
+    private static final String METADATA_SUFFIX = "TableMetadata";
+
+    private static final String REGISTRY_SERVICE = "com.lance.mybatissharp.schema.metadata.TableMetadataRegistry";
+
+    /** 实体类索引文件，与TableClassScanner.INDEX_FILE一致 */
+    private static final String INDEX_FILE = "META-INF/mybatis-sharp.idx";
+
+    private Filer    filer;
+    private Messager messager;
+
+    /** Mysql的类型，以及类型需要设置几个长度 */
+    private Map<String, Integer> mySqlTypeAndLengthMap;
+
+    /** 已生成的元数据类名，key为实体类名 */
+    private final Map<String, String> metadataClassNames = new LinkedHashMap<>();
+
+    /** 生成元数据的实体，用于注册表的originating elements */
+    private final List<Element> originatingElements = new ArrayList<>();
+
+    /** 注册表是否已生成 */
+    private boolean registryWritten;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+        this.mySqlTypeAndLengthMap = mySqlTypeAndLengthMap();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Table.class.getName());
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(REGISTRY_OPTION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            return false;
+        }
+
+        boolean generated = false;
+        for (Element element : roundEnv.getElementsAnnotatedWith(Table.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            String entityName = type.getQualifiedName().toString();
+            if (metadataClassNames.containsKey(entityName)) {
+                continue;
+            }
+            if (registryWritten) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "建表元数据注册表已生成，不能再处理后续生成的实体", type);
+                continue;
+            }
+            String metadataClassName = writeMetadata(type);
+            if (metadataClassName != null) {
+                metadataClassNames.put(entityName, metadataClassName);
+                originatingElements.add(type);
+                generated = true;
+            }
+        }
+
+        // 没有新的实体时生成注册表，生成的源码还能在下一轮被编译
+        if (!generated && !registryWritten && !metadataClassNames.isEmpty()) {
+            writeRegistry();
+            registryWritten = true;
+        }
+        return false;
+    }
+
+    /**
+     * 生成单个实体的建表元数据
+     *
+     * @param type 实体
+     * @return 生成的类名，生成失败返回null
+     */
+    private String writeMetadata(TypeElement type) {
+        Table table = type.getAnnotation(Table.class);
+        String packageName = packageName(type);
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + METADATA_SUFFIX;
+        String className = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        List<VariableElement> fields = columnFields(type);
+        List<CreateTableParam> fieldTypes = new ArrayList<>(fields.size());
+        for (VariableElement field : fields) {
+            Column column = field.getAnnotation(Column.class);
+            if (column.type().isEmpty()) {
+                CreateTableParam fieldType = new CreateTableParam();
+                String javaType = javaTypeName(field.asType());
+                if (!ColumnTypeTools.inferType(javaType, enumConstants(field.asType()), column.length(),
+                        column.decimalLength(), fieldType)) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, "无法按Java类型推断字段类型，请指定type：" + javaType, field);
+                    return null;
+                }
+                fieldTypes.add(fieldType);
+                continue;
+            }
+            if (!mySqlTypeAndLengthMap.containsKey(column.type().toLowerCase())) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "不支持的字段类型：" + column.type(), field);
+                return null;
+            }
+            fieldTypes.add(null);
+        }
+        Index[] indexes = type.getAnnotationsByType(Index.class);
+        for (Index index : indexes) {
+            try {
+                IndexTools.indexParam(index.name(), index.columns(), index.lengths(), index.unique(), index.fulltext());
+            } catch (IllegalStateException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), type);
+                return null;
+            }
+        }
+        Partition partition = type.getAnnotation(Partition.class);
+        if (partition != null) {
+            try {
+                PartitionTools.partitionParam(partition.type(), partition.expression(), partition.count(),
+                        partition.ranges(), partition.interval(), partition.ahead(), partition.retention());
+            } catch (IllegalStateException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), type);
+                return null;
+            }
+        }
+        boolean tableOptions;
+        try {
+            tableOptions = TableOptionTools.tableOption(table.engine(), table.rowFormat(), table.keyBlockSize(),
+                    table.compression(), table.statsPersistent(), table.statsSamplePages()) != null;
+        } catch (IllegalStateException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), type);
+            return null;
+        }
+
+        try {
+            JavaFileObject file = filer.createSourceFile(className, type);
+            try (PrintWriter out = new PrintWriter(file.openWriter())) {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+                out.println("/**");
+                out.println(" * " + type.getQualifiedName() + "的建表元数据，由mybatis-sharp-processor生成，请勿修改");
+                out.println(" */");
+                out.println("public final class " + simpleName
+                        + " extends com.lance.mybatissharp.schema.metadata.AbstractTableMetadata {");
+                out.println();
+                out.println("    @Override");
+                out.println("    public Class<?> getEntityClass() {");
+                out.println("        return " + type.getQualifiedName() + ".class;");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public String getTableName() {");
+                out.println("        return " + literal(table.name()) + ";");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public java.util.List<com.lance.mybatissharp.schema.command.CreateTableParam> getFields() {");
+                out.println("        java.util.List<com.lance.mybatissharp.schema.command.CreateTableParam> fields = "
+                        + "new java.util.ArrayList<>(" + fields.size() + ");");
+                for (int i = 0; i < fields.size(); i++) {
+                    out.println("        fields.add(" + fieldExpression(fields.get(i).getAnnotation(Column.class),
+                            fieldTypes.get(i)) + ");");
+                }
+                out.println("        return fields;");
+                out.println("    }");
+                if (indexes.length > 0) {
+                    out.println();
+                    out.println("    @Override");
+                    out.println("    public java.util.List<com.lance.mybatissharp.schema.command.IndexParam> getIndexes() {");
+                    out.println("        java.util.List<com.lance.mybatissharp.schema.command.IndexParam> indexes = "
+                            + "new java.util.ArrayList<>(" + indexes.length + ");");
+                    for (Index index : indexes) {
+                        out.println("        indexes.add(" + indexExpression(index) + ");");
+                    }
+                    out.println("        return indexes;");
+                    out.println("    }");
+                }
+                if (partition != null) {
+                    out.println();
+                    out.println("    @Override");
+                    out.println("    public com.lance.mybatissharp.schema.command.PartitionParam getPartition() {");
+                    out.println("        return " + partitionExpression(partition) + ";");
+                    out.println("    }");
+                }
+                if (tableOptions) {
+                    out.println();
+                    out.println("    @Override");
+                    out.println("    public com.lance.mybatissharp.schema.command.TableOptionParam getTableOptions() {");
+                    out.println("        return " + tableOptionExpression(table) + ";");
+                    out.println("    }");
+                }
+                out.println("}");
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "生成建表元数据失败：" + e.getMessage(), type);
+            return null;
+        }
+        return className;
+    }
+
+    /**
+     * 生成注册表、ServiceLoader的注册文件以及实体类索引
+     */
+    private void writeRegistry() {
+        String registryName = processingEnv.getOptions().get(REGISTRY_OPTION);
+        if (registryName == null || registryName.isEmpty()) {
+            String packageName = packageName((TypeElement) originatingElements.get(0));
+            registryName = packageName.isEmpty() ? DEFAULT_REGISTRY_NAME : packageName + "." + DEFAULT_REGISTRY_NAME;
+        }
+        int idx = registryName.lastIndexOf('.');
+        String packageName = idx == -1 ? "" : registryName.substring(0, idx);
+        String simpleName = registryName.substring(idx + 1);
+
+        Element[] elements = originatingElements.toArray(new Element[0]);
+        try {
+            JavaFileObject file = filer.createSourceFile(registryName, elements);
+            try (PrintWriter out = new PrintWriter(file.openWriter())) {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+                out.println("/**");
+                out.println(" * 建表元数据注册表，由mybatis-sharp-processor生成，请勿修改");
+                out.println(" */");
+                out.println("public final class " + simpleName
+                        + " implements com.lance.mybatissharp.schema.metadata.TableMetadataRegistry {");
+                out.println();
+                out.println("    @Override");
+                out.println("    public java.util.List<com.lance.mybatissharp.schema.metadata.TableMetadata> getTableMetadata() {");
+                out.println("        java.util.List<com.lance.mybatissharp.schema.metadata.TableMetadata> metadata = "
+                        + "new java.util.ArrayList<>(" + metadataClassNames.size() + ");");
+                for (String metadataClassName : metadataClassNames.values()) {
+                    out.println("        metadata.add(new " + metadataClassName + "());");
+                }
+                out.println("        return metadata;");
+                out.println("    }");
+                out.println("}");
+            }
+
+            FileObject service = filer.createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "META-INF/services/" + REGISTRY_SERVICE, elements);
+            try (Writer writer = service.openWriter()) {
+                writer.write(registryName);
+                writer.write('\n');
+            }
+
+            // 实体类索引，TableClassScanner读取后不需要再扫描class文件
+            FileObject index = filer.createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_FILE, elements);
+            try (Writer writer = index.openWriter()) {
+                for (Element element : originatingElements) {
+                    writer.write(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "生成建表元数据注册表失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 依次取出本类和父类中打了{@code @Column}的属性，顺序与运行时反射解析的一致
+     */
+    private List<VariableElement> columnFields(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        for (TypeElement clas = type; clas != null; clas = superclass(clas)) {
+            for (VariableElement field : ElementFilter.fieldsIn(clas.getEnclosedElements())) {
+                if (field.getAnnotation(Column.class) != null) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    /**
+     * 与MyBatisSchemaUpdate中反射解析的规则一致
+     *
+     * @param column    字段上的注解
+     * @param fieldType 按Java类型推断出的类型，指定了type时为null
+     */
+    private String fieldExpression(Column column, CreateTableParam fieldType) {
+        String type = fieldType != null ? fieldType.getFieldType() : column.type().toLowerCase();
+        int length = fieldType != null ? fieldType.getFieldLength() : column.length();
+        int decimalLength = fieldType != null ? fieldType.getFieldDecimalLength() : column.decimalLength();
+        int fileTypeLength = fieldType != null ? fieldType.getFileTypeLength() : mySqlTypeAndLengthMap.get(type);
+        String values = fieldType != null && fieldType.getFieldValues() != null
+                ? ", " + literal(fieldType.getFieldValues()) : "";
+        // 主键或唯一键时设置必须不为null
+        boolean isNull = !(column.isKey() || column.isUnique()) && column.isNull();
+        return "field(" + literal(column.name())
+                + ", " + literal(type)
+                + ", " + length
+                + ", " + decimalLength
+                + ", " + isNull
+                + ", " + column.isKey()
+                + ", " + column.isAutoIncrement()
+                + ", " + literal(column.defaultValue())
+                + ", " + fileTypeLength
+                + ", " + column.isUnique() + values + ")";
+    }
+
+    /**
+     * Java类型的全名，与ColumnTypeTools.javaTypeName(Class)一致
+     */
+    private String javaTypeName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase();
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            return javaTypeName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private List<String> enumConstants(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return Collections.emptyList();
+        }
+        Element element = ((DeclaredType) type).asElement();
+        if (element.getKind() != ElementKind.ENUM) {
+            return Collections.emptyList();
+        }
+        List<String> constants = new ArrayList<>();
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind() == ElementKind.ENUM_CONSTANT) {
+                constants.add(enclosed.getSimpleName().toString());
+            }
+        }
+        return constants;
+    }
+
+    private String indexExpression(Index index) {
+        StringBuilder columns = new StringBuilder();
+        for (String column : index.columns()) {
+            columns.append(columns.length() == 0 ? "" : ", ").append(literal(column));
+        }
+        StringBuilder lengths = new StringBuilder();
+        for (int length : index.lengths()) {
+            lengths.append(lengths.length() == 0 ? "" : ", ").append(length);
+        }
+        return "index(" + literal(index.name())
+                + ", new String[]{" + columns + "}"
+                + ", new int[]{" + lengths + "}"
+                + ", " + index.unique()
+                + ", " + index.fulltext() + ")";
+    }
+
+    private String partitionExpression(Partition partition) {
+        StringBuilder ranges = new StringBuilder();
+        for (String range : partition.ranges()) {
+            ranges.append(ranges.length() == 0 ? "" : ", ").append(literal(range));
+        }
+        return "partition(com.lance.mybatissharp.schema.constants.PartitionType." + partition.type().name()
+                + ", " + literal(partition.expression())
+                + ", " + partition.count()
+                + ", new String[]{" + ranges + "}"
+                + ", com.lance.mybatissharp.schema.constants.PartitionInterval." + partition.interval().name()
+                + ", " + partition.ahead()
+                + ", " + partition.retention() + ")";
+    }
+
+    private String tableOptionExpression(Table table) {
+        return "tableOption(" + literal(table.engine())
+                + ", com.lance.mybatissharp.schema.constants.RowFormat." + table.rowFormat().name()
+                + ", " + table.keyBlockSize()
+                + ", com.lance.mybatissharp.schema.constants.PageCompression." + table.compression().name()
+                + ", " + table.statsPersistent()
+                + ", " + table.statsSamplePages() + ")";
+    }
+
+    private String packageName(TypeElement type) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        return pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * 获取Mysql的类型，以及类型需要设置几个长度，与MyBatisSchemaUpdate.mySqlTypeAndLengthMap()一致
+     */
+    private static Map<String, Integer> mySqlTypeAndLengthMap() {
+        Map<String, Integer> map = new HashMap<>();
+        for (Field field : MySqlTypeConstant.class.getDeclaredFields()) {
+            LengthCount lengthCount = field.getAnnotation(LengthCount.class);
+            if (lengthCount != null) {
+                map.put(field.getName().toLowerCase(), lengthCount.LengthCount());
+            }
+        }
+        return map;
+    }
+}
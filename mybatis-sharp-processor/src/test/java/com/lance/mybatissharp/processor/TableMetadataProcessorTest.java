@@ -0,0 +1,262 @@
+package com.lance.mybatissharp.processor;
+
+import com.lance.mybatissharp.schema.MyBatisSchemaSettings;
+import com.lance.mybatissharp.schema.MyBatisSchemaUpdate;
+import com.lance.mybatissharp.schema.annotation.Table;
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.TableModel;
+import com.lance.mybatissharp.schema.metadata.TableMetadata;
+import com.lance.mybatissharp.schema.metadata.TableMetadataLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用处理器编译一组实体，生成的建表元数据应与MyBatisSchemaUpdate反射解析的结果一致
+ *
+ * @author Lance
+ */
+class TableMetadataProcessorTest {
+
+    private static final String REGISTRY_SERVICE =
+            "META-INF/services/com.lance.mybatissharp.schema.metadata.TableMetadataRegistry";
+
+    private static final String REGISTRY = "com.example.SampleTableMetadataRegistry";
+
+    private static final String ORDER_ENTITY = "com.example.order.OrderEntity";
+    private static final String USER_ENTITY  = "com.example.user.UserEntity";
+
+    /** 父类没有{@code @Table}，其中的字段排在子类字段之后 */
+    private static final String BASE_SOURCE = String.join("\n",
+            "package com.example.base;",
+            "import com.lance.mybatissharp.schema.annotation.Column;",
+            "public abstract class BaseEntity {",
+            "    @Column(name = \"id\", isKey = true, isAutoIncrement = true)",
+            "    private long id;",
+            "    @Column(name = \"create_time\", isNull = false)",
+            "    private java.time.LocalDateTime createTime;",
+            "    private String notColumn;",
+            "}");
+
+    private static final String ORDER_SOURCE = String.join("\n",
+            "package com.example.order;",
+            "import com.lance.mybatissharp.schema.annotation.Column;",
+            "import com.lance.mybatissharp.schema.annotation.Index;",
+            "import com.lance.mybatissharp.schema.annotation.Partition;",
+            "import com.lance.mybatissharp.schema.annotation.Table;",
+            "import com.lance.mybatissharp.schema.constants.PartitionType;",
+            "import com.lance.mybatissharp.schema.constants.RowFormat;",
+            "@Table(name = \"t_order\", rowFormat = RowFormat.COMPRESSED, keyBlockSize = 8)",
+            "@Index(name = \"idx_user\", columns = {\"user_id\", \"create_time\"})",
+            "@Index(name = \"uk_order_no\", columns = {\"order_no\"}, unique = true)",
+            "@Partition(type = PartitionType.HASH, expression = \"id\", count = 4)",
+            "public class OrderEntity extends com.example.base.BaseEntity {",
+            "    public enum Status { NEW, PAID, CLOSED }",
+            "    @Column(name = \"order_no\", length = 32, isNull = false)",
+            "    private String orderNo;",
+            "    @Column(name = \"user_id\")",
+            "    private Long userId;",
+            "    @Column(name = \"amount\", length = 12, decimalLength = 2, defaultValue = \"0\")",
+            "    private java.math.BigDecimal amount;",
+            "    @Column(name = \"status\")",
+            "    private Status status;",
+            "    @Column(name = \"paid\")",
+            "    private boolean paid;",
+            "    @Column(name = \"remark\", type = \"varchar\", length = 500)",
+            "    private String remark;",
+            "}");
+
+    private static final String USER_SOURCE = String.join("\n",
+            "package com.example.user;",
+            "import com.lance.mybatissharp.schema.annotation.Column;",
+            "import com.lance.mybatissharp.schema.annotation.Table;",
+            "@Table(name = \"t_user\")",
+            "public class UserEntity extends com.example.base.BaseEntity {",
+            "    @Column(name = \"name\", length = 64, isUnique = true)",
+            "    private String name;",
+            "    @Column(name = \"token\")",
+            "    private java.util.UUID token;",
+            "    @Column(name = \"bio\", type = \"text\")",
+            "    private String bio;",
+            "}");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testGeneratedFiles() throws IOException {
+        Path output = compile("generated", true);
+
+        List<String> services = Files.readAllLines(output.resolve(REGISTRY_SERVICE), StandardCharsets.UTF_8);
+        assertEquals(Collections.singletonList(REGISTRY), services);
+        assertTrue(Files.isRegularFile(output.resolve("com/example/SampleTableMetadataRegistry.class")));
+        assertTrue(Files.isRegularFile(output.resolve("com/example/order/OrderEntityTableMetadata.class")));
+        assertTrue(Files.isRegularFile(output.resolve("com/example/user/UserEntityTableMetadata.class")));
+
+        List<String> index = new ArrayList<>(Files.readAllLines(output.resolve("META-INF/mybatis-sharp.idx"),
+                StandardCharsets.UTF_8));
+        Collections.sort(index);
+        assertEquals(Arrays.asList(ORDER_ENTITY, USER_ENTITY), index);
+    }
+
+    @Test
+    public void testSameAsReflection() throws Exception {
+        Path generated = compile("generated", true);
+        Path plain = compile("plain", false);
+
+        Map<String, TableModel> generatedModels = new TreeMap<>();
+        try (URLClassLoader classLoader = classLoader(generated)) {
+            for (TableMetadata metadata : TableMetadataLoader.load(classLoader).values()) {
+                TableModel tableModel = new TableModel(metadata.getTableName());
+                tableModel.setFields(metadata.getFields());
+                tableModel.setIndexes(metadata.getIndexes());
+                tableModel.setPartition(metadata.getPartition());
+                tableModel.setTableOptions(metadata.getTableOptions());
+                generatedModels.put(tableModel.getTableName(), tableModel);
+            }
+        }
+
+        Map<String, TableModel> reflectedModels;
+        try (URLClassLoader classLoader = classLoader(plain)) {
+            // 没有生成的元数据，按实体类反射解析
+            assertTrue(TableMetadataLoader.load(classLoader).isEmpty());
+            reflectedModels = reflect(classLoader, Arrays.asList(
+                    classLoader.loadClass(ORDER_ENTITY), classLoader.loadClass(USER_ENTITY)));
+        }
+
+        assertEquals(reflectedModels.keySet(), generatedModels.keySet());
+        for (TableModel reflected : reflectedModels.values()) {
+            TableModel tableModel = generatedModels.get(reflected.getTableName());
+            assertEquals(describe(reflected.getFields()), describe(tableModel.getFields()), reflected.getTableName());
+            assertEquals(reflected.getIndexes().toString(), tableModel.getIndexes().toString(), reflected.getTableName());
+            assertEquals(String.valueOf(reflected.getPartition()), String.valueOf(tableModel.getPartition()));
+            assertEquals(String.valueOf(reflected.getTableOptions()), String.valueOf(tableModel.getTableOptions()));
+        }
+        assertEquals(8, generatedModels.get("t_order").getFields().size());
+        assertEquals(2, generatedModels.get("t_order").getIndexes().size());
+    }
+
+    /**
+     * 编译样例实体
+     *
+     * @param name    输出目录名
+     * @param process 是否执行注解处理
+     * @return 输出目录
+     */
+    private Path compile(String name, boolean process) throws IOException {
+        Path output = Files.createDirectories(tempDir.resolve(name));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8)) {
+            List<String> options = new ArrayList<>(Arrays.asList("-d", output.toString(),
+                    "-classpath", schemaClasspath(), "-encoding", "UTF-8"));
+            options.add(process ? "-A" + TableMetadataProcessor.REGISTRY_OPTION + "=" + REGISTRY : "-proc:none");
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    Arrays.asList(source("com.example.base.BaseEntity", BASE_SOURCE), source(ORDER_ENTITY, ORDER_SOURCE),
+                            source(USER_ENTITY, USER_SOURCE)));
+            if (process) {
+                task.setProcessors(Collections.singletonList(new TableMetadataProcessor()));
+            }
+            boolean success = task.call();
+            StringBuilder errors = new StringBuilder();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    errors.append(diagnostic).append('\n');
+                }
+            }
+            assertTrue(success, errors.toString());
+        }
+        return output;
+    }
+
+    /**
+     * 按MyBatisSchemaUpdate.tableModelsConstruct反射解析实体类
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, TableModel> reflect(ClassLoader classLoader, Collection<Class<?>> classes) throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            Method method = MyBatisSchemaUpdate.class.getDeclaredMethod("tableModelsConstruct", Collection.class);
+            method.setAccessible(true);
+            return (Map<String, TableModel>) method.invoke(new MyBatisSchemaUpdate(new MyBatisSchemaSettings()), classes);
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    /**
+     * 只包含编译输出目录，mybatis-sharp的类由测试的类加载器提供
+     */
+    private URLClassLoader classLoader(Path output) throws IOException {
+        return new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    /**
+     * 编译样例实体需要的mybatis-sharp的类所在位置
+     */
+    private static String schemaClasspath() {
+        try {
+            return new File(Table.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static List<String> describe(List<CreateTableParam> fields) {
+        List<String> descriptions = new ArrayList<>(fields.size());
+        for (CreateTableParam field : fields) {
+            descriptions.add(field.getFieldName()
+                    + "," + field.getFieldType()
+                    + "," + field.getFieldLength()
+                    + "," + field.getFieldDecimalLength()
+                    + "," + field.isFieldIsNull()
+                    + "," + field.isFieldIsKey()
+                    + "," + field.isFieldIsAutoIncrement()
+                    + "," + field.getFieldDefaultValue()
+                    + "," + field.getFileTypeLength()
+                    + "," + field.isFieldIsUnique()
+                    + "," + field.getFieldValues());
+        }
+        return descriptions;
+    }
+}
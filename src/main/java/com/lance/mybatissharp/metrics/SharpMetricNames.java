@@ -0,0 +1,62 @@
+package com.lance.mybatissharp.metrics;
+
+/**
+ * 指标名和标签
+ *
+ * @author Lance
+ */
+public final class SharpMetricNames {
+
+    /** 表结构更新各阶段的耗时，标签phase */
+    public static final String SCHEMA_PHASE   = "mybatis.sharp.schema.phase";
+    /** 每条DDL的耗时，标签table、action */
+    public static final String SCHEMA_DDL     = "mybatis.sharp.schema.ddl";
+    /** 各类变更的数量，标签action */
+    public static final String SCHEMA_ACTIONS = "mybatis.sharp.schema.actions";
+
+    /** 租户SQL经过JSqlParser解析改写的耗时，标签mode */
+    public static final String TENANT_PARSE   = "mybatis.sharp.tenant.parse";
+    /** 租户SQL改写次数，标签source */
+    public static final String TENANT_REWRITE = "mybatis.sharp.tenant.rewrite";
+    /** 解析时遇到的表，标签result，filtered为doTableFilter过滤掉的公共表 */
+    public static final String TENANT_TABLE   = "mybatis.sharp.tenant.table";
+
+    /** 阶段：扫描实体类、反射解析字段、查询库中结构、查询指纹、对比、等待集群迁移锁 */
+    public static final String PHASE_SCAN          = "scan";
+    public static final String PHASE_REFLECTION    = "reflection";
+    public static final String PHASE_INTROSPECTION = "introspection";
+    public static final String PHASE_FINGERPRINT   = "fingerprint";
+    public static final String PHASE_DIFF          = "diff";
+    public static final String PHASE_LOCK          = "lock";
+
+    /** 变更：建表、删表、增加字段、删除字段、修改字段、删除主键、删除唯一约束、增加索引、删除索引、合并后的alter、影子表在线修改 */
+    public static final String ACTION_CREATE      = "create";
+    public static final String ACTION_DROP        = "drop";
+    public static final String ACTION_ADD         = "add_column";
+    public static final String ACTION_REMOVE      = "remove_column";
+    public static final String ACTION_MODIFY      = "modify_column";
+    public static final String ACTION_DROP_KEY    = "drop_primary_key";
+    public static final String ACTION_DROP_UNIQUE = "drop_unique";
+    public static final String ACTION_ADD_INDEX   = "add_index";
+    public static final String ACTION_DROP_INDEX  = "drop_index";
+    public static final String ACTION_ALTER       = "alter";
+    public static final String ACTION_ONLINE      = "online";
+
+    /** 分区变更：重新分区或取消分区、增加分区、删除分区 */
+    public static final String ACTION_PARTITION      = "partition";
+    public static final String ACTION_ADD_PARTITION  = "add_partition";
+    public static final String ACTION_DROP_PARTITION = "drop_partition";
+
+    /** 存储选项变更：引擎、行格式、压缩、统计信息 */
+    public static final String ACTION_TABLE_OPTIONS = "table_options";
+
+    public static final String TAG_PHASE  = "phase";
+    public static final String TAG_TABLE  = "table";
+    public static final String TAG_ACTION = "action";
+    public static final String TAG_MODE   = "mode";
+    public static final String TAG_SOURCE = "source";
+    public static final String TAG_RESULT = "result";
+
+    private SharpMetricNames() {
+    }
+}
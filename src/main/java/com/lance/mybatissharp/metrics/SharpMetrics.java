@@ -0,0 +1,44 @@
+package com.lance.mybatissharp.metrics;
+
+/**
+ * 指标输出，默认不做任何事
+ * <p>名称和标签按Micrometer的约定：名称以点分隔，标签为键值对交替排列，例如
+ * {@code registry.timer(name, tags).record(nanos, TimeUnit.NANOSECONDS)}、
+ * {@code registry.counter(name, tags).increment(amount)}，名称见 {@link SharpMetricNames}</p>
+ *
+ * @author Lance
+ */
+public interface SharpMetrics {
+
+    /**
+     * 不输出任何指标
+     */
+    SharpMetrics NOOP = new SharpMetrics() {
+
+        @Override
+        public void recordTime(String name, long nanos, String... tags) {
+        }
+
+        @Override
+        public void increment(String name, long amount, String... tags) {
+        }
+    };
+
+    /**
+     * 记录一次耗时
+     *
+     * @param name  指标名
+     * @param nanos 耗时（纳秒）
+     * @param tags  标签，键值对交替排列
+     */
+    void recordTime(String name, long nanos, String... tags);
+
+    /**
+     * 计数
+     *
+     * @param name   指标名
+     * @param amount 增加的数量
+     * @param tags   标签，键值对交替排列
+     */
+    void increment(String name, long amount, String... tags);
+}
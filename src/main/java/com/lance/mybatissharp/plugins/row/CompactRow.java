@@ -0,0 +1,100 @@
+package com.lance.mybatissharp.plugins.row;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 紧凑的查询结果行，字段名由同一结果的所有行共用，每行只有一个值数组
+ * <p>代替每行一个HashMap，大量扫描时减少对象分配</p>
+ *
+ * @author Lance
+ */
+public final class CompactRow {
+
+    private final CompactRowColumns columns;
+    private final Object[]          values;
+
+    public CompactRow(CompactRowColumns columns, Object[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * 按结果集的字段标签创建共用的字段名
+     *
+     * @param resultSet 结果集
+     * @return 字段名
+     */
+    public static CompactRowColumns columnsOf(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        String[] names = new String[metaData.getColumnCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = metaData.getColumnLabel(i + 1);
+        }
+        return new CompactRowColumns(names);
+    }
+
+    /**
+     * 读取结果集的当前行
+     *
+     * @param columns   该结果集共用的字段名
+     * @param resultSet 结果集，已指向需要读取的行
+     * @return 行
+     */
+    public static CompactRow read(CompactRowColumns columns, ResultSet resultSet) throws SQLException {
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = resultSet.getObject(i + 1);
+        }
+        return new CompactRow(columns, values);
+    }
+
+    /**
+     * 第几个字段的值，从0开始
+     */
+    public Object get(int index) {
+        return values[index];
+    }
+
+    /**
+     * 字段的值，不区分大小写
+     *
+     * @param name 字段名
+     * @return 没有该字段或值为null时返回null
+     */
+    public Object get(String name) {
+        int index = columns.indexOf(name);
+        return index < 0 ? null : values[index];
+    }
+
+    public CompactRowColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * 字段数量
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * 转成字段名为key的Map，用于与原有按Map处理的代码衔接
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>((int) (values.length / 0.75f) + 1);
+        for (int i = 0; i < values.length; i++) {
+            map.put(columns.name(i), values[i]);
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return columns + "=" + Arrays.toString(values);
+    }
+}
@@ -0,0 +1,64 @@
+package com.lance.mybatissharp.plugins.row;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次查询结果的字段名，同一结果的所有行共用一份
+ *
+ * @author Lance
+ */
+public final class CompactRowColumns {
+
+    private final String[]             names;
+    private final Map<String, Integer> indexes;
+
+    public CompactRowColumns(String... names) {
+        this.names = names;
+        this.indexes = new HashMap<>((int) (names.length / 0.75f) + 1);
+        for (int i = names.length - 1; i >= 0; i--) {
+            // 同名字段取第一个，字段名不区分大小写
+            indexes.put(names[i].toLowerCase(), i);
+        }
+    }
+
+    /**
+     * 字段数量
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * 第几个字段的字段名，从0开始
+     */
+    public String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * 字段的位置，从0开始，不区分大小写
+     *
+     * @param name 字段名
+     * @return 没有该字段时返回-1
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        if (index == null) {
+            index = indexes.get(name.toLowerCase());
+        }
+        return index == null ? -1 : index;
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(names);
+    }
+}
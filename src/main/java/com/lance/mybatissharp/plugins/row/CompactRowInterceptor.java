@@ -0,0 +1,86 @@
+package com.lance.mybatissharp.plugins.row;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 紧凑行映射
+ * <p>resultType为 {@link CompactRow} 的查询不经过MyBatis的结果映射，直接从结果集读取，每行只创建一个值数组，
+ * 字段名由同一结果的所有行共用</p>
+ * <p>支持RowBounds和ResultHandler，配合fetchSize=Integer.MIN_VALUE可以流式读取；只读取第一个结果集</p>
+ *
+ * @author Lance
+ */
+@Intercepts({@Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class})})
+public class CompactRowInterceptor implements Interceptor {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object intercept(Invocation invocation) throws Throwable {
+        MetaObject metaObject = SystemMetaObject.forObject(PluginUtils.realTarget(invocation.getTarget()));
+        MappedStatement mappedStatement = (MappedStatement) metaObject.getValue("mappedStatement");
+        if (!isCompact(mappedStatement)) {
+            return invocation.proceed();
+        }
+
+        ResultHandler<Object> resultHandler = (ResultHandler<Object>) metaObject.getValue("resultHandler");
+        RowBounds rowBounds = (RowBounds) metaObject.getValue("rowBounds");
+        Statement statement = (Statement) invocation.getArgs()[0];
+        ResultSet resultSet = statement.getResultSet();
+        if (resultSet == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return handleRows(resultSet, resultHandler, rowBounds);
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    private List<Object> handleRows(ResultSet resultSet, ResultHandler<Object> resultHandler, RowBounds rowBounds)
+            throws SQLException {
+        CompactRowColumns columns = CompactRow.columnsOf(resultSet);
+        List<Object> rows = resultHandler == null ? new ArrayList<>() : Collections.emptyList();
+        DefaultResultContext<Object> context = new DefaultResultContext<>();
+
+        // 跳过offset之前的行
+        for (int i = 0; i < rowBounds.getOffset(); i++) {
+            if (!resultSet.next()) {
+                return rows;
+            }
+        }
+        while (context.getResultCount() < rowBounds.getLimit() && !context.isStopped() && resultSet.next()) {
+            CompactRow row = CompactRow.read(columns, resultSet);
+            context.nextResultObject(row);
+            if (resultHandler == null) {
+                rows.add(row);
+            } else {
+                resultHandler.handleResult(context);
+            }
+        }
+        return rows;
+    }
+
+    private boolean isCompact(MappedStatement mappedStatement) {
+        List<ResultMap> resultMaps = mappedStatement.getResultMaps();
+        return resultMaps.size() == 1 && resultMaps.get(0).getType() == CompactRow.class;
+    }
+}
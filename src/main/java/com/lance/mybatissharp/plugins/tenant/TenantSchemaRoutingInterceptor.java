@@ -0,0 +1,57 @@
+package com.lance.mybatissharp.plugins.tenant;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 租户路由（ Schema 连接级 ）
+ * <p>不改写 SQL，在创建 Statement 前把连接的 catalog 切换到租户 schema，服务端预编译语句可以在租户之间复用</p>
+ * <p>与 {@link TenantSchemaSqlParser} 二选一。{@link TenantSchemaHandler#doTableFilter(String)} 在此模式下不生效，
+ * 公共表需要在 SQL 中写明 schema</p>
+ *
+ * @author Lance
+ */
+@Data
+@Accessors(chain = true)
+@Intercepts({@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class})})
+public class TenantSchemaRoutingInterceptor implements Interceptor {
+
+    private TenantSchemaHandler tenantSchemaHandler;
+
+    /**
+     * 租户 schema 为空时切换到的 schema，为null时不切换
+     */
+    private String defaultSchema;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Connection connection = (Connection) invocation.getArgs()[0];
+        String schema = tenantSchemaHandler == null ? null : tenantSchemaHandler.getTenantSchema();
+        if (schema == null || schema.isEmpty()) {
+            schema = defaultSchema;
+        }
+        if (schema != null && !schema.isEmpty()) {
+            switchCatalog(connection, schema);
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * 连接已经指向目标 schema 时不再切换
+     * <p>每次都读取连接当前的 catalog，不缓存：USE 语句、连接池重置或其他代码调用 setCatalog 都会改变连接的 catalog，
+     * 缓存过期会让语句在其他租户的 schema 中执行</p>
+     */
+    private void switchCatalog(Connection connection, String schema) throws SQLException {
+        if (!schema.equals(connection.getCatalog())) {
+            connection.setCatalog(schema);
+        }
+    }
+}
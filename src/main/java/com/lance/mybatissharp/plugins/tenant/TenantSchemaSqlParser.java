@@ -1,17 +1,36 @@
 package com.lance.mybatissharp.plugins.tenant;
 
 import com.baomidou.mybatisplus.core.parser.AbstractJsqlParser;
+import com.lance.mybatissharp.metrics.SharpMetricNames;
+import com.lance.mybatissharp.metrics.SharpMetrics;
+import com.baomidou.mybatisplus.core.parser.SqlInfo;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.experimental.Accessors;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
 import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.delete.Delete;
 import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.select.Join;
 import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
 import net.sf.jsqlparser.statement.select.SelectBody;
-import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.select.SubJoin;
 import net.sf.jsqlparser.statement.select.WithItem;
 import net.sf.jsqlparser.statement.update.Update;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.apache.ibatis.reflection.MetaObject;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 租户 SQL 解析（ Schema 表级 ）
@@ -23,49 +42,271 @@ import net.sf.jsqlparser.statement.update.Update;
 @EqualsAndHashCode(callSuper = true)
 public class TenantSchemaSqlParser extends AbstractJsqlParser {
 
+    private static final String[] MODE_REWRITE     = {SharpMetricNames.TAG_MODE, "rewrite"};
+    private static final String[] MODE_TEMPLATE    = {SharpMetricNames.TAG_MODE, "template"};
+    private static final String[] SOURCE_PARSED    = {SharpMetricNames.TAG_SOURCE, "parsed"};
+    private static final String[] SOURCE_SQL_CACHE = {SharpMetricNames.TAG_SOURCE, "sql_cache"};
+    private static final String[] SOURCE_TEMPLATE  = {SharpMetricNames.TAG_SOURCE, "template"};
+    private static final String[] TABLE_QUALIFIED  = {SharpMetricNames.TAG_RESULT, "qualified"};
+    private static final String[] TABLE_FILTERED   = {SharpMetricNames.TAG_RESULT, "filtered"};
+
     private TenantSchemaHandler tenantSchemaHandler;
 
+    /**
+     * 改写后的 SQL 缓存，为null时不缓存，每次都重新解析
+     * <p>要求 {@link TenantSchemaHandler#doTableFilter(String)} 只取决于表名</p>
+     */
+    private TenantSqlCache<String> sqlCache;
+
+    /**
+     * 模板缓存，设置后启用模板模式：每条 SQL 只解析一次，之后按租户拼接 schema，优先于 {@link #sqlCache}
+     * <p>要求 {@link TenantSchemaHandler#doTableFilter(String)} 只取决于表名</p>
+     */
+    private TenantSqlCache<TenantSqlTemplate> templateCache;
+
+    /**
+     * 指标输出：解析耗时、按来源（解析、SQL缓存、模板）的改写次数、解析时加上 schema 和被过滤的表数，默认不输出
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private SharpMetrics metrics = SharpMetrics.NOOP;
+
+    /**
+     * doTableFilter 的结果，按表名缓存
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Map<String, Boolean> tableFilterCache = new ConcurrentHashMap<>();
+
+    @Override
+    public SqlInfo parser(MetaObject metaObject, String sql) {
+        if (tenantSchemaHandler == null || (templateCache == null && sqlCache == null)) {
+            return rewrite(metaObject, sql);
+        }
+        if (!allowProcess(metaObject)) {
+            return null;
+        }
+        if (templateCache != null && !sql.contains(TenantSqlTemplate.SCHEMA_PLACEHOLDER)) {
+            String renderedSql = templateFor(metaObject, sql).render(tenantSchemaHandler.getTenantSchema());
+            metrics.increment(SharpMetricNames.TENANT_REWRITE, 1, SOURCE_TEMPLATE);
+            return SqlInfo.newInstance().setSql(renderedSql);
+        }
+        if (sqlCache == null) {
+            return rewrite(metaObject, sql);
+        }
+
+        String schema = tenantSchemaHandler.getTenantSchema();
+        String cachedSql = sqlCache.get(sql, schema);
+        if (cachedSql != null) {
+            metrics.increment(SharpMetricNames.TENANT_REWRITE, 1, SOURCE_SQL_CACHE);
+            return SqlInfo.newInstance().setSql(cachedSql);
+        }
+
+        SqlInfo sqlInfo = rewrite(metaObject, sql);
+        if (sqlInfo != null && sqlInfo.getSql() != null) {
+            sqlCache.put(sql, schema, sqlInfo.getSql());
+        }
+        return sqlInfo;
+    }
+
+    private TenantSqlTemplate templateFor(MetaObject metaObject, String sql) {
+        TenantSqlTemplate template = templateCache.get(sql, null);
+        if (template == null) {
+            TenantSchemaSqlParser placeholderParser = new TenantSchemaSqlParser()
+                    .setTenantSchemaHandler(new PlaceholderSchemaHandler(tenantSchemaHandler))
+                    .setMetrics(metrics);
+            template = TenantSqlTemplate.compile(placeholderParser.parse(metaObject, sql, MODE_TEMPLATE).getSql());
+            templateCache.put(sql, null, template);
+        }
+        return template;
+    }
+
+    /**
+     * 解析改写，计入解析次数
+     */
+    private SqlInfo rewrite(MetaObject metaObject, String sql) {
+        SqlInfo sqlInfo = parse(metaObject, sql, MODE_REWRITE);
+        metrics.increment(SharpMetricNames.TENANT_REWRITE, 1, SOURCE_PARSED);
+        return sqlInfo;
+    }
+
+    /**
+     * 经过 JSqlParser 解析，记录耗时
+     */
+    private SqlInfo parse(MetaObject metaObject, String sql, String[] modeTags) {
+        long start = System.nanoTime();
+        SqlInfo sqlInfo = super.parser(metaObject, sql);
+        metrics.recordTime(SharpMetricNames.TENANT_PARSE, System.nanoTime() - start, modeTags);
+        return sqlInfo;
+    }
+
+    @Override
+    public SqlInfo processParser(Statement statement) {
+        if (statement instanceof Select) {
+            // 父类只处理 SelectBody，会漏掉 WITH 中的表
+            newVisitor().rewriteStatement(statement);
+            return SqlInfo.newInstance().setSql(statement.toString());
+        }
+        return super.processParser(statement);
+    }
+
     @Override
     public void processInsert(Insert insert) {
-        process0(insert.getTable());
+        newVisitor().rewriteStatement(insert);
     }
 
     @Override
     public void processDelete(Delete delete) {
-        process0(delete.getTable());
+        newVisitor().rewriteStatement(delete);
     }
 
     @Override
     public void processUpdate(Update update) {
-        process0(update.getTable());
+        newVisitor().rewriteStatement(update);
     }
 
     @Override
     public void processSelectBody(SelectBody selectBody) {
-        if (selectBody instanceof PlainSelect) {
-            process0((Table) ((PlainSelect) selectBody).getFromItem());
-        } else if (selectBody instanceof WithItem) {
-            WithItem withItem = (WithItem) selectBody;
-            if (withItem.getSelectBody() != null) {
-                processSelectBody(withItem.getSelectBody());
+        newVisitor().rewriteSelectBody(selectBody);
+    }
+
+    public TenantSchemaSqlParser setTenantSchemaHandler(TenantSchemaHandler tenantSchemaHandler) {
+        this.tenantSchemaHandler = tenantSchemaHandler;
+        tableFilterCache.clear();
+        return this;
+    }
+
+    private TenantTableVisitor newVisitor() {
+        return new TenantTableVisitor(tenantSchemaHandler == null ? null : tenantSchemaHandler.getTenantSchema());
+    }
+
+    private boolean isFilteredTable(String tableName) {
+        return tableFilterCache.computeIfAbsent(tableName, tenantSchemaHandler::doTableFilter);
+    }
+
+    /**
+     * 一次遍历整个语法树，给所有真实表加上租户 schema，包括 JOIN、子查询、INSERT ... SELECT、UPDATE ... JOIN 等
+     * <p>WITH 定义的临时表、已经被过滤的表不加 schema</p>
+     */
+    private class TenantTableVisitor extends TablesNamesFinder {
+
+        private final String      schema;
+        private final Set<String> withItemNames = new HashSet<>();
+
+        TenantTableVisitor(String schema) {
+            this.schema = schema;
+            init(false);
+        }
+
+        void rewriteStatement(Statement statement) {
+            if (schema != null && !schema.isEmpty()) {
+                statement.accept(this);
+            }
+        }
+
+        void rewriteSelectBody(SelectBody selectBody) {
+            if (schema != null && !schema.isEmpty()) {
+                selectBody.accept(this);
+            }
+        }
+
+        @Override
+        public void visit(Table table) {
+            String tableName = table.getName();
+            if (tableName == null) {
+                return;
+            }
+            if (table.getSchemaName() == null && withItemNames.contains(tableName.toLowerCase())) {
+                return;
             }
-        } else {
-            SetOperationList operationList = (SetOperationList) selectBody;
-            if (operationList.getSelects() != null && operationList.getSelects().size() > 0) {
-                operationList.getSelects().forEach(this::processSelectBody);
+            if (isFilteredTable(tableName)) {
+                metrics.increment(SharpMetricNames.TENANT_TABLE, 1, TABLE_FILTERED);
+                return;
+            }
+            table.setSchemaName(schema);
+            metrics.increment(SharpMetricNames.TENANT_TABLE, 1, TABLE_QUALIFIED);
+        }
+
+        @Override
+        public void visit(WithItem withItem) {
+            withItemNames.add(withItem.getName().toLowerCase());
+            super.visit(withItem);
+        }
+
+        @Override
+        public void visit(PlainSelect plainSelect) {
+            super.visit(plainSelect);
+            visitJoinExpressions(plainSelect.getJoins());
+        }
+
+        @Override
+        public void visit(SubJoin subJoin) {
+            super.visit(subJoin);
+            visitJoinExpressions(subJoin.getJoinList());
+        }
+
+        /**
+         * 行值 IN，例如 (x, y) IN ((1, 2), (3, 4))，左边是列表，右边是多组值，TablesNamesFinder 会遇到null
+         */
+        @Override
+        public void visit(InExpression inExpression) {
+            if (inExpression.getLeftExpression() != null) {
+                inExpression.getLeftExpression().accept(this);
+            } else if (inExpression.getLeftItemsList() != null) {
+                inExpression.getLeftItemsList().accept(this);
+            }
+            if (inExpression.getRightExpression() != null) {
+                inExpression.getRightExpression().accept(this);
+            }
+            if (inExpression.getRightItemsList() != null) {
+                inExpression.getRightItemsList().accept(this);
+            }
+            if (inExpression.getMultiExpressionList() != null) {
+                inExpression.getMultiExpressionList().accept(this);
+            }
+        }
+
+        @Override
+        public void visit(Insert insert) {
+            super.visit(insert);
+            if (insert.getDuplicateUpdateExpressionList() != null) {
+                insert.getDuplicateUpdateExpressionList().forEach(expression -> expression.accept(this));
+            }
+        }
+
+        private void visitJoinExpressions(List<Join> joins) {
+            if (joins == null) {
+                return;
+            }
+            for (Join join : joins) {
+                if (join.getOnExpression() != null) {
+                    join.getOnExpression().accept(this);
+                }
             }
         }
     }
 
-    private void process0(Table table) {
-        if (tenantSchemaHandler == null || tenantSchemaHandler.doTableFilter(table.getName())) {
-            return;
+    /**
+     * 生成模板时使用，以占位符代替租户 schema
+     */
+    private static class PlaceholderSchemaHandler implements TenantSchemaHandler {
+
+        private final TenantSchemaHandler delegate;
+
+        PlaceholderSchemaHandler(TenantSchemaHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getTenantSchema() {
+            return TenantSqlTemplate.SCHEMA_PLACEHOLDER;
         }
 
-        String newSchema = tenantSchemaHandler.getTenantSchema();
-        if (newSchema == null || newSchema.isEmpty()) {
-            return;
+        @Override
+        public boolean doTableFilter(String tableName) {
+            return delegate.doTableFilter(tableName);
         }
-        table.setSchemaName(newSchema);
     }
 }
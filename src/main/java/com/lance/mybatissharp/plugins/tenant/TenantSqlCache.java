@@ -0,0 +1,195 @@
+package com.lance.mybatissharp.plugins.tenant;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 租户 SQL 缓存，key 为（原始 SQL，租户 schema），容量有上限，按 LRU 淘汰
+ * <p>内部分段加锁，每段是一个按访问顺序排列的 LinkedHashMap，并发访问不同段时互不阻塞</p>
+ *
+ * @param <V> 缓存的值
+ * @author Lance
+ */
+public class TenantSqlCache<V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<V>[] segments;
+    private final int          segmentMask;
+    private final int          maxSize;
+
+    private final LongAdder hitCount      = new LongAdder();
+    private final LongAdder missCount     = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param maxSize 最多缓存的条数
+     */
+    public TenantSqlCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize必须大于0：" + maxSize);
+        }
+        this.maxSize = maxSize;
+        int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maxSize));
+        int segmentSize = (maxSize + segmentCount - 1) / segmentCount;
+        @SuppressWarnings("unchecked")
+        Segment<V>[] segments = (Segment<V>[]) new Segment<?>[segmentCount];
+        this.segments = segments;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentSize, evictionCount);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    /**
+     * 获取缓存
+     *
+     * @param sql    原始 SQL
+     * @param schema 租户 schema，可以为null
+     * @return 没有缓存时返回null
+     */
+    public V get(String sql, String schema) {
+        Key key = new Key(sql, schema);
+        Segment<V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 放入缓存，超过容量时淘汰最久未访问的
+     *
+     * @param sql    原始 SQL
+     * @param schema 租户 schema，可以为null
+     * @param value  缓存的值
+     */
+    public void put(String sql, String schema, V value) {
+        Key key = new Key(sql, schema);
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * 清空缓存，不清空统计
+     */
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * 当前缓存的条数
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 命中率，没有访问过时为0
+     */
+    public double getHitRate() {
+        long hit = hitCount.sum();
+        long total = hit + missCount.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    private Segment<V> segmentFor(Key key) {
+        int h = key.hash;
+        return segments[(h ^ (h >>> 16)) & segmentMask];
+    }
+
+    /**
+     * 缓存 key，预先计算 hash，避免拼接字符串
+     */
+    private static final class Key {
+
+        private final String sql;
+        private final String schema;
+        private final int    hash;
+
+        Key(String sql, String schema) {
+            this.sql = sql;
+            this.schema = schema;
+            this.hash = 31 * sql.hashCode() + (schema == null ? 0 : schema.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && sql.equals(other.sql)
+                    && (schema == null ? other.schema == null : schema.equals(other.schema));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 按访问顺序排列，超过容量时淘汰最久未访问的
+     */
+    private static final class Segment<V> extends LinkedHashMap<Key, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int       maxSize;
+        private final LongAdder evictionCount;
+
+        Segment(int maxSize, LongAdder evictionCount) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.evictionCount = evictionCount;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+            if (size() > maxSize) {
+                evictionCount.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.lance.mybatissharp.plugins.tenant;
+
+/**
+ * 租户 SQL 模板，记录改写后的 SQL 中每个需要加 schema 的表名位置
+ * <p>每次请求只需按位置拼接租户 schema，不再解析 SQL</p>
+ *
+ * @author Lance
+ */
+public final class TenantSqlTemplate {
+
+    /**
+     * 解析时代替租户 schema 的占位符
+     */
+    public static final String SCHEMA_PLACEHOLDER = "__MYBATIS_SHARP_TENANT_SCHEMA__";
+
+    private static final String SLOT = SCHEMA_PLACEHOLDER + ".";
+
+    /**
+     * 被占位符分割的 SQL 片段，片段之间是表名的 schema 位置
+     */
+    private final String[] segments;
+
+    /**
+     * 所有片段的总长度
+     */
+    private final int length;
+
+    private TenantSqlTemplate(String[] segments, int length) {
+        this.segments = segments;
+        this.length = length;
+    }
+
+    /**
+     * 根据表名已加上占位符 schema 的 SQL 生成模板
+     *
+     * @param placeholderSql 用 {@link #SCHEMA_PLACEHOLDER} 作为 schema 改写后的 SQL
+     * @return 模板
+     */
+    public static TenantSqlTemplate compile(String placeholderSql) {
+        int count = 0;
+        for (int i = placeholderSql.indexOf(SLOT); i >= 0; i = placeholderSql.indexOf(SLOT, i + SLOT.length())) {
+            count++;
+        }
+
+        String[] segments = new String[count + 1];
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int end = placeholderSql.indexOf(SLOT, start);
+            segments[i] = placeholderSql.substring(start, end);
+            start = end + SLOT.length();
+        }
+        segments[count] = placeholderSql.substring(start);
+        return new TenantSqlTemplate(segments, placeholderSql.length() - count * SLOT.length());
+    }
+
+    /**
+     * 拼接租户 schema
+     *
+     * @param schema 租户 schema，为空时表名不加 schema
+     * @return 改写后的 SQL
+     */
+    public String render(String schema) {
+        if (segments.length == 1) {
+            return segments[0];
+        }
+        boolean emptySchema = schema == null || schema.isEmpty();
+        if (emptySchema) {
+            schema = "";
+        }
+
+        StringBuilder sb = new StringBuilder(length + getSlotCount() * (schema.length() + 1));
+        sb.append(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            if (!emptySchema) {
+                sb.append(schema).append('.');
+            }
+            sb.append(segments[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 需要加 schema 的表名个数
+     */
+    public int getSlotCount() {
+        return segments.length - 1;
+    }
+}
@@ -0,0 +1,67 @@
+package com.lance.mybatissharp.plugins.type;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+import java.nio.ByteBuffer;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * UUID与binary(16)的转换，高64位在前，与MySQL 8.0的UUID_TO_BIN(uuid)一致
+ * <p>没有指定type的UUID字段按binary(16)建表，需要注册该处理器，例如mybatis.type-handlers-package</p>
+ *
+ * @author Lance
+ */
+@MappedTypes(UUID.class)
+@MappedJdbcTypes(JdbcType.BINARY)
+public class UuidBinaryTypeHandler extends BaseTypeHandler<UUID> {
+
+    private static final int UUID_BYTES = 16;
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, UUID parameter, JdbcType jdbcType) throws SQLException {
+        ps.setBytes(i, toBytes(parameter));
+    }
+
+    @Override
+    public UUID getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return fromBytes(rs.getBytes(columnName));
+    }
+
+    @Override
+    public UUID getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return fromBytes(rs.getBytes(columnIndex));
+    }
+
+    @Override
+    public UUID getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return fromBytes(cs.getBytes(columnIndex));
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(UUID_BYTES)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * @throws SQLException 长度不是16个字节时
+     */
+    public static UUID fromBytes(byte[] bytes) throws SQLException {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != UUID_BYTES) {
+            throw new SQLException("UUID字段的长度不是16个字节：" + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -1,5 +1,6 @@
 package com.lance.mybatissharp.schema;
 
+import com.lance.mybatissharp.metrics.SharpMetrics;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -21,14 +22,57 @@ public class MyBatisSchemaSettings {
     private String username;
     private String password;
 
-    /** 数据库表引擎 */
+    /** 建表时默认的表引擎，@Table指定了engine时使用@Table的 */
     private String engine;
-    /** 数据库表字符集 */
+    /** 建表时默认的表字符集 */
     private String charset;
 
-    /** 实体类集合 */
+    /** 实体类集合，为空时扫描entityPackage，没有配置entityPackage时使用mybatis-sharp-processor编译期生成的所有建表元数据 */
     private Collection<Class<?>> entityClasses;
+    /** 实体类所在的包，entityClasses为空时扫描该包下打了@Table的类 */
+    private String entityPackage;
 
     /** 使用模式 */
     private String tableAuto;
+
+    /** 更新表结构的并发数，大于1时先把各表的对比、再把各表的更新分发到线程池并行执行，同一张表的变更仍按顺序执行 */
+    private int parallelism = 1;
+    /** 多个租户schema同时更新时的并发数，每个schema内的各表按顺序执行 */
+    private int tenantParallelism = 4;
+
+    /** 是否开启实体结构指纹，开启后实体结构、影响对比结果的配置（indexDropEnabled、engine、charset）和库中结构都没有变化时跳过整个更新，只在update模式下生效 */
+    private boolean fingerprintEnabled;
+    /** 记录实体结构指纹的表名 */
+    private String schemaMetaTable = "mybatis_sharp_schema";
+
+    /** 是否开启在线修改表结构，开启后达到阈值的大表通过影子表修改，修改期间不阻塞写入 */
+    private boolean onlineMigrationEnabled;
+    /** 在线修改表结构的行数阈值，information_schema中的估算行数达到该值时使用 */
+    private long onlineMigrationMinRows = 1000000;
+    /** 在线修改表结构的大小阈值（字节），数据和索引大小之和达到该值时使用 */
+    private long onlineMigrationMinBytes = 1024L * 1024 * 1024;
+    /** 在线修改表结构时每批复制的行数 */
+    private int onlineMigrationChunkSize = 1000;
+    /** 在线修改表结构时每批复制之间暂停的毫秒数 */
+    private long onlineMigrationChunkInterval = 10;
+
+    /** 是否删除库中有但实体没有用@Index声明的索引，单字段唯一索引由@Column(isUnique)管理，不受影响 */
+    private boolean indexDropEnabled;
+
+    /** 是否按变更内容为alter table指定最低代价的ALGORITHM和LOCK，数据库不支持时依次尝试代价更高的算法 */
+    private boolean ddlAlgorithmEnabled;
+    /** 开启ddlAlgorithmEnabled后，是否允许需要复制整张表（阻塞写入）的修改，不允许时直接失败 */
+    private boolean ddlCopyAllowed = true;
+
+    /** 是否开启集群迁移锁，开启后多个节点同时调用execute()时只有获得锁的节点更新表结构，之后获得锁的节点只核对实体结构指纹和库中结构校验值 */
+    private boolean migrationLockEnabled;
+    /** 集群迁移锁的表名 */
+    private String migrationLockTable = "mybatis_sharp_lock";
+    /** 等待迁移锁的最长秒数，超时后execute()抛出异常 */
+    private int migrationLockWaitSeconds = 600;
+    /** 迁移锁的租期（秒），持有期间定时续期，节点宕机后最多经过该时长其他节点可以获得锁 */
+    private int migrationLockLeaseSeconds = 60;
+
+    /** 指标输出，记录各阶段和每条DDL的耗时、各类变更的数量，默认不输出 */
+    private SharpMetrics metrics = SharpMetrics.NOOP;
 }
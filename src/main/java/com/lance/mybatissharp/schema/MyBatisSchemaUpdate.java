@@ -1,24 +1,63 @@
 package com.lance.mybatissharp.schema;
 
+import com.lance.mybatissharp.metrics.SharpMetricNames;
 import com.lance.mybatissharp.schema.annotation.Column;
+import com.lance.mybatissharp.schema.annotation.Index;
 import com.lance.mybatissharp.schema.annotation.LengthCount;
+import com.lance.mybatissharp.schema.annotation.Partition;
 import com.lance.mybatissharp.schema.annotation.Table;
+import com.lance.mybatissharp.schema.command.AlterTableParam;
+import com.lance.mybatissharp.schema.command.ColumnAdvice;
 import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.IndexParam;
+import com.lance.mybatissharp.schema.command.MigrationPlan;
+import com.lance.mybatissharp.schema.command.PartitionParam;
+import com.lance.mybatissharp.schema.command.SchemaFingerprint;
+import com.lance.mybatissharp.schema.command.SchemaMigrationReport;
 import com.lance.mybatissharp.schema.command.SysMysqlColumns;
+import com.lance.mybatissharp.schema.command.SysMysqlPartitions;
+import com.lance.mybatissharp.schema.command.SysMysqlStatistics;
+import com.lance.mybatissharp.schema.command.SysMysqlTables;
+import com.lance.mybatissharp.schema.command.TableOptionParam;
+import com.lance.mybatissharp.schema.command.TableModel;
+import com.lance.mybatissharp.schema.command.TablePlan;
+import com.lance.mybatissharp.schema.constants.AlterAlgorithm;
 import com.lance.mybatissharp.schema.constants.MySqlTypeConstant;
 import com.lance.mybatissharp.schema.dao.CreateMysqlTablesMapper;
-import com.lance.mybatissharp.schema.utils.ClassTools;
-import org.apache.commons.lang.ArrayUtils;
+import com.lance.mybatissharp.schema.metadata.TableMetadata;
+import com.lance.mybatissharp.schema.metadata.TableMetadataLoader;
+import com.lance.mybatissharp.schema.utils.AlterAlgorithmTools;
+import com.lance.mybatissharp.schema.utils.ColumnTypeTools;
+import com.lance.mybatissharp.schema.utils.IndexTools;
+import com.lance.mybatissharp.schema.utils.PartitionTools;
+import com.lance.mybatissharp.schema.utils.SchemaFingerprintTools;
+import com.lance.mybatissharp.schema.utils.TableOptionTools;
+import com.lance.mybatissharp.schema.utils.TableClassScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.lang.reflect.Field;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * MyBatis自定建表、添加字段工具
@@ -36,6 +75,9 @@ public class MyBatisSchemaUpdate {
     /** 创建表 */
     private static final String TABLE_AUTO_CREATE = "create";
 
+    /** 实体结构指纹记录的id */
+    private static final String SCHEMA_FINGERPRINT_ID = "default";
+
     @Autowired
     private CreateMysqlTablesMapper createMysqlTablesMapper; // todo
 
@@ -47,18 +89,747 @@ public class MyBatisSchemaUpdate {
     }
 
     /**
-     * 执行更新
+     * 不使用Spring注入时设置Mapper
+     *
+     * @param createMysqlTablesMapper 创建更新表结构的Mapper
+     */
+    public void setCreateMysqlTablesMapper(CreateMysqlTablesMapper createMysqlTablesMapper) {
+        this.createMysqlTablesMapper = createMysqlTablesMapper;
+    }
+
+    /**
+     * 执行更新，开启集群迁移锁时只有获得锁的节点对比和更新表结构
      */
     public void execute() {
+        if (schemaSettings.isMigrationLockEnabled() && !TABLE_AUTO_NONE.equals(schemaSettings.getTableAuto())) {
+            executeWithLock();
+            return;
+        }
+        execute(plan());
+    }
+
+    /**
+     * 获得集群迁移锁后对比和更新表结构，完成后记录实体结构指纹
+     * <p>获得锁后先核对记录的实体结构指纹和库中结构校验值，其他节点已把表结构更新到本节点的指纹时不再查询库中结构，
+     * 只维护滚动分区</p>
+     */
+    private void executeWithLock() {
+        Map<String, TableModel> tableModels = tableModelsConstruct(schemaSettings.getEntityClasses());
+        String fingerprint = SchemaFingerprintTools.fingerprint(tableModels.values(), diffSettings());
+
+        long start = System.nanoTime();
+        SchemaMigrationLock lock = new SchemaMigrationLock(createMysqlTablesMapper, schemaSettings);
+        boolean migrated = lock.runExclusively(() -> {
+            recordPhase(SharpMetricNames.PHASE_LOCK, start);
+            return isSchemaUnchanged(fingerprint);
+        }, () -> {
+            MigrationPlan plan = planModel(tableModels.values());
+            executePlan(plan, schemaSettings.getParallelism(), lock);
+            // 结构没有变化时planModel不设置指纹，仍然记录，让之后获得锁的节点知道已经完成
+            if (plan.getFingerprint() == null) {
+                lock.checkHeld();
+                saveSchemaFingerprint(fingerprint);
+            }
+        });
+        if (!migrated) {
+            logger.info("表结构已更新到实体结构指纹" + fingerprint + "，且库中结构未变化，不需要更新表结构");
+            // 滚动分区随日期变化，仍然需要维护
+            if (PartitionTools.hasRolling(tableModels.values())) {
+                rollPartitions(tableModels.values());
+            }
+        }
+    }
+
+    /**
+     * 对比model结构与库中结构，生成迁移计划，不修改数据库
+     *
+     * @return 迁移计划，配置tableAuto=none或结构没有变化时不包含任何表
+     */
+    public MigrationPlan plan() {
         // 不做任何事情
         if (TABLE_AUTO_NONE.equals(schemaSettings.getTableAuto())) {
-            logger.info("配置tableAuto=none，不需要做任何事情");
-            return;
+            return noneTablePlan();
         }
 
-        // 获取Mysql的类型，以及类型需要设置几个长度
+        // 迭代出所有model的结构，表名为key
+        return planModel(tableModelsConstruct(schemaSettings.getEntityClasses()).values());
+    }
+
+    /**
+     * 对比给定的model结构与库中结构，生成迁移计划，不修改数据库
+     * <p>结构不来自实体类时使用，例如由其他描述文件生成的表结构；忽略配置的实体类和实体类包</p>
+     *
+     * @param tableModels 各表的结构，表名不能重复
+     * @return 迁移计划，配置tableAuto=none或结构没有变化时不包含任何表
+     */
+    public MigrationPlan planModels(Collection<TableModel> tableModels) {
+        if (TABLE_AUTO_NONE.equals(schemaSettings.getTableAuto())) {
+            return noneTablePlan();
+        }
+        Set<String> tableNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (TableModel tableModel : tableModels) {
+            if (!tableNames.add(tableModel.getTableName())) {
+                throw new IllegalStateException("表名重复：" + tableModel.getTableName());
+            }
+        }
+        return planModel(tableModels);
+    }
+
+    private MigrationPlan noneTablePlan() {
+        logger.info("配置tableAuto=none，不需要做任何事情");
+        MigrationPlan plan = new MigrationPlan();
+        plan.setTableAuto(schemaSettings.getTableAuto());
+        return plan;
+    }
+
+    /**
+     * 找出{@code @Column}中声明的类型比按Java类型推断的类型更占空间的字段，只输出报告，不修改数据库
+     * <p>没有指定type的字段已经按Java类型推断，不检查；整张表节省的空间按information_schema中的估算行数计算</p>
+     *
+     * @return 按整张表节省的字节数从大到小排列，节省相同时按每行节省的字节数
+     */
+    public List<ColumnAdvice> adviseColumns() {
+        Map<Class<?>, TableMetadata> metadataMap = TableMetadataLoader.load(schemaClassLoader());
         Map<String, Object> mySqlTypeAndLengthMap = mySqlTypeAndLengthMap();
+        Map<String, SysMysqlTables> tableStatusMap = allTableStatusConstruct();
+
+        List<ColumnAdvice> advices = new ArrayList<>();
+        for (Class<?> clas : entityClassesConstruct(schemaSettings.getEntityClasses(), metadataMap)) {
+            Table table = clas.getAnnotation(Table.class);
+            if (null == table) {
+                continue;
+            }
+            SysMysqlTables tableStatus = tableStatusMap.get(table.name());
+            List<Field> fields = new ArrayList<>();
+            recursionParents(clas, fields);
+            for (Field field : fields) {
+                Column column = field.getAnnotation(Column.class);
+                if (column == null || column.type().isEmpty()) {
+                    continue;
+                }
+                ColumnAdvice advice = ColumnTypeTools.advise(table.name(), ColumnTypeTools.javaTypeName(field.getType()),
+                        ColumnTypeTools.enumConstants(field.getType()), columnParamConstruct(mySqlTypeAndLengthMap, field));
+                if (advice != null) {
+                    advice.setTableRows(tableStatus == null || tableStatus.getTable_rows() == null ? 0
+                            : tableStatus.getTable_rows());
+                    advices.add(advice);
+                }
+            }
+        }
+
+        advices.sort(Comparator.comparingLong(ColumnAdvice::getEstimatedSavedBytes)
+                .thenComparingInt(ColumnAdvice::getSavedBytes).reversed());
+        for (ColumnAdvice advice : advices) {
+            logger.info("字段类型建议：{}", advice);
+        }
+        return advices;
+    }
+
+    /**
+     * 只维护滚动分区：提前创建之后的分区，删除超过保留周期的分区，不对比其他结构，适合每天定时调用
+     * <p>表不存在或库中的分区与声明的不一致时跳过，由execute()处理</p>
+     */
+    public void rollPartitions() {
+        rollPartitions(tableModelsConstruct(schemaSettings.getEntityClasses()).values());
+    }
+
+    /**
+     * 维护给定model结构中的滚动分区，开启集群迁移锁时获得锁后执行
+     *
+     * @param tableModels model中声明的各表结构
+     */
+    private void rollPartitions(Collection<TableModel> tableModels) {
+        MigrationPlan plan = new MigrationPlan();
+        plan.setTableAuto(schemaSettings.getTableAuto());
+        // 多个节点同时定时调用时依次执行，后执行的节点按最新的分区计算，没有变更
+        if (schemaSettings.isMigrationLockEnabled()) {
+            SchemaMigrationLock lock = new SchemaMigrationLock(createMysqlTablesMapper, schemaSettings);
+            lock.runExclusively(() -> false, () -> {
+                rollingPlansConstruct(plan, tableModels, allTablePartitionsConstruct());
+                executePlan(plan, schemaSettings.getParallelism(), lock);
+            });
+        } else {
+            rollingPlansConstruct(plan, tableModels, allTablePartitionsConstruct());
+            execute(plan);
+        }
+    }
+
+    /**
+     * 计算各滚动分区表需要增加和删除的分区，把有变更的表加入迁移计划
+     *
+     * @param plan               迁移计划
+     * @param tableModels        model中声明的各表结构
+     * @param tablePartitionsMap 表名为key，该表在库中的分区为value
+     */
+    private void rollingPlansConstruct(MigrationPlan plan, Collection<TableModel> tableModels,
+                                       Map<String, List<SysMysqlPartitions>> tablePartitionsMap) {
+        LocalDate today = LocalDate.now();
+        for (TableModel tableModel : tableModels) {
+            String tableName = tableModel.getTableName();
+            PartitionParam partition = tableModel.getPartition();
+            PartitionParam existing = PartitionTools.existingPartition(tablePartitionsMap.get(tableName));
+            if (partition == null || !partition.isRolling() || existing == null) {
+                continue;
+            }
+            TablePlan tablePlan = new TablePlan(tableName);
+            if (PartitionTools.roll(partition, existing, today, tablePlan) && tablePlan.hasPartitionChanges()) {
+                plan.getTables().put(tableName, tablePlan);
+            }
+        }
+    }
+
+    /**
+     * 对比已解析的model结构与库中结构，生成迁移计划
+     *
+     * @param tableModels model中声明的各表结构
+     * @return 迁移计划
+     */
+    private MigrationPlan planModel(Collection<TableModel> tableModels) {
+        MigrationPlan plan = new MigrationPlan();
+        plan.setTableAuto(schemaSettings.getTableAuto());
+
+        // 实体结构和库中结构都没有变化时，跳过整个更新
+        if (schemaSettings.isFingerprintEnabled() && TABLE_AUTO_UPDATE.equals(schemaSettings.getTableAuto())) {
+            long start = System.nanoTime();
+            String fingerprint = SchemaFingerprintTools.fingerprint(tableModels, diffSettings());
+            boolean unchanged = isSchemaUnchanged(fingerprint);
+            recordPhase(SharpMetricNames.PHASE_FINGERPRINT, start);
+            if (unchanged) {
+                logger.info("实体结构指纹" + fingerprint + "未变化，且库中结构未变化，不需要更新表结构");
+                // 滚动分区随日期变化，仍然需要维护
+                if (PartitionTools.hasRolling(tableModels)) {
+                    rollingPlansConstruct(plan, tableModels, allTablePartitionsConstruct());
+                }
+                return plan;
+            }
+            plan.setFingerprint(fingerprint);
+        }
+
+        // 根据数据库版本判断各表的修改能使用的算法
+        long start = System.nanoTime();
+        plan.setServerVersion(createMysqlTablesMapper.findServerVersion());
+
+        // 如果配置文件配置的是create，表示将所有的表删掉重新创建，不需要对比库中结构
+        boolean recreate = TABLE_AUTO_CREATE.equals(schemaSettings.getTableAuto());
+
+        // 一次性查出库中所有表的结构、索引和状态，避免逐表查询information_schema
+        Map<String, List<SysMysqlColumns>> tableColumnsMap = recreate ? Collections.emptyMap() : allTableColumnsConstruct();
+        Map<String, List<SysMysqlStatistics>> tableIndexesMap = recreate ? Collections.emptyMap() : allTableIndexesConstruct();
+        Map<String, List<SysMysqlPartitions>> tablePartitionsMap = recreate ? Collections.emptyMap()
+                : allTablePartitionsConstruct();
+        Map<String, SysMysqlTables> tableStatusMap = allTableStatusConstruct();
+        recordPhase(SharpMetricNames.PHASE_INTROSPECTION, start);
+
+        start = System.nanoTime();
+        tablePlansConstruct(plan, tableModels, tableColumnsMap, tableIndexesMap, tablePartitionsMap, tableStatusMap,
+                recreate);
+        recordPhase(SharpMetricNames.PHASE_DIFF, start);
+        return plan;
+    }
+
+    /**
+     * 对比model结构与多个租户schema中的结构，生成每个schema的迁移计划，不修改数据库
+     * <p>所有schema的结构一次查出，结构相同（大表也相同）的schema共用同一份计划，只对比一次</p>
+     *
+     * @param schemas 租户schema名
+     * @return schema为key，该schema的迁移计划为value，配置tableAuto=none时为空
+     */
+    public Map<String, MigrationPlan> plan(Collection<String> schemas) {
+        Map<String, MigrationPlan> plans = new LinkedHashMap<>();
+        if (TABLE_AUTO_NONE.equals(schemaSettings.getTableAuto()) || schemas.isEmpty()) {
+            logger.info("配置tableAuto=none或没有schema，不需要做任何事情");
+            return plans;
+        }
+
+        Map<String, TableModel> tableModels = tableModelsConstruct(schemaSettings.getEntityClasses());
+        long start = System.nanoTime();
+        String serverVersion = createMysqlTablesMapper.findServerVersion();
+        boolean recreate = TABLE_AUTO_CREATE.equals(schemaSettings.getTableAuto());
 
+        // 一次性查出所有schema的结构、索引、分区和状态，按schema、表名分组，不区分大小写
+        Map<String, Map<String, List<SysMysqlColumns>>> schemaColumnsMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Map<String, List<SysMysqlStatistics>>> schemaIndexesMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Map<String, List<SysMysqlPartitions>>> schemaPartitionsMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (!recreate) {
+            for (SysMysqlColumns sysColumn : createMysqlTablesMapper.findAllTableEnsembleBySchemas(schemas)) {
+                schemaColumnsMap.computeIfAbsent(sysColumn.getTable_schema(), k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))
+                        .computeIfAbsent(sysColumn.getTable_name(), k -> new ArrayList<>()).add(sysColumn);
+            }
+            for (SysMysqlStatistics statistics : createMysqlTablesMapper.findAllIndexesBySchemas(schemas)) {
+                schemaIndexesMap.computeIfAbsent(statistics.getTable_schema(), k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))
+                        .computeIfAbsent(statistics.getTable_name(), k -> new ArrayList<>()).add(statistics);
+            }
+            for (SysMysqlPartitions partitions : createMysqlTablesMapper.findAllPartitionsBySchemas(schemas)) {
+                schemaPartitionsMap.computeIfAbsent(partitions.getTable_schema(), k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))
+                        .computeIfAbsent(partitions.getTable_name(), k -> new ArrayList<>()).add(partitions);
+            }
+        }
+        Map<String, Map<String, SysMysqlTables>> schemaStatusMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (SysMysqlTables tableStatus : createMysqlTablesMapper.findAllTablesBySchemas(schemas)) {
+            schemaStatusMap.computeIfAbsent(tableStatus.getTable_schema(), k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))
+                    .put(tableStatus.getTable_name(), tableStatus);
+        }
+        recordPhase(SharpMetricNames.PHASE_INTROSPECTION, start);
+
+        // 结构签名相同的schema共用一份计划
+        start = System.nanoTime();
+        OnlineTableMigrator migrator = new OnlineTableMigrator(createMysqlTablesMapper, schemaSettings);
+        Map<String, MigrationPlan> sharedPlans = new HashMap<>();
+        for (String schema : schemas) {
+            Map<String, List<SysMysqlColumns>> tableColumnsMap = schemaColumnsMap.getOrDefault(schema, Collections.emptyMap());
+            Map<String, List<SysMysqlStatistics>> tableIndexesMap = schemaIndexesMap.getOrDefault(schema, Collections.emptyMap());
+            Map<String, List<SysMysqlPartitions>> tablePartitionsMap = schemaPartitionsMap.getOrDefault(schema,
+                    Collections.emptyMap());
+            Map<String, SysMysqlTables> tableStatusMap = schemaStatusMap.getOrDefault(schema, Collections.emptyMap());
+            String signature = schemaSignature(tableModels.keySet(), tableColumnsMap, tableIndexesMap, tablePartitionsMap,
+                    tableStatusMap, migrator);
+            MigrationPlan sharedPlan = sharedPlans.computeIfAbsent(signature, k -> {
+                MigrationPlan plan = new MigrationPlan();
+                plan.setTableAuto(schemaSettings.getTableAuto());
+                plan.setServerVersion(serverVersion);
+                tablePlansConstruct(plan, tableModels.values(), tableColumnsMap, tableIndexesMap, tablePartitionsMap,
+                        tableStatusMap, recreate);
+                return plan;
+            });
+            plans.put(schema, sharedPlan.forSchema(schema));
+        }
+        recordPhase(SharpMetricNames.PHASE_DIFF, start);
+        logger.info("共" + plans.size() + "个schema，去重后对比了" + sharedPlans.size() + "种结构");
+        return plans;
+    }
+
+    /**
+     * 对比每张表的model结构与库中结构，把各表的计划加入迁移计划
+     * <p>配置的并发数大于1时各表的对比分发到有界线程池并行执行，计划中各表的顺序与model一致</p>
+     *
+     * @param plan               迁移计划
+     * @param tableModels        model中声明的各表结构
+     * @param tableColumnsMap    表名为key，该表在库中的结构为value
+     * @param tableIndexesMap    表名为key，该表在库中的索引为value
+     * @param tablePartitionsMap 表名为key，该表在库中的分区为value
+     * @param tableStatusMap     表名为key，该表在库中的状态为value
+     * @param recreate           是否删除后重新创建
+     */
+    private void tablePlansConstruct(MigrationPlan plan, Collection<TableModel> tableModels,
+                                     Map<String, List<SysMysqlColumns>> tableColumnsMap,
+                                     Map<String, List<SysMysqlStatistics>> tableIndexesMap,
+                                     Map<String, List<SysMysqlPartitions>> tablePartitionsMap,
+                                     Map<String, SysMysqlTables> tableStatusMap, boolean recreate) {
+        LocalDate today = LocalDate.now();
+        Map<String, TablePlan> tablePlans = new ConcurrentHashMap<>();
+        Map<String, Runnable> tableTasks = new LinkedHashMap<>();
+        for (TableModel tableModel : tableModels) {
+            String tableName = tableModel.getTableName();
+            tableTasks.put(tableName, () -> tablePlans.put(tableName, tablePlanConstruct(tableModel,
+                    tableColumnsMap.get(tableName), tableIndexesMap.get(tableName), tablePartitionsMap.get(tableName),
+                    tableStatusMap.get(tableName), plan.getServerVersion(), today, recreate)));
+        }
+
+        // 串行或并行对比各表
+        executeTableTasks(tableTasks, schemaSettings.getParallelism(), "对比");
+
+        for (TableModel tableModel : tableModels) {
+            plan.getTables().put(tableModel.getTableName(), tablePlans.get(tableModel.getTableName()));
+        }
+    }
+
+    /**
+     * 对比单张表的model结构、分区与库中结构，生成该表的迁移计划
+     *
+     * @param tableModel         model中声明的该表结构
+     * @param tableColumnList    该表在库中的结构，不存在时为null
+     * @param tableIndexList     该表在库中的索引，不存在或没有索引时为null
+     * @param tablePartitionList 该表在库中的分区，不存在或没有分区时为null
+     * @param tableStatus        该表在库中的状态，不存在时为null
+     * @param serverVersion      数据库版本
+     * @param today              计算滚动分区的日期
+     * @param recreate           是否删除后重新创建
+     * @return 该表的迁移计划
+     */
+    private TablePlan tablePlanConstruct(TableModel tableModel, List<SysMysqlColumns> tableColumnList,
+                                         List<SysMysqlStatistics> tableIndexList, List<SysMysqlPartitions> tablePartitionList,
+                                         SysMysqlTables tableStatus, String serverVersion, LocalDate today, boolean recreate) {
+        TablePlan tablePlan = tablePlanConstruct(tableModel.getTableName(), new ArrayList<>(tableModel.getFields()),
+                tableModel.getIndexes(), tableModel.getTableOptions(), tableColumnList, tableIndexList, tableStatus,
+                serverVersion);
+        PartitionParam partition = tableModel.getPartition();
+        if (tablePlan.isCreate()) {
+            tablePlan.setPartition(partition == null ? null : PartitionTools.layout(partition, today));
+        } else {
+            PartitionParam existing = PartitionTools.existingPartition(tablePartitionList);
+            // 库中的范围上界是计算后的值，声明中的表达式需要先计算再对比
+            if (existing != null) {
+                partition = PartitionTools.evaluateRanges(partition, createMysqlTablesMapper::evaluateExpression);
+            }
+            PartitionTools.diff(partition, existing, today, tablePlan);
+        }
+        tablePlan.setRecreate(recreate);
+        return tablePlan;
+    }
+
+    /**
+     * 计算schema中与model相关的表结构签名，签名相同的schema对比出的计划相同
+     * <p>包括对比用到的字段属性、索引、分区、存储选项，以及是否达到在线修改的阈值；行数、大小取第一个该签名的schema</p>
+     *
+     * @param tableNames      model中的表名
+     * @param tableColumnsMap 表名为key，该表在库中的结构为value
+     * @param tableIndexesMap    表名为key，该表在库中的索引为value
+     * @param tablePartitionsMap 表名为key，该表在库中的分区为value
+     * @param tableStatusMap     表名为key，该表在库中的状态为value
+     * @param migrator           用于判断是否大表
+     * @return 签名
+     */
+    private String schemaSignature(Collection<String> tableNames, Map<String, List<SysMysqlColumns>> tableColumnsMap,
+                                   Map<String, List<SysMysqlStatistics>> tableIndexesMap,
+                                   Map<String, List<SysMysqlPartitions>> tablePartitionsMap,
+                                   Map<String, SysMysqlTables> tableStatusMap, OnlineTableMigrator migrator) {
+        StringBuilder sb = new StringBuilder();
+        for (String tableName : tableNames) {
+            sb.append('\n').append(tableName).append(':').append(migrator.isLargeTable(tableStatusMap.get(tableName)));
+            List<SysMysqlColumns> tableColumnList = tableColumnsMap.get(tableName);
+            if (tableColumnList == null) {
+                continue;
+            }
+            for (SysMysqlColumns sysColumn : tableColumnList) {
+                sb.append('|').append(sysColumn.getColumn_name())
+                        .append(',').append(sysColumn.getColumn_type())
+                        .append(',').append(sysColumn.getColumn_key())
+                        .append(',').append(sysColumn.getExtra())
+                        .append(',').append(sysColumn.getColumn_default())
+                        .append(',').append(sysColumn.getIs_nullable());
+            }
+            for (IndexParam index : IndexTools.existingIndexes(tableIndexesMap.get(tableName)).values()) {
+                sb.append('#').append(index);
+            }
+            sb.append('@').append(PartitionTools.existingPartition(tablePartitionsMap.get(tableName)));
+            sb.append('$').append(TableOptionTools.existingOption(tableStatusMap.get(tableName)));
+        }
+        return SchemaFingerprintTools.sha256Hex(sb.toString());
+    }
+
+    /**
+     * 按迁移计划执行更新，使用生成计划时查询的库中结构，不再重新查询
+     *
+     * @param plan 迁移计划
+     */
+    public void execute(MigrationPlan plan) {
+        executePlan(plan, schemaSettings.getParallelism(), null);
+    }
+
+    /**
+     * 在多个租户schema上执行更新，按配置的tenantParallelism并行，某个schema失败不影响其他schema
+     *
+     * @param schemas 租户schema名
+     * @return 每个schema的执行结果
+     */
+    public SchemaMigrationReport execute(Collection<String> schemas) {
+        return execute(plan(schemas));
+    }
+
+    /**
+     * 按plan(schemas)生成的计划在多个租户schema上执行更新，按配置的tenantParallelism并行，每个schema内的各表按顺序执行
+     *
+     * @param plans schema为key，该schema的迁移计划为value
+     * @return 每个schema的执行结果
+     */
+    public SchemaMigrationReport execute(Map<String, MigrationPlan> plans) {
+        SchemaMigrationReport report = new SchemaMigrationReport(plans.size());
+        int parallelism = Math.max(1, Math.min(schemaSettings.getTenantParallelism(), plans.size()));
+        logger.info("开始更新租户schema，数量：" + plans.size() + "，并发数：" + parallelism);
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new SchemaThreadFactory());
+        try {
+            List<Future<?>> futures = new ArrayList<>(plans.size());
+            for (Map.Entry<String, MigrationPlan> entry : plans.entrySet()) {
+                String schema = entry.getKey();
+                MigrationPlan plan = entry.getValue();
+                futures.add(executor.submit(() -> {
+                    if (!plan.hasChanges()) {
+                        report.skipped(schema);
+                        return;
+                    }
+                    try {
+                        executePlan(plan, 1, null);
+                        int completed = report.succeeded(schema);
+                        logger.info("schema" + schema + "结构更新完成（" + completed + "/" + report.getTotal() + "）");
+                    } catch (RuntimeException e) {
+                        int completed = report.failed(schema, e);
+                        logger.error("schema" + schema + "结构更新失败（" + completed + "/" + report.getTotal() + "）", e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("更新租户schema被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("更新租户schema失败", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("完成更新租户schema：" + report);
+        return report;
+    }
+
+    /**
+     * 按迁移计划执行更新
+     *
+     * @param plan        迁移计划
+     * @param parallelism 各表并行执行的并发数
+     * @param lock        持有的集群迁移锁，每张表开始更新前检查是否仍持有，没有使用锁时为null
+     */
+    private void executePlan(MigrationPlan plan, int parallelism, SchemaMigrationLock lock) {
+        String schema = plan.getSchema();
+
+        // create模式下先删除所有的表
+        for (TablePlan tablePlan : plan.getTables().values()) {
+            if (tablePlan.isRecreate()) {
+                long start = System.nanoTime();
+                createMysqlTablesMapper.dropTableByName(schema, tablePlan.getTableName());
+                recordDdl(tablePlan.getTableName(), SharpMetricNames.ACTION_DROP, start);
+            }
+        }
+
+        // 每张表的更新互不依赖，按表拆分成任务
+        Map<String, Runnable> tableTasks = new LinkedHashMap<>();
+        for (TablePlan tablePlan : plan.getChangedTables()) {
+            tableTasks.put(tablePlan.getTableName(), () -> {
+                if (lock != null) {
+                    lock.checkHeld();
+                }
+                executeTablePlan(schema, tablePlan);
+            });
+        }
+
+        // 串行或并行执行各表的任务
+        executeTableTasks(tableTasks, parallelism, "更新");
+
+        // 记录本次更新后的指纹
+        if (plan.getFingerprint() != null) {
+            if (lock != null) {
+                lock.checkHeld();
+            }
+            saveSchemaFingerprint(plan.getFingerprint());
+        }
+    }
+
+    /**
+     * 迭代出所有model的结构，有编译期生成的建表元数据时直接使用，否则反射解析注解
+     *
+     * @param classes 实体类集合，为空时扫描配置的实体类包，没有配置包时使用所有生成的建表元数据
+     * @return 表名为key，model中声明的结构为value，按实体类的顺序
+     */
+    private Map<String, TableModel> tableModelsConstruct(Collection<Class<?>> classes) {
+        long start = System.nanoTime();
+        Map<Class<?>, TableMetadata> metadataMap = TableMetadataLoader.load(schemaClassLoader());
+        classes = entityClassesConstruct(classes, metadataMap);
+
+        recordPhase(SharpMetricNames.PHASE_SCAN, start);
+
+        // 获取Mysql的类型，以及类型需要设置几个长度，只有需要反射解析时才获取
+        start = System.nanoTime();
+        Map<String, Object> mySqlTypeAndLengthMap = null;
+
+        Map<String, TableModel> tableModels = new LinkedHashMap<>();
+        // 表名对应的实体类，用于发现多个实体类映射到同一张表
+        Map<String, Class<?>> tableClassMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Class<?> clas : classes) {
+            TableMetadata metadata = metadataMap.get(clas);
+            if (metadata != null) {
+                checkDuplicateTable(tableClassMap, metadata.getTableName(), clas);
+                TableModel tableModel = new TableModel(metadata.getTableName());
+                tableModel.setFields(metadata.getFields());
+                tableModel.setIndexes(metadata.getIndexes());
+                tableModel.setPartition(metadata.getPartition());
+                tableModel.setTableOptions(metadata.getTableOptions());
+                tableModels.put(tableModel.getTableName(), tableModel);
+                continue;
+            }
+
+            Table table = clas.getAnnotation(Table.class);
+            // 没有打注解不需要创建变
+            if (null == table) {
+                continue;
+            }
+            checkDuplicateTable(tableClassMap, table.name(), clas);
+            if (mySqlTypeAndLengthMap == null) {
+                mySqlTypeAndLengthMap = mySqlTypeAndLengthMap();
+            }
+            // 迭代出所有model的所有fields存到tableModel中
+            TableModel tableModel = new TableModel(table.name());
+            tableFieldsConstruct(mySqlTypeAndLengthMap, clas, tableModel.getFields());
+            // 类上声明的索引，包括父类上的
+            for (Index index : clas.getAnnotationsByType(Index.class)) {
+                tableModel.getIndexes().add(IndexTools.indexParam(index.name(), index.columns(), index.lengths(),
+                        index.unique(), index.fulltext()));
+            }
+            Partition partition = clas.getAnnotation(Partition.class);
+            if (partition != null) {
+                tableModel.setPartition(PartitionTools.partitionParam(partition.type(), partition.expression(),
+                        partition.count(), partition.ranges(), partition.interval(), partition.ahead(), partition.retention()));
+            }
+            tableModel.setTableOptions(TableOptionTools.tableOption(table.engine(), table.rowFormat(),
+                    table.keyBlockSize(), table.compression(), table.statsPersistent(), table.statsSamplePages()));
+            tableModels.put(tableModel.getTableName(), tableModel);
+        }
+        recordPhase(SharpMetricNames.PHASE_REFLECTION, start);
+        return tableModels;
+    }
+
+    /**
+     * 多个实体类映射到同一张表时，后处理的会覆盖先处理的结构，按表拆分的任务也会互相覆盖，直接报错
+     *
+     * @param tableClassMap 已处理的表名与实体类
+     * @param tableName     表名
+     * @param clas          实体类
+     * @throws IllegalStateException 表名（不区分大小写）已被其他实体类使用时
+     */
+    private void checkDuplicateTable(Map<String, Class<?>> tableClassMap, String tableName, Class<?> clas) {
+        Class<?> existing = tableClassMap.putIfAbsent(tableName, clas);
+        if (existing != null && existing != clas) {
+            throw new IllegalStateException("实体类" + existing.getName() + "与" + clas.getName() + "映射到同一张表：" + tableName);
+        }
+    }
+
+    /**
+     * 确定需要处理的实体类
+     *
+     * @param classes     实体类集合，为空时扫描配置的实体类包，没有配置包时使用所有生成的建表元数据
+     * @param metadataMap 编译期生成的建表元数据，实体类为key
+     * @return 实体类集合
+     */
+    private Collection<Class<?>> entityClassesConstruct(Collection<Class<?>> classes,
+                                                        Map<Class<?>, TableMetadata> metadataMap) {
+        if (classes != null && !classes.isEmpty()) {
+            return classes;
+        }
+        String entityPackage = schemaSettings.getEntityPackage();
+        if (entityPackage != null) {
+            return new TableClassScanner(schemaClassLoader()).scan(entityPackage);
+        }
+        return metadataMap.keySet();
+    }
+
+    /**
+     * 加载建表元数据使用的类加载器
+     */
+    private ClassLoader schemaClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : MyBatisSchemaUpdate.class.getClassLoader();
+    }
+
+    /**
+     * 影响对比结果的配置，参与实体结构指纹的计算，修改这些配置后不会因为指纹未变化而跳过更新
+     * <p>只影响执行方式的配置（算法、在线修改、并发数等）不包括在内；新增影响对比结果的配置时需要加入</p>
+     *
+     * @return 配置名为key
+     */
+    private Map<String, Object> diffSettings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("indexDropEnabled", schemaSettings.isIndexDropEnabled());
+        settings.put("engine", schemaSettings.getEngine());
+        settings.put("charset", schemaSettings.getCharset());
+        return settings;
+    }
+
+    /**
+     * 判断实体结构指纹与上次更新后记录的是否相同，并且库中结构在上次更新后没有被修改
+     *
+     * @param fingerprint 实体结构指纹
+     * @return 都没有变化返回true
+     */
+    private boolean isSchemaUnchanged(String fingerprint) {
+        String metaTable = schemaSettings.getSchemaMetaTable();
+        createMysqlTablesMapper.createSchemaMetaTable(metaTable);
+        SchemaFingerprint saved = createMysqlTablesMapper.findSchemaFingerprint(metaTable, SCHEMA_FINGERPRINT_ID);
+        if (saved == null || !fingerprint.equals(saved.getFingerprint())) {
+            return false;
+        }
+        return createMysqlTablesMapper.findSchemaChecksum(metaTable).equals(saved.getChecksum());
+    }
+
+    /**
+     * 记录本次更新后的实体结构指纹和库中结构校验值
+     *
+     * @param fingerprint 实体结构指纹
+     */
+    private void saveSchemaFingerprint(String fingerprint) {
+        String metaTable = schemaSettings.getSchemaMetaTable();
+        SchemaFingerprint schemaFingerprint = new SchemaFingerprint();
+        schemaFingerprint.setId(SCHEMA_FINGERPRINT_ID);
+        schemaFingerprint.setFingerprint(fingerprint);
+        schemaFingerprint.setChecksum(createMysqlTablesMapper.findSchemaChecksum(metaTable));
+        schemaFingerprint.setUpdateTime(new Date());
+        createMysqlTablesMapper.saveSchemaFingerprint(metaTable, schemaFingerprint);
+        logger.info("记录实体结构指纹：" + fingerprint);
+    }
+
+    /**
+     * 执行各表的任务，配置的并发数大于1时分发到有界线程池并行执行，同一张表的变更仍在一个任务中按顺序执行
+     *
+     * @param tableTasks  表名为key，该表的对比或更新任务为value
+     * @param parallelism 配置的并发数
+     * @param action      任务的名称，用于日志，例如对比、更新
+     */
+    private void executeTableTasks(Map<String, Runnable> tableTasks, int parallelism, String action) {
+        parallelism = Math.min(parallelism, tableTasks.size());
+        if (parallelism <= 1) {
+            for (Runnable task : tableTasks.values()) {
+                task.run();
+            }
+            return;
+        }
+
+        logger.info("开始并行" + action + "表结构，表数量：" + tableTasks.size() + "，并发数：" + parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new SchemaThreadFactory());
+        try {
+            Map<String, Future<?>> futures = new LinkedHashMap<>();
+            for (Map.Entry<String, Runnable> entry : tableTasks.entrySet()) {
+                futures.put(entry.getKey(), executor.submit(entry.getValue()));
+            }
+
+            // 等待所有表执行完，某张表失败不影响其他表，最后抛出第一个失败
+            RuntimeException failure = null;
+            for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+                try {
+                    entry.getValue().get();
+                } catch (ExecutionException e) {
+                    logger.error("表" + entry.getKey() + "结构" + action + "失败", e.getCause());
+                    if (failure == null) {
+                        failure = new IllegalStateException("表" + entry.getKey() + "结构" + action + "失败", e.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            logger.info("完成并行" + action + "表结构");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("并行" + action + "表结构被中断", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 对比单张表的model结构与数据库结构，生成该表的迁移计划
+     *
+     * @param tableName             表名
+     * @param newFieldList          model中的结构
+     * @param newIndexList          model中声明的索引
+     * @param newOptions            model中声明的存储选项，没有声明时为null
+     * @param tableColumnList       该表在库中的结构，不存在时为null
+     * @param tableIndexList        该表在库中的索引，不存在或没有索引时为null
+     * @param tableStatus           该表在库中的状态，不存在时为null
+     * @param serverVersion         数据库版本
+     * @return 该表的迁移计划
+     */
+    private TablePlan tablePlanConstruct(String tableName, List<Object> newFieldList, List<IndexParam> newIndexList,
+                                         TableOptionParam newOptions, List<SysMysqlColumns> tableColumnList, List<SysMysqlStatistics> tableIndexList,
+                                         SysMysqlTables tableStatus, String serverVersion) {
         // 用于存需要创建的表名+结构
         Map<String, List<Object>> newTableMap = new HashMap<>();
 
@@ -77,20 +848,82 @@ public class MyBatisSchemaUpdate {
         // 用于存需要删除唯一约束的表名+结构
         Map<String, List<Object>> dropUniqueTableMap = new HashMap<>();
 
-        // 构建出全部表的增删改的map
-        allTableMapConstruct(mySqlTypeAndLengthMap, schemaSettings.getEntityClasses(), newTableMap, modifyTableMap, addTableMap, removeTableMap,
-                dropKeyTableMap, dropUniqueTableMap);
+        // 构建出该表的增删改的map
+        tableMapConstruct(tableName, newFieldList, tableColumnList, newTableMap, modifyTableMap,
+                addTableMap, removeTableMap, dropKeyTableMap, dropUniqueTableMap);
+
+        TablePlan tablePlan = new TablePlan(tableName);
+        tablePlan.setColumns(tableColumnList);
+        tablePlan.setCreate(newTableMap.containsKey(tableName));
+        tablePlan.setNewFields(planFields(newTableMap, tableName));
+        tablePlan.setAddFields(planFields(addTableMap, tableName));
+        tablePlan.setRemoveFields(planFields(removeTableMap, tableName));
+        tablePlan.setModifyFields(planFields(modifyTableMap, tableName));
+        tablePlan.setDropKeyFields(planFields(dropKeyTableMap, tableName));
+        tablePlan.setDropUniqueFields(planFields(dropUniqueTableMap, tableName));
+        if (tablePlan.isCreate()) {
+            tablePlan.setNewIndexes(new ArrayList<>(newIndexList));
+            tablePlan.setTableOptions(TableOptionTools.createOptions(newOptions, schemaSettings.getEngine(),
+                    schemaSettings.getCharset()));
+        } else {
+            indexPlanConstruct(tablePlan, newIndexList, tableIndexList);
+            tablePlan.setTableOptions(TableOptionTools.diff(newOptions, TableOptionTools.existingOption(tableStatus)));
+        }
+        if (tableStatus != null) {
+            tablePlan.setTableRows(tableStatus.getTable_rows() == null ? 0 : tableStatus.getTable_rows());
+            tablePlan.setDataLength(tableStatus.getData_length() == null ? 0 : tableStatus.getData_length());
+            tablePlan.setIndexLength(tableStatus.getIndex_length() == null ? 0 : tableStatus.getIndex_length());
+        }
+
+        if (!tablePlan.isCreate() && tablePlan.hasAlter()) {
+            AlterTableParam alter = alterTableConstruct(tablePlan);
+            AlterAlgorithm algorithm = AlterAlgorithmTools.classify(alter, columnIndexConstruct(tableColumnList), serverVersion);
+            tablePlan.setAlgorithm(algorithm);
+
+            // 大表不能INSTANT修改时，通过影子表在线修改
+            OnlineTableMigrator migrator = new OnlineTableMigrator(createMysqlTablesMapper, schemaSettings);
+            tablePlan.setOnline(migrator.isLargeTable(tableStatus) && migrator.supports(alter, tableColumnList)
+                    && (!schemaSettings.isDdlAlgorithmEnabled() || algorithm != AlterAlgorithm.INSTANT));
+        }
+        return tablePlan;
+    }
+
+    /**
+     * 对比该表声明的索引与库中的索引，找出需要增加和删除的索引
+     * <p>声明为单字段唯一索引的字段，库中的唯一约束不再按{@code @Column(isUnique)}删除</p>
+     *
+     * @param tablePlan      该表的迁移计划
+     * @param newIndexList   model中声明的索引
+     * @param tableIndexList 该表在库中的索引，没有索引时为null
+     */
+    private void indexPlanConstruct(TablePlan tablePlan, List<IndexParam> newIndexList,
+                                    List<SysMysqlStatistics> tableIndexList) {
+        IndexTools.diff(newIndexList, IndexTools.existingIndexes(tableIndexList), schemaSettings.isIndexDropEnabled(),
+                tablePlan.getAddIndexes(), tablePlan.getDropIndexes());
+
+        for (IndexParam index : newIndexList) {
+            if (index.isUnique() && index.getColumns().size() == 1) {
+                String column = index.getColumns().get(0);
+                tablePlan.getDropUniqueFields().removeIf(field -> field.getFieldName().equalsIgnoreCase(column));
+            }
+        }
+    }
 
-        // 根据传入的map，分别去创建或修改表结构
-        createOrModifyTableConstruct(newTableMap, modifyTableMap, addTableMap, removeTableMap, dropKeyTableMap,
-                dropUniqueTableMap);
+    /**
+     * 取出map中该表的字段
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> planFields(Map<String, List<Object>> tableMap, String tableName) {
+        List<Object> fields = tableMap.get(tableName);
+        return fields == null ? new ArrayList<>() : new ArrayList<>((List<T>) (List<?>) fields);
     }
 
     /**
-     * 构建出全部表的增删改的map
+     * 构建出单张表的增删改的map
      *
-     * @param mySqlTypeAndLengthMap 获取Mysql的类型，以及类型需要设置几个长度
-     * @param classes               从包package中获取所有的Class
+     * @param tableName             表名
+     * @param newFieldList          model中的结构
+     * @param tableColumnList       该表在库中的结构，不存在时为null
      * @param newTableMap           用于存需要创建的表名+结构
      * @param modifyTableMap        用于存需要更新字段类型等的表名+结构
      * @param addTableMap           用于存需要增加字段的表名+结构
@@ -98,133 +931,128 @@ public class MyBatisSchemaUpdate {
      * @param dropKeyTableMap       用于存需要删除主键的表名+结构
      * @param dropUniqueTableMap    用于存需要删除唯一约束的表名+结构
      */
-    private void allTableMapConstruct(Map<String, Object> mySqlTypeAndLengthMap, Collection<Class<?>> classes,
-                                      Map<String, List<Object>> newTableMap, Map<String, List<Object>> modifyTableMap,
-                                      Map<String, List<Object>> addTableMap, Map<String, List<Object>> removeTableMap,
-                                      Map<String, List<Object>> dropKeyTableMap, Map<String, List<Object>> dropUniqueTableMap) {
-        for (Class<?> clas : classes) {
-
-            Table table = clas.getAnnotation(Table.class);
-            // 没有打注解不需要创建变
-            if (null == table) {
-                continue;
-            }
-
-            // 用于存新增表的字段
-            List<Object> newFieldList = new ArrayList<>();
-            // 用于存删除的字段
-            List<Object> removeFieldList = new ArrayList<>();
-            // 用于存新增的字段
-            List<Object> addFieldList = new ArrayList<>();
-            // 用于存修改的字段
-            List<Object> modifyFieldList = new ArrayList<>();
-            // 用于存删除主键的字段
-            List<Object> dropKeyFieldList = new ArrayList<>();
-            // 用于存删除唯一约束的字段
-            List<Object> dropUniqueFieldList = new ArrayList<>();
-
-            // 迭代出所有model的所有fields存到newFieldList中
-            tableFieldsConstruct(mySqlTypeAndLengthMap, clas, newFieldList);
+    private void tableMapConstruct(String tableName, List<Object> newFieldList, List<SysMysqlColumns> tableColumnList,
+                                   Map<String, List<Object>> newTableMap, Map<String, List<Object>> modifyTableMap,
+                                   Map<String, List<Object>> addTableMap, Map<String, List<Object>> removeTableMap,
+                                   Map<String, List<Object>> dropKeyTableMap, Map<String, List<Object>> dropUniqueTableMap) {
+        // 用于存删除的字段
+        List<Object> removeFieldList = new ArrayList<>();
+        // 用于存新增的字段
+        List<Object> addFieldList = new ArrayList<>();
+        // 用于存修改的字段
+        List<Object> modifyFieldList = new ArrayList<>();
+        // 用于存删除主键的字段
+        List<Object> dropKeyFieldList = new ArrayList<>();
+        // 用于存删除唯一约束的字段
+        List<Object> dropUniqueFieldList = new ArrayList<>();
 
-            // 如果配置文件配置的是create，表示将所有的表删掉重新创建
-            if (TABLE_AUTO_CREATE.equals(schemaSettings.getTableAuto())) {
-                createMysqlTablesMapper.dropTableByName(table.name());
-            }
-
-            // 先查该表是否以存在
-            int exist = createMysqlTablesMapper.findTableCountByTableName(table.name());
+        // 不存在时
+        if (tableColumnList == null) {
+            newTableMap.put(tableName, newFieldList);
+        } else {
+            // 按字段名建立索引，用来筛选出增加、删除和修改的字段
+            Map<String, SysMysqlColumns> columnIndex = columnIndexConstruct(tableColumnList);
 
-            // 不存在时
-            if (exist == 0) {
-                newTableMap.put(table.name(), newFieldList);
-            } else {
-                // 已存在时理论上做修改的操作，这里查出该表的结构
-                List<SysMysqlColumns> tableColumnList = createMysqlTablesMapper
-                        .findTableEnsembleByTableName(table.name());
-
-                // 从sysColumns中取出我们需要比较的列的List
-                // 先取出name用来筛选出增加和删除的字段
-                List<String> columnNames = ClassTools.getPropertyValueList(tableColumnList,
-                        SysMysqlColumns.COLUMN_NAME_KEY);
+            // 验证对比从model中解析的fieldList与从数据库查出来的columnList
+            // 1. 找出增加的字段
+            // 2. 找出删除的字段
+            // 3. 找出更新的字段
+            buildAddAndRemoveAndModifyFields(modifyTableMap, addTableMap, removeTableMap,
+                    dropKeyTableMap, dropUniqueTableMap, tableName, newFieldList, removeFieldList, addFieldList,
+                    modifyFieldList, dropKeyFieldList, dropUniqueFieldList, columnIndex);
+        }
+    }
 
-                // 验证对比从model中解析的fieldList与从数据库查出来的columnList
-                // 1. 找出增加的字段
-                // 2. 找出删除的字段
-                // 3. 找出更新的字段
-                buildAddAndRemoveAndModifyFields(mySqlTypeAndLengthMap, modifyTableMap, addTableMap, removeTableMap,
-                        dropKeyTableMap, dropUniqueTableMap, table, newFieldList, removeFieldList, addFieldList,
-                        modifyFieldList, dropKeyFieldList, dropUniqueFieldList, tableColumnList, columnNames);
+    /**
+     * 按字段名建立该表结构的索引，每张表只建立一次，对比时按字段名直接查找
+     *
+     * @param tableColumnList 该表在库中的结构
+     * @return 小写字段名为key，按字段位置排序
+     */
+    private Map<String, SysMysqlColumns> columnIndexConstruct(List<SysMysqlColumns> tableColumnList) {
+        Map<String, SysMysqlColumns> columnIndex = new LinkedHashMap<>((int) (tableColumnList.size() / 0.75f) + 1);
+        for (SysMysqlColumns sysColumn : tableColumnList) {
+            columnIndex.put(sysColumn.getColumn_name().toLowerCase(), sysColumn);
+        }
+        return columnIndex;
+    }
 
-            }
+    /**
+     * 查出当前库中所有表的结构，按表名分组
+     *
+     * @return 表名为key（不区分大小写，与实体中的表名可能大小写不同），该表的字段结构为value
+     */
+    private Map<String, List<SysMysqlColumns>> allTableColumnsConstruct() {
+        Map<String, List<SysMysqlColumns>> tableColumnsMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (SysMysqlColumns sysColumn : createMysqlTablesMapper.findAllTableEnsemble()) {
+            tableColumnsMap.computeIfAbsent(sysColumn.getTable_name(), k -> new ArrayList<>()).add(sysColumn);
         }
+        return tableColumnsMap;
     }
 
     /**
      * 构建增加的删除的修改的字段
      *
-     * @param mySqlTypeAndLengthMap 获取Mysql的类型，以及类型需要设置几个长度
      * @param modifyTableMap        用于存需要更新字段类型等的表名+结构
      * @param addTableMap           用于存需要增加字段的表名+结构
      * @param removeTableMap        用于存需要删除字段的表名+结构
      * @param dropKeyTableMap       用于存需要删除主键的表名+结构
      * @param dropUniqueTableMap    用于存需要删除唯一约束的表名+结构
-     * @param table                 表
+     * @param tableName             表名
      * @param newFieldList          用于存新增表的字段
      * @param removeFieldList       用于存删除的字段
      * @param addFieldList          用于存新增的字段
      * @param modifyFieldList       用于存修改的字段
      * @param dropKeyFieldList      用于存删除主键的字段
      * @param dropUniqueFieldList   用于存删除唯一约束的字段
-     * @param tableColumnList       已存在时理论上做修改的操作，这里查出该表的结构
-     * @param columnNames           从sysColumns中取出我们需要比较的列的List
+     * @param columnIndex           已存在时理论上做修改的操作，这里是该表的结构，小写字段名为key
      */
-    private void buildAddAndRemoveAndModifyFields(Map<String, Object> mySqlTypeAndLengthMap,
-                                                  Map<String, List<Object>> modifyTableMap, Map<String, List<Object>> addTableMap,
+    private void buildAddAndRemoveAndModifyFields(Map<String, List<Object>> modifyTableMap, Map<String, List<Object>> addTableMap,
                                                   Map<String, List<Object>> removeTableMap, Map<String, List<Object>> dropKeyTableMap,
-                                                  Map<String, List<Object>> dropUniqueTableMap, Table table, List<Object> newFieldList,
+                                                  Map<String, List<Object>> dropUniqueTableMap, String tableName, List<Object> newFieldList,
                                                   List<Object> removeFieldList, List<Object> addFieldList, List<Object> modifyFieldList,
-                                                  List<Object> dropKeyFieldList, List<Object> dropUniqueFieldList, List<SysMysqlColumns> tableColumnList,
-                                                  List<String> columnNames) {
+                                                  List<Object> dropKeyFieldList, List<Object> dropUniqueFieldList,
+                                                  Map<String, SysMysqlColumns> columnIndex) {
         // 1. 找出增加的字段
         // 根据数据库中表的结构和model中表的结构对比找出新增的字段
-        buildNewFields(addTableMap, table, newFieldList, addFieldList, columnNames);
+        buildNewFields(addTableMap, tableName, newFieldList, addFieldList, columnIndex);
 
-        // 将fieldList转成Map类型，字段名作为主键
-        Map<String, CreateTableParam> fieldMap = new HashMap<>();
+        // 将fieldList转成Map类型，小写字段名作为主键（MySQL字段名不区分大小写）
+        Map<String, CreateTableParam> fieldMap = new HashMap<>((int) (newFieldList.size() / 0.75f) + 1);
         for (Object obj : newFieldList) {
             CreateTableParam createTableParam = (CreateTableParam) obj;
-            fieldMap.put(createTableParam.getFieldName(), createTableParam);
+            fieldMap.put(createTableParam.getFieldName().toLowerCase(), createTableParam);
         }
 
         // 2. 找出删除的字段
-        buildRemoveFields(removeTableMap, table, removeFieldList, columnNames, fieldMap);
+        buildRemoveFields(removeTableMap, tableName, removeFieldList, columnIndex, fieldMap);
 
         // 3. 找出更新的字段
-        buildModifyFields(mySqlTypeAndLengthMap, modifyTableMap, dropKeyTableMap, dropUniqueTableMap, table,
-                modifyFieldList, dropKeyFieldList, dropUniqueFieldList, tableColumnList, fieldMap);
+        buildModifyFields(modifyTableMap, dropKeyTableMap, dropUniqueTableMap, tableName,
+                modifyFieldList, dropKeyFieldList, dropUniqueFieldList, columnIndex, fieldMap);
     }
 
     /**
      * 根据数据库中表的结构和model中表的结构对比找出修改类型默认值等属性的字段
      *
-     * @param mySqlTypeAndLengthMap 获取Mysql的类型，以及类型需要设置几个长度
      * @param modifyTableMap        用于存需要更新字段类型等的表名+结构
      * @param dropKeyTableMap       用于存需要删除主键的表名+结构
      * @param dropUniqueTableMap    用于存需要删除唯一约束的表名+结构
-     * @param table                 表
+     * @param tableName             表名
      * @param modifyFieldList       用于存修改的字段
      * @param dropKeyFieldList      用于存删除主键的字段
      * @param dropUniqueFieldList   用于存删除唯一约束的字段
-     * @param tableColumnList       已存在时理论上做修改的操作，这里查出该表的结构
-     * @param fieldMap              从sysColumns中取出我们需要比较的列的List
+     * @param columnIndex           已存在时理论上做修改的操作，这里是该表的结构，小写字段名为key
+     * @param fieldMap              model中的字段，小写字段名为key
      */
-    private void buildModifyFields(Map<String, Object> mySqlTypeAndLengthMap, Map<String, List<Object>> modifyTableMap,
-                                   Map<String, List<Object>> dropKeyTableMap, Map<String, List<Object>> dropUniqueTableMap, Table table,
+    private void buildModifyFields(Map<String, List<Object>> modifyTableMap,
+                                   Map<String, List<Object>> dropKeyTableMap, Map<String, List<Object>> dropUniqueTableMap, String tableName,
                                    List<Object> modifyFieldList, List<Object> dropKeyFieldList, List<Object> dropUniqueFieldList,
-                                   List<SysMysqlColumns> tableColumnList, Map<String, CreateTableParam> fieldMap) {
-        for (SysMysqlColumns sysColumn : tableColumnList) {
+                                   Map<String, SysMysqlColumns> columnIndex, Map<String, CreateTableParam> fieldMap) {
+        for (Map.Entry<String, SysMysqlColumns> entry : columnIndex.entrySet()) {
+            SysMysqlColumns sysColumn = entry.getValue();
             // 数据库中有该字段时
-            CreateTableParam createTableParam = fieldMap.get(sysColumn.getColumn_name());
+            CreateTableParam createTableParam = fieldMap.get(entry.getKey());
             if (createTableParam != null) {
                 // 检查是否要删除已有主键和是否要删除已有唯一约束的代码必须放在其他检查的最前面
                 // 原本是主键，现在不是了，那么要去做删除主键的操作
@@ -239,14 +1067,15 @@ public class MyBatisSchemaUpdate {
 
                 // 验证是否有更新
                 // 1.验证类型
-                if (!sysColumn.getData_type().toLowerCase().equals(createTableParam.getFieldType().toLowerCase())) {
+                if (!sysColumn.getData_type().equalsIgnoreCase(createTableParam.getFieldType())) {
                     modifyFieldList.add(createTableParam);
                     continue;
                 }
                 // 2.验证长度
                 // 3.验证小数点位数
-                int length = (Integer) mySqlTypeAndLengthMap.get(createTableParam.getFieldType().toLowerCase());
-                String typeAndLength = createTableParam.getFieldType().toLowerCase();
+                // model中的类型在解析时已经转成小写
+                int length = createTableParam.getFileTypeLength();
+                String typeAndLength = createTableParam.getFieldType();
                 if (length == 1) {
                     // 拼接出类型加长度，比如varchar(1)
                     typeAndLength = typeAndLength + "(" + createTableParam.getFieldLength() + ")";
@@ -254,9 +1083,13 @@ public class MyBatisSchemaUpdate {
                     // 拼接出类型加长度，比如varchar(1)
                     typeAndLength = typeAndLength + "(" + createTableParam.getFieldLength() + ","
                             + createTableParam.getFieldDecimalLength() + ")";
+                } else if (createTableParam.getFieldValues() != null) {
+                    // 拼接出enum类型加取值，比如enum('A','B')
+                    typeAndLength = ColumnTypeTools.columnType(createTableParam);
                 }
-                // 判断类型+长度是否相同
-                if (!sysColumn.getColumn_type().toLowerCase().equals(typeAndLength)) {
+                // 判断类型+长度是否相同，整数的显示宽度不参与比较
+                if (!ColumnTypeTools.normalizeType(sysColumn.getColumn_type())
+                        .equalsIgnoreCase(ColumnTypeTools.normalizeType(typeAndLength))) {
                     modifyFieldList.add(createTableParam);
                     continue;
                 }
@@ -313,15 +1146,15 @@ public class MyBatisSchemaUpdate {
         }
 
         if (modifyFieldList.size() > 0) {
-            modifyTableMap.put(table.name(), modifyFieldList);
+            modifyTableMap.put(tableName, modifyFieldList);
         }
 
         if (dropKeyFieldList.size() > 0) {
-            dropKeyTableMap.put(table.name(), dropKeyFieldList);
+            dropKeyTableMap.put(tableName, dropKeyFieldList);
         }
 
         if (dropUniqueFieldList.size() > 0) {
-            dropUniqueTableMap.put(table.name(), dropUniqueFieldList);
+            dropUniqueTableMap.put(tableName, dropUniqueFieldList);
         }
     }
 
@@ -329,22 +1162,22 @@ public class MyBatisSchemaUpdate {
      * 根据数据库中表的结构和model中表的结构对比找出删除的字段
      *
      * @param removeTableMap  用于存需要删除字段的表名+结构
-     * @param table           表
+     * @param tableName       表名
      * @param removeFieldList 用于存删除的字段
-     * @param columnNames     数据库中的结构
-     * @param fieldMap        model中的字段，字段名为key
+     * @param columnIndex     数据库中的结构，小写字段名为key
+     * @param fieldMap        model中的字段，小写字段名为key
      */
-    private void buildRemoveFields(Map<String, List<Object>> removeTableMap, Table table, List<Object> removeFieldList,
-                                   List<String> columnNames, Map<String, CreateTableParam> fieldMap) {
-        for (String fieldNm : columnNames) {
+    private void buildRemoveFields(Map<String, List<Object>> removeTableMap, String tableName, List<Object> removeFieldList,
+                                   Map<String, SysMysqlColumns> columnIndex, Map<String, CreateTableParam> fieldMap) {
+        for (Map.Entry<String, SysMysqlColumns> entry : columnIndex.entrySet()) {
             // 判断该字段在新的model结构中是否存在
-            if (fieldMap.get(fieldNm) == null) {
+            if (!fieldMap.containsKey(entry.getKey())) {
                 // 不存在，做删除处理
-                removeFieldList.add(fieldNm);
+                removeFieldList.add(entry.getValue().getColumn_name());
             }
         }
         if (removeFieldList.size() > 0) {
-            removeTableMap.put(table.name(), removeFieldList);
+            removeTableMap.put(tableName, removeFieldList);
         }
     }
 
@@ -352,23 +1185,23 @@ public class MyBatisSchemaUpdate {
      * 根据数据库中表的结构和model中表的结构对比找出新增的字段
      *
      * @param addTableMap  用于存需要增加字段的表名+结构
-     * @param table        表
+     * @param tableName    表名
      * @param newFieldList model中的结构
      * @param addFieldList 用于存新增的字段
-     * @param columnNames  数据库中的结构
+     * @param columnIndex  数据库中的结构，小写字段名为key
      */
-    private void buildNewFields(Map<String, List<Object>> addTableMap, Table table, List<Object> newFieldList,
-                                List<Object> addFieldList, List<String> columnNames) {
+    private void buildNewFields(Map<String, List<Object>> addTableMap, String tableName, List<Object> newFieldList,
+                                List<Object> addFieldList, Map<String, SysMysqlColumns> columnIndex) {
         for (Object obj : newFieldList) {
             CreateTableParam createTableParam = (CreateTableParam) obj;
             // 循环新的model中的字段，判断是否在数据库中已经存在
-            if (!columnNames.contains(createTableParam.getFieldName())) {
+            if (!columnIndex.containsKey(createTableParam.getFieldName().toLowerCase())) {
                 // 不存在，表示要在数据库中增加该字段
                 addFieldList.add(obj);
             }
         }
         if (addFieldList.size() > 0) {
-            addTableMap.put(table.name(), addFieldList);
+            addTableMap.put(tableName, addFieldList);
         }
     }
 
@@ -380,206 +1213,344 @@ public class MyBatisSchemaUpdate {
      * @param newFieldList          用于存新增表的字段
      */
     private void tableFieldsConstruct(Map<String, Object> mySqlTypeAndLengthMap, Class<?> clas,
-                                      List<Object> newFieldList) {
-        Field[] fields = clas.getDeclaredFields();
-
-        // 判断是否有父类，如果有拉取父类的field，这里只支持多层继承
-        fields = recursionParents(clas, fields);
+                                      List<CreateTableParam> newFieldList) {
+        // 拉取本类和所有父类的field，这里只支持多层继承
+        List<Field> fields = new ArrayList<>();
+        recursionParents(clas, fields);
 
         for (Field field : fields) {
             // 判断方法中是否有指定注解类型的注解
             boolean hasAnnotation = field.isAnnotationPresent(Column.class);
             if (hasAnnotation) {
-                // 根据注解类型返回方法的指定类型注解
-                Column column = field.getAnnotation(Column.class);
-                CreateTableParam param = new CreateTableParam();
-                param.setFieldName(column.name());
-                param.setFieldType(column.type().toLowerCase());
-                param.setFieldLength(column.length());
-                param.setFieldDecimalLength(column.decimalLength());
-                // 主键或唯一键时设置必须不为null
-                if (column.isKey() || column.isUnique()) {
-                    param.setFieldIsNull(false);
-                } else {
-                    param.setFieldIsNull(column.isNull());
-                }
-                param.setFieldIsKey(column.isKey());
-                param.setFieldIsAutoIncrement(column.isAutoIncrement());
-                param.setFieldDefaultValue(column.defaultValue());
-                param.setFieldIsUnique(column.isUnique());
-                int length = (Integer) mySqlTypeAndLengthMap.get(column.type().toLowerCase());
-                param.setFileTypeLength(length);
-                newFieldList.add(param);
+                newFieldList.add(columnParamConstruct(mySqlTypeAndLengthMap, field));
             }
         }
     }
 
     /**
-     * 递归扫描父类的fields
+     * 按字段上的{@code @Column}构建字段信息，没有指定type时按Java类型推断
+     *
+     * @param mySqlTypeAndLengthMap mysql数据类型和对应几个长度的map
+     * @param field                 打了{@code @Column}的字段
+     * @return 字段信息
+     * @throws IllegalStateException 无法推断类型时
+     */
+    private CreateTableParam columnParamConstruct(Map<String, Object> mySqlTypeAndLengthMap, Field field) {
+        // 根据注解类型返回方法的指定类型注解
+        Column column = field.getAnnotation(Column.class);
+        CreateTableParam param = new CreateTableParam();
+        param.setFieldName(column.name());
+        if (column.type().isEmpty()) {
+            String javaType = ColumnTypeTools.javaTypeName(field.getType());
+            if (!ColumnTypeTools.inferType(javaType, ColumnTypeTools.enumConstants(field.getType()), column.length(),
+                    column.decimalLength(), param)) {
+                throw new IllegalStateException(String.format("字段%s的Java类型%s无法推断数据库类型，请在@Column中指定type，"
+                        + "BigDecimal需要指定不超过65的length", column.name(), javaType));
+            }
+        } else {
+            param.setFieldType(column.type().toLowerCase());
+            param.setFieldLength(column.length());
+            param.setFieldDecimalLength(column.decimalLength());
+            int length = (Integer) mySqlTypeAndLengthMap.get(column.type().toLowerCase());
+            param.setFileTypeLength(length);
+        }
+        // 主键或唯一键时设置必须不为null
+        if (column.isKey() || column.isUnique()) {
+            param.setFieldIsNull(false);
+        } else {
+            param.setFieldIsNull(column.isNull());
+        }
+        param.setFieldIsKey(column.isKey());
+        param.setFieldIsAutoIncrement(column.isAutoIncrement());
+        param.setFieldDefaultValue(column.defaultValue());
+        param.setFieldIsUnique(column.isUnique());
+        return param;
+    }
+
+    /**
+     * 依次扫描本类和父类的fields，都追加到同一个列表中
      *
      * @param clazz  类
      * @param fields 属性
      */
-    @SuppressWarnings("rawtypes")
-    private Field[] recursionParents(Class<?> clazz, Field[] fields) {
-        if (clazz.getSuperclass() != null) {
-            Class clsSup = clazz.getSuperclass();
-            fields = (Field[]) ArrayUtils.addAll(fields, clsSup.getDeclaredFields());
-            fields = recursionParents(clsSup, fields);
+    private void recursionParents(Class<?> clazz, List<Field> fields) {
+        for (Class<?> clas = clazz; clas != null; clas = clas.getSuperclass()) {
+            Collections.addAll(fields, clas.getDeclaredFields());
         }
-        return fields;
     }
 
     /**
-     * 根据传入的map创建或修改表结构
+     * 按单张表的迁移计划创建或修改表结构
      *
-     * @param newTableMap        用于存需要创建的表名+结构
-     * @param modifyTableMap     用于存需要更新字段类型等的表名+结构
-     * @param addTableMap        用于存需要增加字段的表名+结构
-     * @param removeTableMap     用于存需要删除字段的表名+结构
-     * @param dropKeyTableMap    用于存需要删除主键的表名+结构
-     * @param dropUniqueTableMap 用于存需要删除唯一约束的表名+结构
+     * @param schema    表所在的schema，为null时使用当前库
+     * @param tablePlan 该表的迁移计划
      */
-    private void createOrModifyTableConstruct(Map<String, List<Object>> newTableMap,
-                                              Map<String, List<Object>> modifyTableMap, Map<String, List<Object>> addTableMap,
-                                              Map<String, List<Object>> removeTableMap, Map<String, List<Object>> dropKeyTableMap,
-                                              Map<String, List<Object>> dropUniqueTableMap) {
+    private void executeTablePlan(String schema, TablePlan tablePlan) {
         // 1. 创建表
-        createTableByMap(newTableMap);
-        // 2. 删除要变更主键的表的原来的字段的主键
-        dropFieldsKeyByMap(dropKeyTableMap);
-        // 3. 删除要变更唯一约束的表的原来的字段的唯一约束
-        dropFieldsUniqueByMap(dropUniqueTableMap);
-        // 4. 添加新的字段
-        addFieldsByMap(addTableMap);
-        // 5. 删除字段
-        removeFieldsByMap(removeTableMap);
-        // 6. 修改字段类型等
-        modifyFieldsByMap(modifyTableMap);
-
-    }
-
-    /**
-     * 根据map结构修改表中的字段类型等
-     *
-     * @param modifyTableMap 用于存需要更新字段类型等的表名+结构
-     */
-    private void modifyFieldsByMap(Map<String, List<Object>> modifyTableMap) {
-        // 做修改字段操作
-        if (modifyTableMap.size() > 0) {
-            for (Map.Entry<String, List<Object>> entry : modifyTableMap.entrySet()) {
-                for (Object obj : entry.getValue()) {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put(entry.getKey(), obj);
-                    CreateTableParam fieldProperties = (CreateTableParam) obj;
-                    logger.info("开始修改表" + entry.getKey() + "中的字段" + fieldProperties.getFieldName());
-                    createMysqlTablesMapper.modifyTableField(map);
-                    logger.info("完成修改表" + entry.getKey() + "中的字段" + fieldProperties.getFieldName());
-                }
-            }
+        if (tablePlan.isCreate()) {
+            Map<String, List<Object>> newTableMap = new HashMap<>();
+            newTableMap.put(tablePlan.getTableName(), new ArrayList<>(tablePlan.getNewFields()));
+            long start = System.nanoTime();
+            createTableByMap(schema, newTableMap, tablePlan.getNewIndexes(), tablePlan.getTableOptions(),
+                    tablePlan.getPartition());
+            recordDdl(tablePlan.getTableName(), SharpMetricNames.ACTION_CREATE, start);
+            return;
+        }
+        if (tablePlan.hasAlter()) {
+            alterTablePlan(schema, tablePlan);
+        }
+
+        // 3. 分区不能和其他修改合并在一条alter table语句中，在字段、索引修改完成后单独执行
+        if (tablePlan.hasPartitionChanges()) {
+            executePartitionPlan(schema, tablePlan);
         }
     }
 
     /**
-     * 根据map结构删除表中的字段
+     * 把单张表的字段、索引变更合并成一条alter table语句执行，达到阈值的大表使用影子表在线修改
      *
-     * @param removeTableMap 用于存需要删除字段的表名+结构
+     * @param schema    表所在的schema，为null时使用当前库
+     * @param tablePlan 该表的迁移计划
      */
-    private void removeFieldsByMap(Map<String, List<Object>> removeTableMap) {
-        // 做删除字段操作
-        if (removeTableMap.size() > 0) {
-            for (Map.Entry<String, List<Object>> entry : removeTableMap.entrySet()) {
-                for (Object obj : entry.getValue()) {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put(entry.getKey(), obj);
-                    String fieldName = (String) obj;
-                    logger.info("开始删除表" + entry.getKey() + "中的字段" + fieldName);
-                    createMysqlTablesMapper.removeTableField(map);
-                    logger.info("完成删除表" + entry.getKey() + "中的字段" + fieldName);
-                }
-            }
+    private void alterTablePlan(String schema, TablePlan tablePlan) {
+        // 2. 删除主键、删除唯一约束、添加、删除、修改字段、增删索引、存储选项合并成一条alter table语句
+        AlterTableParam alter = alterTableConstruct(tablePlan);
+        alter.setSchemaName(schema);
+        logger.info("开始修改表" + alter.getTableName() + "，删除主键：" + alter.isDropPrimaryKey()
+                + "，删除唯一约束：" + alter.getDropUniqueFields().size()
+                + "，增加字段：" + alter.getAddFields().size()
+                + "，删除字段：" + alter.getRemoveFields().size()
+                + "，修改字段：" + alter.getModifyFields().size()
+                + "，删除索引：" + alter.getDropIndexes().size()
+                + "，增加索引：" + alter.getAddIndexes().size()
+                + "，存储选项：" + (alter.getTableOptions() == null ? "无" : alter.getTableOptions())
+                + "，预计算法：" + tablePlan.getAlgorithm());
+        recordActions(tablePlan);
+        long start = System.nanoTime();
+        if (tablePlan.isOnline()
+                && new OnlineTableMigrator(createMysqlTablesMapper, schemaSettings).migrate(alter, tablePlan.getColumns())) {
+            recordDdl(alter.getTableName(), SharpMetricNames.ACTION_ONLINE, start);
+            return;
         }
+        alterTable(alter, schemaSettings.isDdlAlgorithmEnabled() ? tablePlan.getAlgorithm() : null);
+        recordDdl(alter.getTableName(), SharpMetricNames.ACTION_ALTER, start);
+        logger.info("完成修改表" + alter.getTableName());
     }
 
     /**
-     * 根据map结构对表中添加新的字段
+     * 按单张表的迁移计划修改分区：先重新分区或取消分区，再增加分区，最后删除过期分区
+     * <p>重新分区、取消分区需要复制整张表，开启ddlAlgorithmEnabled且不允许复制时抛出异常</p>
      *
-     * @param addTableMap 用于存需要增加字段的表名+结构
+     * @param schema    表所在的schema，为null时使用当前库
+     * @param tablePlan 该表的迁移计划
      */
-    private void addFieldsByMap(Map<String, List<Object>> addTableMap) {
-        // 做增加字段操作
-        if (addTableMap.size() > 0) {
-            for (Map.Entry<String, List<Object>> entry : addTableMap.entrySet()) {
-                for (Object obj : entry.getValue()) {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put(entry.getKey(), obj);
-                    CreateTableParam fieldProperties = (CreateTableParam) obj;
-                    logger.info("开始为表" + entry.getKey() + "增加字段" + fieldProperties.getFieldName());
-                    createMysqlTablesMapper.addTableField(map);
-                    logger.info("完成为表" + entry.getKey() + "增加字段" + fieldProperties.getFieldName());
-                }
+    private void executePartitionPlan(String schema, TablePlan tablePlan) {
+        String tableName = tablePlan.getTableName();
+        if (tablePlan.isRepartition() || tablePlan.isRemovePartitioning()) {
+            if (schemaSettings.isDdlAlgorithmEnabled() && !schemaSettings.isDdlCopyAllowed()) {
+                throw new IllegalStateException("表" + tableName + "的分区修改需要复制整张表，已配置不允许");
             }
+            long start = System.nanoTime();
+            if (tablePlan.isRepartition()) {
+                logger.info("开始重新分区表" + tableName + "：" + tablePlan.getPartition());
+                createMysqlTablesMapper.partitionTable(schema, tableName, tablePlan.getPartition());
+            } else {
+                logger.info("开始取消表" + tableName + "的分区");
+                createMysqlTablesMapper.removePartitioning(schema, tableName);
+            }
+            recordDdl(tableName, SharpMetricNames.ACTION_PARTITION, start);
+        }
+        if (tablePlan.getAddPartitions() != null) {
+            logger.info("开始为表" + tableName + "增加分区：" + tablePlan.getAddPartitions().getNames());
+            long start = System.nanoTime();
+            createMysqlTablesMapper.addPartitions(schema, tableName, tablePlan.getAddPartitions());
+            recordDdl(tableName, SharpMetricNames.ACTION_ADD_PARTITION, start);
         }
+        if (!tablePlan.getDropPartitions().isEmpty()) {
+            logger.info("开始删除表" + tableName + "的分区：" + tablePlan.getDropPartitions());
+            long start = System.nanoTime();
+            createMysqlTablesMapper.dropPartitions(schema, tableName, tablePlan.getDropPartitions());
+            recordDdl(tableName, SharpMetricNames.ACTION_DROP_PARTITION, start);
+        }
+        logger.info("完成修改表" + tableName + "的分区");
     }
 
     /**
-     * 根据map结构删除要变更表中字段的主键
+     * 记录单张表各类变更的数量
+     */
+    private void recordActions(TablePlan tablePlan) {
+        recordAction(SharpMetricNames.ACTION_ADD, tablePlan.getAddFields().size());
+        recordAction(SharpMetricNames.ACTION_REMOVE, tablePlan.getRemoveFields().size());
+        recordAction(SharpMetricNames.ACTION_MODIFY, tablePlan.getModifyFields().size());
+        recordAction(SharpMetricNames.ACTION_DROP_KEY, tablePlan.getDropKeyFields().isEmpty() ? 0 : 1);
+        recordAction(SharpMetricNames.ACTION_DROP_UNIQUE, tablePlan.getDropUniqueFields().size());
+        recordAction(SharpMetricNames.ACTION_ADD_INDEX, tablePlan.getAddIndexes().size());
+        recordAction(SharpMetricNames.ACTION_DROP_INDEX, tablePlan.getDropIndexes().size());
+        recordAction(SharpMetricNames.ACTION_TABLE_OPTIONS, tablePlan.getTableOptions() == null ? 0 : 1);
+    }
+
+    private void recordAction(String action, long amount) {
+        if (amount > 0) {
+            schemaSettings.getMetrics().increment(SharpMetricNames.SCHEMA_ACTIONS, amount, SharpMetricNames.TAG_ACTION, action);
+        }
+    }
+
+    /**
+     * 记录一个阶段的耗时
      *
-     * @param dropKeyTableMap 用于存需要删除主键的表名+结构
+     * @param phase 阶段
+     * @param start 开始时的System.nanoTime()
      */
-    private void dropFieldsKeyByMap(Map<String, List<Object>> dropKeyTableMap) {
-        // 先去做删除主键的操作，这步操作必须在增加和修改字段之前！
-        if (dropKeyTableMap.size() > 0) {
-            for (Map.Entry<String, List<Object>> entry : dropKeyTableMap.entrySet()) {
-                for (Object obj : entry.getValue()) {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put(entry.getKey(), obj);
-                    CreateTableParam fieldProperties = (CreateTableParam) obj;
-                    logger.info("开始为表" + entry.getKey() + "删除主键" + fieldProperties.getFieldName());
-                    createMysqlTablesMapper.dropKeyTableField(map);
-                    logger.info("完成为表" + entry.getKey() + "删除主键" + fieldProperties.getFieldName());
-                }
+    private void recordPhase(String phase, long start) {
+        schemaSettings.getMetrics().recordTime(SharpMetricNames.SCHEMA_PHASE, System.nanoTime() - start,
+                SharpMetricNames.TAG_PHASE, phase);
+    }
+
+    /**
+     * 记录一条DDL的耗时，同时计数
+     *
+     * @param tableName 表名
+     * @param action    变更类型
+     * @param start     开始时的System.nanoTime()
+     */
+    private void recordDdl(String tableName, String action, long start) {
+        schemaSettings.getMetrics().recordTime(SharpMetricNames.SCHEMA_DDL, System.nanoTime() - start,
+                SharpMetricNames.TAG_TABLE, tableName, SharpMetricNames.TAG_ACTION, action);
+        recordAction(action, 1);
+    }
+
+    /**
+     * 把单张表的变更合并成一条alter table语句的参数，避免每个字段都重建一次表
+     *
+     * @param tablePlan 该表的迁移计划
+     * @return 表的变更信息
+     */
+    private AlterTableParam alterTableConstruct(TablePlan tablePlan) {
+        AlterTableParam alter = new AlterTableParam(tablePlan.getTableName());
+
+        // 删除主键，原主键字段需要重新定义（例如去掉自增）
+        if (!tablePlan.getDropKeyFields().isEmpty()) {
+            alter.setDropPrimaryKey(true);
+            for (CreateTableParam fieldProperties : tablePlan.getDropKeyFields()) {
+                alter.addModifyField(fieldProperties);
             }
         }
+
+        // 删除唯一约束，删除后字段需要重新定义
+        for (CreateTableParam fieldProperties : tablePlan.getDropUniqueFields()) {
+            alter.getDropUniqueFields().add(fieldProperties.getFieldName());
+            alter.addModifyField(fieldProperties);
+        }
+
+        // 添加新的字段
+        alter.getAddFields().addAll(tablePlan.getAddFields());
+
+        // 删除字段
+        alter.getRemoveFields().addAll(tablePlan.getRemoveFields());
+
+        // 修改字段类型等
+        for (CreateTableParam fieldProperties : tablePlan.getModifyFields()) {
+            alter.addModifyField(fieldProperties);
+        }
+
+        // 删除、增加索引，定义变化的索引先删除再增加
+        alter.getDropIndexes().addAll(tablePlan.getDropIndexes());
+        alter.getAddIndexes().addAll(tablePlan.getAddIndexes());
+
+        // 存储选项与其他修改合并在同一条语句中
+        alter.setTableOptions(tablePlan.getTableOptions());
+        return alter;
     }
 
     /**
-     * 根据map结构删除要变更表中字段的唯一约束
+     * 按指定的算法修改表，数据库不支持时依次尝试代价更高的算法
      *
-     * @param dropUniqueTableMap 用于存需要删除唯一约束的表名+结构
+     * @param alter     表的变更信息
+     * @param algorithm 最低代价的算法，为null时不指定
      */
-    private void dropFieldsUniqueByMap(Map<String, List<Object>> dropUniqueTableMap) {
-        // 先去做删除唯一约束的操作，这步操作必须在增加和修改字段之前！
-        if (dropUniqueTableMap.size() > 0) {
-            for (Map.Entry<String, List<Object>> entry : dropUniqueTableMap.entrySet()) {
-                for (Object obj : entry.getValue()) {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put(entry.getKey(), obj);
-                    CreateTableParam fieldProperties = (CreateTableParam) obj;
-                    logger.info("开始为表" + entry.getKey() + "删除唯一约束" + fieldProperties.getFieldName());
-                    createMysqlTablesMapper.dropUniqueTableField(map);
-                    logger.info("完成为表" + entry.getKey() + "删除唯一约束" + fieldProperties.getFieldName());
-                    logger.info("开始修改表" + entry.getKey() + "中的字段" + fieldProperties.getFieldName());
-                    createMysqlTablesMapper.modifyTableField(map);
-                    logger.info("完成修改表" + entry.getKey() + "中的字段" + fieldProperties.getFieldName());
+    private void alterTable(AlterTableParam alter, AlterAlgorithm algorithm) {
+        for (AlterAlgorithm current = algorithm; current != null; current = current.next()) {
+            if (current == AlterAlgorithm.COPY) {
+                if (!schemaSettings.isDdlCopyAllowed()) {
+                    throw new IllegalStateException("表" + alter.getTableName() + "的修改需要复制整张表，已配置不允许");
                 }
+                break;
             }
+            alter.setAlgorithm(current.name());
+            // 增加全文索引时不支持LOCK=NONE
+            alter.setLock(current == AlterAlgorithm.INPLACE && !IndexTools.hasFulltext(alter.getAddIndexes()) ? "NONE" : null);
+            try {
+                createMysqlTablesMapper.alterTable(alter);
+                return;
+            } catch (RuntimeException e) {
+                if (!AlterAlgorithmTools.isAlgorithmRefused(e)) {
+                    throw e;
+                }
+                logger.warn("表" + alter.getTableName() + "不支持ALGORITHM=" + current + "，尝试" + current.next());
+            }
+        }
+        alter.setAlgorithm(null);
+        alter.setLock(null);
+        createMysqlTablesMapper.alterTable(alter);
+    }
+
+    /**
+     * 查出当前库中所有表的索引，按表名分组
+     *
+     * @return 表名为key（不区分大小写，与实体中的表名可能大小写不同），该表的索引信息为value
+     */
+    private Map<String, List<SysMysqlStatistics>> allTableIndexesConstruct() {
+        Map<String, List<SysMysqlStatistics>> tableIndexesMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (SysMysqlStatistics statistics : createMysqlTablesMapper.findAllIndexes()) {
+            tableIndexesMap.computeIfAbsent(statistics.getTable_name(), k -> new ArrayList<>()).add(statistics);
+        }
+        return tableIndexesMap;
+    }
+
+    /**
+     * 查询库中所有分区表的分区，按表名分组
+     *
+     * @return 表名为key（不区分大小写，与实体中的表名可能大小写不同），该表的分区为value
+     */
+    private Map<String, List<SysMysqlPartitions>> allTablePartitionsConstruct() {
+        Map<String, List<SysMysqlPartitions>> tablePartitionsMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (SysMysqlPartitions partitions : createMysqlTablesMapper.findAllPartitions()) {
+            tablePartitionsMap.computeIfAbsent(partitions.getTable_name(), k -> new ArrayList<>()).add(partitions);
+        }
+        return tablePartitionsMap;
+    }
+
+    /**
+     * 查询库中所有表的状态，表名为key
+     *
+     * @return 表名为key（不区分大小写，与实体中的表名可能大小写不同），表的状态为value
+     */
+    private Map<String, SysMysqlTables> allTableStatusConstruct() {
+        Map<String, SysMysqlTables> tableStatusMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (SysMysqlTables tableStatus : createMysqlTablesMapper.findAllTables()) {
+            tableStatusMap.put(tableStatus.getTable_name(), tableStatus);
         }
+        return tableStatusMap;
     }
 
     /**
      * 根据map结构创建表
      *
+     * @param schema      表所在的schema，为null时使用当前库
      * @param newTableMap 用于存需要创建的表名+结构
+     * @param indexes     表的二级索引
+     * @param options     表的存储选项，都不指定时为null
+     * @param partition   表的分区定义，不分区时为null
      */
-    private void createTableByMap(Map<String, List<Object>> newTableMap) {
+    private void createTableByMap(String schema, Map<String, List<Object>> newTableMap, List<IndexParam> indexes,
+                                  TableOptionParam options, PartitionParam partition) {
         // 做创建表操作
         if (newTableMap.size() > 0) {
             for (Map.Entry<String, List<Object>> entry : newTableMap.entrySet()) {
                 Map<String, List<Object>> map = new HashMap<>();
                 map.put(entry.getKey(), entry.getValue());
                 logger.info("开始创建表：" + entry.getKey());
-                createMysqlTablesMapper.createTable(map);
+                createMysqlTablesMapper.createTable(schema, map, indexes, options, partition);
                 logger.info("完成创建表：" + entry.getKey());
             }
         }
@@ -599,4 +1570,19 @@ public class MyBatisSchemaUpdate {
         return map;
     }
 
+    /**
+     * 并行更新表结构的线程工厂
+     */
+    private static class SchemaThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mybatis-sharp-schema-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
 }
@@ -0,0 +1,236 @@
+package com.lance.mybatissharp.schema;
+
+import com.lance.mybatissharp.schema.dao.BaseMysqlCRUDMapper;
+import com.lance.mybatissharp.schema.utils.BatchChunkTools;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于BaseMysqlCRUDMapper的批量写入工具
+ * <p>插入合并成多行insert，按max_allowed_packet和占位符上限拆分；所有语句在BATCH模式的会话中执行，
+ * 相同的语句合并成一次JDBC批量提交（配合连接参数rewriteBatchedStatements=true效果更好）</p>
+ * <p>每次调用打开一个新的会话并在结束时提交。会话的连接由SqlSessionFactory的TransactionFactory决定：
+ * 使用mybatis-spring时会加入当前的Spring事务，提交和回滚由外部事务决定；否则使用独立的连接，结束时直接提交</p>
+ *
+ * @author Lance
+ */
+public class MysqlBatchWriter {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** 插入时每条语句默认最多的行数 */
+    private static final int DEFAULT_CHUNK_ROWS = 1000;
+    /** 默认积累多少条语句提交一次JDBC批量 */
+    private static final int DEFAULT_FLUSH_STATEMENTS = 500;
+
+    private final SqlSessionFactory sqlSessionFactory;
+
+    /** 插入、删除时每条语句最多的行数 */
+    private int chunkRows       = DEFAULT_CHUNK_ROWS;
+    /** 积累多少条语句提交一次JDBC批量，避免一次批量占用过多内存 */
+    private int flushStatements = DEFAULT_FLUSH_STATEMENTS;
+
+    /** 服务端的max_allowed_packet，第一次写入时查询 */
+    private volatile long maxAllowedPacket;
+
+    public MysqlBatchWriter(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    /**
+     * 批量插入，字段相同的行合并成多行insert
+     *
+     * @param tableName 表名
+     * @param rows      字段名为key的行，同一批中没有值的字段插入null
+     * @return 影响的行数，驱动不返回行数时不计入
+     */
+    public int insert(String tableName, Collection<Map<String, Object>> rows) {
+        return save(tableName, rows, null);
+    }
+
+    /**
+     * 批量插入，主键或唯一键冲突时更新指定的字段（insert ... on duplicate key update）
+     *
+     * @param tableName     表名
+     * @param rows          字段名为key的行
+     * @param updateColumns 冲突时更新的字段名，为空时更新行中的所有字段，冲突的主键或唯一键被更新为相同的值；
+     *                      按唯一键冲突时主键也会被更新为新值，此时需要指定更新的字段
+     * @return 影响的行数，MySQL中插入的行计1，更新的行计2
+     */
+    public int upsert(String tableName, Collection<Map<String, Object>> rows, List<String> updateColumns) {
+        return save(tableName, rows, updateColumns == null ? new ArrayList<>() : updateColumns);
+    }
+
+    /**
+     * 按主键批量更新，每行一条update语句，在一次JDBC批量中提交
+     *
+     * @param tableName 表名
+     * @param keyField  主键字段名
+     * @param rows      字段名为key的行，除主键外的字段都会被更新
+     * @return 影响的行数，驱动不返回行数时不计入
+     */
+    public int update(String tableName, String keyField, Collection<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            BaseMysqlCRUDMapper mapper = session.getMapper(BaseMysqlCRUDMapper.class);
+            int affected = 0;
+            int pending = 0;
+            for (Map<String, Object> row : rows) {
+                List<String> columns = new ArrayList<>(row.keySet());
+                columns.remove(keyField);
+                if (columns.isEmpty()) {
+                    continue;
+                }
+                mapper.updateByKey(tableName, columns, keyField, row);
+                if (++pending >= flushStatements) {
+                    affected += flush(session);
+                    pending = 0;
+                }
+            }
+            affected += flush(session);
+            session.commit();
+            logger.debug("表" + tableName + "批量更新" + rows.size() + "行");
+            return affected;
+        }
+    }
+
+    /**
+     * 按主键批量删除，按大小拆分成多条delete ... in语句
+     *
+     * @param tableName 表名
+     * @param keyField  主键字段名
+     * @param keys      主键值
+     * @return 影响的行数，驱动不返回行数时不计入
+     */
+    public int delete(String tableName, String keyField, Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            BaseMysqlCRUDMapper mapper = session.getMapper(BaseMysqlCRUDMapper.class);
+            List<? extends List<?>> chunks = BatchChunkTools.chunk(keys, 1, maxAllowedPacket(mapper),
+                    tableName.length() + keyField.length(), chunkRows, BatchChunkTools::estimateBytes);
+            int affected = 0;
+            int pending = 0;
+            for (List<?> chunk : chunks) {
+                mapper.deleteBatch(tableName, keyField, chunk);
+                if (++pending >= flushStatements) {
+                    affected += flush(session);
+                    pending = 0;
+                }
+            }
+            affected += flush(session);
+            session.commit();
+            logger.debug("表" + tableName + "批量删除" + keys.size() + "行，语句数：" + chunks.size());
+            return affected;
+        }
+    }
+
+    /**
+     * 按字段分组后拆分成多行insert
+     *
+     * @param updateColumns 为null时只插入
+     */
+    private int save(String tableName, Collection<Map<String, Object>> rows, List<String> updateColumns) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        // 字段相同的行才能合并成一条语句
+        Map<List<String>, List<Map<String, Object>>> rowsByColumns = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            rowsByColumns.computeIfAbsent(new ArrayList<>(row.keySet()), k -> new ArrayList<>()).add(row);
+        }
+
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            BaseMysqlCRUDMapper mapper = session.getMapper(BaseMysqlCRUDMapper.class);
+            long maxPacket = maxAllowedPacket(mapper);
+            int affected = 0;
+            int pending = 0;
+            int statements = 0;
+            for (Map.Entry<List<String>, List<Map<String, Object>>> entry : rowsByColumns.entrySet()) {
+                List<String> columns = entry.getKey();
+                List<String> conflictColumns = updateColumns;
+                if (conflictColumns != null && conflictColumns.isEmpty()) {
+                    conflictColumns = columns;
+                }
+                long headerBytes = tableName.length() + headerBytes(columns) + headerBytes(conflictColumns) * 3;
+                List<List<Map<String, Object>>> chunks = BatchChunkTools.chunk(entry.getValue(), columns.size(),
+                        maxPacket, headerBytes, chunkRows, row -> BatchChunkTools.estimateRowBytes(row, columns));
+                for (List<Map<String, Object>> chunk : chunks) {
+                    mapper.saveBatch(tableName, columns, chunk, conflictColumns);
+                    statements++;
+                    if (++pending >= flushStatements) {
+                        affected += flush(session);
+                        pending = 0;
+                    }
+                }
+            }
+            affected += flush(session);
+            session.commit();
+            logger.debug("表" + tableName + "批量写入" + rows.size() + "行，语句数：" + statements);
+            return affected;
+        }
+    }
+
+    private long headerBytes(List<String> columns) {
+        long bytes = 0;
+        if (columns != null) {
+            for (String column : columns) {
+                bytes += column.length() + 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 提交当前积累的批量，返回影响的行数
+     */
+    private int flush(SqlSession session) {
+        int affected = 0;
+        for (BatchResult result : session.flushStatements()) {
+            for (int count : result.getUpdateCounts()) {
+                if (count > 0) {
+                    affected += count;
+                }
+            }
+        }
+        return affected;
+    }
+
+    private long maxAllowedPacket(BaseMysqlCRUDMapper mapper) {
+        if (maxAllowedPacket <= 0) {
+            maxAllowedPacket = mapper.findMaxAllowedPacket();
+        }
+        return maxAllowedPacket;
+    }
+
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    public MysqlBatchWriter setChunkRows(int chunkRows) {
+        this.chunkRows = chunkRows;
+        return this;
+    }
+
+    public int getFlushStatements() {
+        return flushStatements;
+    }
+
+    public MysqlBatchWriter setFlushStatements(int flushStatements) {
+        this.flushStatements = flushStatements;
+        return this;
+    }
+}
@@ -0,0 +1,286 @@
+package com.lance.mybatissharp.schema;
+
+import com.lance.mybatissharp.schema.command.AlterTableParam;
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.IndexParam;
+import com.lance.mybatissharp.schema.command.OnlineMigrationParam;
+import com.lance.mybatissharp.schema.command.SysMysqlColumns;
+import com.lance.mybatissharp.schema.command.SysMysqlTables;
+import com.lance.mybatissharp.schema.dao.CreateMysqlTablesMapper;
+import com.lance.mybatissharp.schema.utils.AlterAlgorithmTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通过影子表在线修改表结构，修改期间原表可以正常读写
+ * <ol>
+ *     <li>按原表结构创建影子表，并在影子表上执行修改</li>
+ *     <li>在原表上创建触发器，把增删改同步到影子表</li>
+ *     <li>按主键分批复制数据到影子表，每批之间暂停一段时间</li>
+ *     <li>用rename table原子地替换原表，再删除触发器和原表</li>
+ * </ol>
+ * 要求原表有单字段主键，并且本次修改不涉及主键。复制数据用insert ignore、触发器用replace，
+ * 新增或收紧唯一约束时重复的行会被丢弃或覆盖，新增不允许为空又没有默认值的字段时触发器写入影子表会失败；
+ * 修改类型、缩短长度等可能丢失数据的修改，复制时不符合新定义的值会被截断，触发器写入时又会失败，导致原表的写入失败。
+ * 这些修改不能在线执行
+ *
+ * @author Lance
+ */
+class OnlineTableMigrator {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** 影子表、触发器名在原表名基础上增加的最大长度 */
+    private static final int MAX_NAME_SUFFIX_LENGTH = 5;
+    /** MySQL表名的最大长度 */
+    private static final int MAX_NAME_LENGTH        = 64;
+
+    private final CreateMysqlTablesMapper createMysqlTablesMapper;
+    private final MyBatisSchemaSettings   schemaSettings;
+
+    OnlineTableMigrator(CreateMysqlTablesMapper createMysqlTablesMapper, MyBatisSchemaSettings schemaSettings) {
+        this.createMysqlTablesMapper = createMysqlTablesMapper;
+        this.schemaSettings = schemaSettings;
+    }
+
+    /**
+     * 判断表是否达到配置的行数或大小阈值
+     *
+     * @param tableStatus 表的状态信息，为null时返回false
+     * @return 达到阈值返回true
+     */
+    boolean isLargeTable(SysMysqlTables tableStatus) {
+        if (!schemaSettings.isOnlineMigrationEnabled() || tableStatus == null) {
+            return false;
+        }
+        long rows = tableStatus.getTable_rows() == null ? 0 : tableStatus.getTable_rows();
+        long bytes = (tableStatus.getData_length() == null ? 0 : tableStatus.getData_length())
+                + (tableStatus.getIndex_length() == null ? 0 : tableStatus.getIndex_length());
+        return rows >= schemaSettings.getOnlineMigrationMinRows() || bytes >= schemaSettings.getOnlineMigrationMinBytes();
+    }
+
+    /**
+     * 在线修改表结构
+     *
+     * @param alter           表的变更信息
+     * @param tableColumnList 该表在库中的结构
+     * @return 不满足在线修改的条件时不做任何事，返回false
+     */
+    boolean migrate(AlterTableParam alter, List<SysMysqlColumns> tableColumnList) {
+        String tableName = alter.getTableName();
+        String reason = unsupportedReason(alter, tableColumnList);
+        if (reason != null) {
+            logger.warn("表" + tableName + reason + "，不能在线修改表结构");
+            return false;
+        }
+        String primaryKey = findPrimaryKey(tableColumnList);
+
+        OnlineMigrationParam migration = new OnlineMigrationParam();
+        migration.setSchemaName(alter.getSchemaName());
+        migration.setTableName(tableName);
+        migration.setShadowTableName("_" + tableName + "_new");
+        migration.setOldTableName("_" + tableName + "_old");
+        migration.setInsertTrigger("_" + tableName + "_ins");
+        migration.setUpdateTrigger("_" + tableName + "_upd");
+        migration.setDeleteTrigger("_" + tableName + "_del");
+        migration.setPrimaryKey(primaryKey);
+        migration.setColumns(commonColumns(alter, tableColumnList));
+        migration.setChunkSize(schemaSettings.getOnlineMigrationChunkSize());
+
+        logger.info("开始在线修改表" + tableName + "，影子表：" + migration.getShadowTableName());
+        // 清理上次中断留下的触发器和影子表
+        cleanup(migration);
+        createMysqlTablesMapper.dropTableByName(migration.getSchemaName(), migration.getOldTableName());
+        try {
+            createShadowTable(alter, migration);
+            createMysqlTablesMapper.createInsertTrigger(migration);
+            createMysqlTablesMapper.createUpdateTrigger(migration);
+            createMysqlTablesMapper.createDeleteTrigger(migration);
+            copyRows(migration);
+        } catch (RuntimeException e) {
+            cleanup(migration);
+            throw e;
+        }
+
+        createMysqlTablesMapper.swapShadowTable(migration);
+        dropTriggers(migration);
+        createMysqlTablesMapper.dropTableByName(migration.getSchemaName(), migration.getOldTableName());
+        logger.info("完成在线修改表" + tableName);
+        return true;
+    }
+
+    /**
+     * 判断是否满足在线修改的条件：原表有单字段主键，本次修改不涉及主键，不新增或收紧唯一约束，
+     * 新增或改为不允许为空的字段有默认值，修改字段不会丢失数据，并且表名加上后缀后不超长
+     *
+     * @param alter           表的变更信息
+     * @param tableColumnList 该表在库中的结构
+     * @return 满足时返回true
+     */
+    boolean supports(AlterTableParam alter, List<SysMysqlColumns> tableColumnList) {
+        return unsupportedReason(alter, tableColumnList) == null;
+    }
+
+    /**
+     * @return 满足在线修改的条件时返回null
+     */
+    private String unsupportedReason(AlterTableParam alter, List<SysMysqlColumns> tableColumnList) {
+        String primaryKey = findPrimaryKey(tableColumnList);
+        if (primaryKey == null) {
+            return "没有单字段主键";
+        }
+        if (alter.isDropPrimaryKey() || isPrimaryKeyChanged(alter, primaryKey)) {
+            return "的修改涉及主键";
+        }
+        if (alter.getTableName().length() + MAX_NAME_SUFFIX_LENGTH > MAX_NAME_LENGTH) {
+            return "的表名过长";
+        }
+        for (IndexParam index : alter.getAddIndexes()) {
+            if (index.isUnique()) {
+                return "新增或修改了唯一索引" + index.getIndexName();
+            }
+        }
+        for (CreateTableParam field : alter.getAddFields()) {
+            if (field.isFieldIsUnique()) {
+                return "新增了唯一字段" + field.getFieldName();
+            }
+            if (isNotNullWithoutDefault(field)) {
+                return "新增了不允许为空又没有默认值的字段" + field.getFieldName();
+            }
+        }
+        for (CreateTableParam field : alter.getModifyFields()) {
+            SysMysqlColumns column = findColumn(tableColumnList, field.getFieldName());
+            if (AlterAlgorithmTools.isLossyModify(field, column)) {
+                return "的字段" + field.getFieldName() + "的修改可能丢失数据";
+            }
+            if (field.isFieldIsUnique() && !"UNI".equals(column.getColumn_key())) {
+                return "的字段" + field.getFieldName() + "改为唯一";
+            }
+            if (!field.isFieldIsNull() && "YES".equals(column.getIs_nullable())) {
+                return "的字段" + field.getFieldName() + "改为不允许为空";
+            }
+        }
+        return null;
+    }
+
+    private void createShadowTable(AlterTableParam alter, OnlineMigrationParam migration) {
+        createMysqlTablesMapper.createShadowTable(migration);
+
+        AlterTableParam shadowAlter = new AlterTableParam(migration.getShadowTableName());
+        shadowAlter.setSchemaName(migration.getSchemaName());
+        shadowAlter.setDropPrimaryKey(alter.isDropPrimaryKey());
+        shadowAlter.setDropUniqueFields(alter.getDropUniqueFields());
+        shadowAlter.setAddFields(alter.getAddFields());
+        shadowAlter.setRemoveFields(alter.getRemoveFields());
+        shadowAlter.setModifyFields(alter.getModifyFields());
+        shadowAlter.setDropIndexes(alter.getDropIndexes());
+        shadowAlter.setAddIndexes(alter.getAddIndexes());
+        shadowAlter.setTableOptions(alter.getTableOptions());
+        createMysqlTablesMapper.alterTable(shadowAlter);
+    }
+
+    /**
+     * 按主键分批复制，每批之间按配置暂停，降低对线上写入的影响
+     */
+    private void copyRows(OnlineMigrationParam migration) {
+        long interval = schemaSettings.getOnlineMigrationChunkInterval();
+        long copied = 0;
+        Object upperKey;
+        while ((upperKey = createMysqlTablesMapper.findChunkUpperKey(migration)) != null) {
+            migration.setUpperKey(upperKey);
+            copied += createMysqlTablesMapper.copyChunk(migration);
+            migration.setLastKey(upperKey);
+
+            if (interval > 0) {
+                try {
+                    Thread.sleep(interval);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("在线修改表" + migration.getTableName() + "被中断", e);
+                }
+            }
+        }
+        logger.info("表" + migration.getTableName() + "复制到影子表完成，复制行数：" + copied);
+    }
+
+    private void cleanup(OnlineMigrationParam migration) {
+        dropTriggers(migration);
+        createMysqlTablesMapper.dropTableByName(migration.getSchemaName(), migration.getShadowTableName());
+    }
+
+    private void dropTriggers(OnlineMigrationParam migration) {
+        createMysqlTablesMapper.dropTrigger(migration.getSchemaName(), migration.getInsertTrigger());
+        createMysqlTablesMapper.dropTrigger(migration.getSchemaName(), migration.getUpdateTrigger());
+        createMysqlTablesMapper.dropTrigger(migration.getSchemaName(), migration.getDeleteTrigger());
+    }
+
+    /**
+     * 单字段主键的字段名，联合主键或没有主键时返回null
+     */
+    private String findPrimaryKey(List<SysMysqlColumns> tableColumnList) {
+        String primaryKey = null;
+        for (SysMysqlColumns column : tableColumnList) {
+            if ("PRI".equals(column.getColumn_key())) {
+                if (primaryKey != null) {
+                    return null;
+                }
+                primaryKey = column.getColumn_name();
+            }
+        }
+        return primaryKey;
+    }
+
+    private SysMysqlColumns findColumn(List<SysMysqlColumns> tableColumnList, String fieldName) {
+        for (SysMysqlColumns column : tableColumnList) {
+            if (column.getColumn_name().equalsIgnoreCase(fieldName)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 不允许为空、不是自增又没有默认值的字段，触发器不写入该字段，严格模式下影子表的插入会失败
+     */
+    private boolean isNotNullWithoutDefault(CreateTableParam field) {
+        return !field.isFieldIsNull() && !field.isFieldIsAutoIncrement()
+                && (field.getFieldDefaultValue() == null || "NULL".equals(field.getFieldDefaultValue()));
+    }
+
+    private boolean isPrimaryKeyChanged(AlterTableParam alter, String primaryKey) {
+        for (String field : alter.getRemoveFields()) {
+            if (field.equalsIgnoreCase(primaryKey)) {
+                return true;
+            }
+        }
+        for (CreateTableParam field : alter.getModifyFields()) {
+            if (field.getFieldName().equalsIgnoreCase(primaryKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 原表和影子表共有的字段，即原表中没有被删除的字段
+     */
+    private List<String> commonColumns(AlterTableParam alter, List<SysMysqlColumns> tableColumnList) {
+        List<String> columns = new ArrayList<>();
+        for (SysMysqlColumns column : tableColumnList) {
+            boolean removed = false;
+            for (String field : alter.getRemoveFields()) {
+                if (field.equalsIgnoreCase(column.getColumn_name())) {
+                    removed = true;
+                    break;
+                }
+            }
+            if (!removed) {
+                columns.add(column.getColumn_name());
+            }
+        }
+        return columns;
+    }
+}
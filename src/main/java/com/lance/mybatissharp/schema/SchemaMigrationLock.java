@@ -0,0 +1,139 @@
+package com.lance.mybatissharp.schema;
+
+import com.lance.mybatissharp.schema.dao.CreateMysqlTablesMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 集群迁移锁，多个节点同时启动时只有一个节点更新表结构
+ * <p>锁是锁表中的一行，记录持有者和到期时间，持有期间定时续期，节点宕机后到期自动释放。
+ * 没有使用GET_LOCK，因为Mapper的每次调用可能使用连接池中不同的连接，而GET_LOCK只对获得它的连接有效</p>
+ *
+ * @author Lance
+ */
+class SchemaMigrationLock {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** 锁记录的id */
+    private static final String LOCK_ID = "schema";
+
+    /** 等待期间重新尝试获得锁的间隔 */
+    private static final long POLL_INTERVAL_MILLIS = 1000;
+
+    private final CreateMysqlTablesMapper createMysqlTablesMapper;
+    private final MyBatisSchemaSettings   schemaSettings;
+
+    /** 本节点的标识，进程号@主机名加随机后缀，同一进程中的多个实例互不相同 */
+    private final String owner;
+
+    /** 续期时发现锁已到期并被其他节点获得，由续期线程设置 */
+    private volatile boolean lost;
+
+    SchemaMigrationLock(CreateMysqlTablesMapper createMysqlTablesMapper, MyBatisSchemaSettings schemaSettings) {
+        this.createMysqlTablesMapper = createMysqlTablesMapper;
+        this.schemaSettings = schemaSettings;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 获得锁后执行迁移，锁被其他节点持有时等待，最多等待配置的migrationLockWaitSeconds
+     *
+     * @param applied   获得锁后调用，返回true表示等待期间其他节点已经完成了迁移，不再执行
+     * @param migration 迁移
+     * @return 执行了迁移返回true
+     * @throws IllegalStateException 等待超时或被中断时
+     */
+    boolean runExclusively(BooleanSupplier applied, Runnable migration) {
+        String lockTable = schemaSettings.getMigrationLockTable();
+        createMysqlTablesMapper.createMigrationLockTable(lockTable);
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(schemaSettings.getMigrationLockWaitSeconds());
+        boolean waited = false;
+        while (!tryLock(lockTable)) {
+            String holder = createMysqlTablesMapper.findMigrationLockOwner(lockTable, LOCK_ID);
+            if (!waited) {
+                logger.info("迁移锁被节点" + holder + "持有，等待其完成");
+                waited = true;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new IllegalStateException("等待迁移锁超时（" + schemaSettings.getMigrationLockWaitSeconds()
+                        + "秒），持有者：" + holder);
+            }
+            try {
+                Thread.sleep(Math.min(POLL_INTERVAL_MILLIS, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("等待迁移锁被中断", e);
+            }
+        }
+
+        lost = false;
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mybatis-sharp-schema-lock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            if (applied.getAsBoolean()) {
+                return false;
+            }
+            logger.info("节点" + owner + "获得迁移锁，开始更新表结构");
+            // 到期前续期，每个租期续期3次
+            long period = Math.max(1, schemaSettings.getMigrationLockLeaseSeconds() / 3);
+            heartbeat.scheduleAtFixedRate(() -> renew(lockTable), period, period, TimeUnit.SECONDS);
+            migration.run();
+            return true;
+        } finally {
+            heartbeat.shutdownNow();
+            createMysqlTablesMapper.releaseMigrationLock(lockTable, LOCK_ID, owner);
+        }
+    }
+
+    /**
+     * 检查本节点是否仍持有锁，迁移过程中在每张表开始更新前、记录指纹前调用，锁已被其他节点获得时停止迁移
+     *
+     * @throws IllegalStateException 续期时发现锁已到期并被其他节点获得
+     */
+    void checkHeld() {
+        if (lost) {
+            throw new IllegalStateException("迁移锁已到期并被其他节点获得，停止更新表结构，请增大migrationLockLeaseSeconds");
+        }
+    }
+
+    /**
+     * 尝试获得锁，锁不存在、已到期或已被本节点持有时获得并延长到期时间
+     *
+     * @param lockTable 锁表名
+     * @return 获得锁返回true
+     */
+    private boolean tryLock(String lockTable) {
+        createMysqlTablesMapper.tryMigrationLock(lockTable, LOCK_ID, owner, schemaSettings.getMigrationLockLeaseSeconds());
+        return owner.equals(createMysqlTablesMapper.findMigrationLockOwner(lockTable, LOCK_ID));
+    }
+
+    /**
+     * 续期，锁已被其他节点获得后不再续期，避免其他节点的锁到期后又被本节点获得
+     */
+    private void renew(String lockTable) {
+        if (lost) {
+            return;
+        }
+        try {
+            if (!tryLock(lockTable)) {
+                lost = true;
+                logger.error("迁移锁续期失败，锁已到期并被其他节点获得，将在下一张表开始前停止更新，请增大migrationLockLeaseSeconds");
+            }
+        } catch (RuntimeException e) {
+            logger.warn("迁移锁续期失败", e);
+        }
+    }
+}
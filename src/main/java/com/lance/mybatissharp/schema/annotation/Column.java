@@ -31,11 +31,12 @@ public @interface Column {
     public String name();
 
     /**
-     * 字段类型
+     * 字段类型，默认按Java类型推断：boolean为tinyint(1)，枚举为enum(常量名)，UUID为binary(16)，Instant为datetime(3)，
+     * String为varchar(length)，BigDecimal为decimal(length,decimalLength)，不支持推断的类型必须指定
      *
      * @return 字段类型
      */
-    public String type();
+    public String type() default "";
 
     /**
      * 字段长度，默认是255
@@ -0,0 +1,58 @@
+package com.lance.mybatissharp.schema.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 表的二级索引，可以是多字段、前缀、唯一或全文索引，一个类上可以有多个
+ * <p>单字段唯一约束仍然可以使用{@code @Column(isUnique = true)}</p>
+ *
+ * @author Lance
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@Repeatable(Indexes.class)
+public @interface Index {
+
+    /**
+     * 索引名，同一张表中不能重复
+     *
+     * @return 索引名
+     */
+    String name();
+
+    /**
+     * 索引字段，按顺序组成索引
+     *
+     * @return 索引字段
+     */
+    String[] columns();
+
+    /**
+     * 每个字段的前缀长度，与columns一一对应，0表示整个字段，默认都是整个字段
+     *
+     * @return 每个字段的前缀长度
+     */
+    int[] lengths() default {};
+
+    /**
+     * 是否唯一，默认false
+     *
+     * @return 是否唯一
+     */
+    boolean unique() default false;
+
+    /**
+     * 是否全文索引，默认false，不能与unique、前缀长度同时使用
+     *
+     * @return 是否全文索引
+     */
+    boolean fulltext() default false;
+}
@@ -0,0 +1,27 @@
+package com.lance.mybatissharp.schema.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 多个{@link Index}的容器，直接在类上重复使用{@code @Index}即可
+ *
+ * @author Lance
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface Indexes {
+
+    /**
+     * 索引
+     *
+     * @return 索引
+     */
+    Index[] value();
+}
@@ -0,0 +1,79 @@
+package com.lance.mybatissharp.schema.annotation;
+
+import com.lance.mybatissharp.schema.constants.PartitionInterval;
+import com.lance.mybatissharp.schema.constants.PartitionType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 表的分区定义，与{@code @Table}一起使用
+ * <ul>
+ *     <li>HASH、KEY：指定分区数量count</li>
+ *     <li>RANGE、RANGE_COLUMNS：指定每个分区的上界ranges</li>
+ *     <li>滚动分区：RANGE_COLUMNS按日期字段分区，指定interval后按周期提前创建分区，并删除超过保留周期的分区</li>
+ * </ul>
+ * 分区表的主键和唯一索引必须包含分区字段
+ *
+ * @author Lance
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface Partition {
+
+    /**
+     * 分区方式
+     *
+     * @return 分区方式
+     */
+    PartitionType type();
+
+    /**
+     * 分区表达式或字段，例如id、to_days(create_time)，RANGE_COLUMNS、KEY时为逗号分隔的字段名
+     *
+     * @return 分区表达式
+     */
+    String expression();
+
+    /**
+     * HASH、KEY的分区数量
+     *
+     * @return 分区数量
+     */
+    int count() default 0;
+
+    /**
+     * RANGE、RANGE_COLUMNS每个分区的上界（values less than），从小到大排列，最后一个可以是MAXVALUE；
+     * 写法与information_schema.partitions中的partition_description一致，例如738000、'2026-11-01'
+     *
+     * @return 每个分区的上界
+     */
+    String[] ranges() default {};
+
+    /**
+     * 滚动分区的周期，默认不滚动
+     *
+     * @return 滚动分区的周期
+     */
+    PartitionInterval interval() default PartitionInterval.NONE;
+
+    /**
+     * 滚动分区时，当前周期之后提前创建的分区数，默认3
+     *
+     * @return 提前创建的分区数
+     */
+    int ahead() default 3;
+
+    /**
+     * 滚动分区时，当前周期之前保留的分区数，更早的分区被删除，默认0表示不删除
+     *
+     * @return 保留的分区数
+     */
+    int retention() default 0;
+}
@@ -1,5 +1,8 @@
 package com.lance.mybatissharp.schema.annotation;
 
+import com.lance.mybatissharp.schema.constants.PageCompression;
+import com.lance.mybatissharp.schema.constants.RowFormat;
+
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Inherited;
@@ -9,7 +12,8 @@ import java.lang.annotation.Target;
 
 
 /**
- * 创建表时的表名
+ * 创建表时的表名和存储选项
+ * <p>存储选项不指定时建表使用数据库默认值，也不对比库中的值；指定后与information_schema.tables对比，不同时修改</p>
  *
  * @author sunchenbin
  * @version 2016年6月23日 下午6:13:37
@@ -30,4 +34,46 @@ public @interface Table {
      * @return 表名
      */
     public String name();
+
+    /**
+     * 表引擎，为空时建表使用MyBatisSchemaSettings中的engine
+     *
+     * @return 表引擎
+     */
+    public String engine() default "";
+
+    /**
+     * 行格式
+     *
+     * @return 行格式
+     */
+    public RowFormat rowFormat() default RowFormat.DEFAULT;
+
+    /**
+     * ROW_FORMAT=COMPRESSED时压缩页的大小（KB），可选1、2、4、8、16，0表示不指定
+     *
+     * @return 压缩页的大小
+     */
+    public int keyBlockSize() default 0;
+
+    /**
+     * 透明页压缩的算法，修改后只有新写入的页按新算法压缩，已有的数据需要执行OPTIMIZE TABLE
+     *
+     * @return 压缩算法
+     */
+    public PageCompression compression() default PageCompression.DEFAULT;
+
+    /**
+     * 是否持久化统计信息，1持久化，0不持久化，-1表示不指定（使用innodb_stats_persistent）
+     *
+     * @return 是否持久化统计信息
+     */
+    public int statsPersistent() default -1;
+
+    /**
+     * 估算统计信息时采样的页数，0表示不指定（使用innodb_stats_persistent_sample_pages）
+     *
+     * @return 采样的页数
+     */
+    public int statsSamplePages() default 0;
 }
@@ -0,0 +1,190 @@
+package com.lance.mybatissharp.schema.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用于存放修改表的信息，同一张表的所有变更合并成一条alter table语句
+ *
+ * @author Lance
+ */
+public class AlterTableParam {
+
+    /**
+     * 表所在的schema，为null时使用当前库
+     */
+    private String schemaName;
+
+    /**
+     * 表名
+     */
+    private String tableName;
+
+    /**
+     * 是否删除主键
+     */
+    private boolean dropPrimaryKey;
+
+    /**
+     * 需要删除唯一约束的字段名
+     */
+    private List<String> dropUniqueFields = new ArrayList<>();
+
+    /**
+     * 新增的字段
+     */
+    private List<CreateTableParam> addFields = new ArrayList<>();
+
+    /**
+     * 删除的字段名
+     */
+    private List<String> removeFields = new ArrayList<>();
+
+    /**
+     * 修改的字段，包括删除主键、删除唯一约束后需要重新定义的字段
+     */
+    private List<CreateTableParam> modifyFields = new ArrayList<>();
+
+    /**
+     * 需要删除的索引名，在增加索引之前删除
+     */
+    private List<String> dropIndexes = new ArrayList<>();
+
+    /**
+     * 新增的索引
+     */
+    private List<IndexParam> addIndexes = new ArrayList<>();
+
+    /**
+     * 需要修改的存储选项，不需要时为null
+     */
+    private TableOptionParam tableOptions;
+
+    /**
+     * 指定的ALGORITHM，为null时由数据库决定
+     */
+    private String algorithm;
+
+    /**
+     * 指定的LOCK，为null时由数据库决定
+     */
+    private String lock;
+
+    public AlterTableParam() {
+    }
+
+    public AlterTableParam(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * 添加需要修改的字段，同名字段只保留第一次添加的
+     *
+     * @param createTableParam 字段
+     */
+    public void addModifyField(CreateTableParam createTableParam) {
+        for (CreateTableParam modifyField : modifyFields) {
+            if (modifyField.getFieldName().equals(createTableParam.getFieldName())) {
+                return;
+            }
+        }
+        modifyFields.add(createTableParam);
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public void setSchemaName(String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public boolean isDropPrimaryKey() {
+        return dropPrimaryKey;
+    }
+
+    public void setDropPrimaryKey(boolean dropPrimaryKey) {
+        this.dropPrimaryKey = dropPrimaryKey;
+    }
+
+    public List<String> getDropUniqueFields() {
+        return dropUniqueFields;
+    }
+
+    public void setDropUniqueFields(List<String> dropUniqueFields) {
+        this.dropUniqueFields = dropUniqueFields;
+    }
+
+    public List<CreateTableParam> getAddFields() {
+        return addFields;
+    }
+
+    public void setAddFields(List<CreateTableParam> addFields) {
+        this.addFields = addFields;
+    }
+
+    public List<String> getRemoveFields() {
+        return removeFields;
+    }
+
+    public void setRemoveFields(List<String> removeFields) {
+        this.removeFields = removeFields;
+    }
+
+    public List<CreateTableParam> getModifyFields() {
+        return modifyFields;
+    }
+
+    public void setModifyFields(List<CreateTableParam> modifyFields) {
+        this.modifyFields = modifyFields;
+    }
+
+    public List<String> getDropIndexes() {
+        return dropIndexes;
+    }
+
+    public void setDropIndexes(List<String> dropIndexes) {
+        this.dropIndexes = dropIndexes;
+    }
+
+    public List<IndexParam> getAddIndexes() {
+        return addIndexes;
+    }
+
+    public void setAddIndexes(List<IndexParam> addIndexes) {
+        this.addIndexes = addIndexes;
+    }
+
+    public TableOptionParam getTableOptions() {
+        return tableOptions;
+    }
+
+    public void setTableOptions(TableOptionParam tableOptions) {
+        this.tableOptions = tableOptions;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getLock() {
+        return lock;
+    }
+
+    public void setLock(String lock) {
+        this.lock = lock;
+    }
+
+}
\ No newline at end of file
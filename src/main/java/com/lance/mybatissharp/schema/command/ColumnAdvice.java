@@ -0,0 +1,133 @@
+package com.lance.mybatissharp.schema.command;
+
+/**
+ * 用于存放字段类型的建议，声明的类型比按Java类型推断的类型占用更多空间
+ *
+ * @author Lance
+ */
+public class ColumnAdvice {
+
+    /**
+     * 表名
+     */
+    private String tableName;
+
+    /**
+     * 字段名
+     */
+    private String fieldName;
+
+    /**
+     * Java类型的全名
+     */
+    private String javaType;
+
+    /**
+     * 声明的类型，例如varchar(32)
+     */
+    private String declaredType;
+
+    /**
+     * 建议的类型，例如enum('A','B')
+     */
+    private String suggestedType;
+
+    /**
+     * 声明的类型每行估算占用的字节数
+     */
+    private int    declaredBytes;
+
+    /**
+     * 建议的类型每行估算占用的字节数
+     */
+    private int    suggestedBytes;
+
+    /**
+     * 表的估算行数，表不存在时为0
+     */
+    private long   tableRows;
+
+    /**
+     * 每行节省的字节数
+     */
+    public int getSavedBytes() {
+        return declaredBytes - suggestedBytes;
+    }
+
+    /**
+     * 按表的估算行数计算整张表节省的字节数，不包括索引
+     */
+    public long getEstimatedSavedBytes() {
+        return (long) getSavedBytes() * tableRows;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public void setFieldName(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getJavaType() {
+        return javaType;
+    }
+
+    public void setJavaType(String javaType) {
+        this.javaType = javaType;
+    }
+
+    public String getDeclaredType() {
+        return declaredType;
+    }
+
+    public void setDeclaredType(String declaredType) {
+        this.declaredType = declaredType;
+    }
+
+    public String getSuggestedType() {
+        return suggestedType;
+    }
+
+    public void setSuggestedType(String suggestedType) {
+        this.suggestedType = suggestedType;
+    }
+
+    public int getDeclaredBytes() {
+        return declaredBytes;
+    }
+
+    public void setDeclaredBytes(int declaredBytes) {
+        this.declaredBytes = declaredBytes;
+    }
+
+    public int getSuggestedBytes() {
+        return suggestedBytes;
+    }
+
+    public void setSuggestedBytes(int suggestedBytes) {
+        this.suggestedBytes = suggestedBytes;
+    }
+
+    public long getTableRows() {
+        return tableRows;
+    }
+
+    public void setTableRows(long tableRows) {
+        this.tableRows = tableRows;
+    }
+
+    @Override
+    public String toString() {
+        return tableName + "." + fieldName + "(" + javaType + "): " + declaredType + " -> " + suggestedType
+                + ", " + getSavedBytes() + " bytes/row, " + getEstimatedSavedBytes() + " bytes";
+    }
+}
@@ -58,6 +58,11 @@ public class CreateTableParam {
      */
     private boolean fieldIsUnique;
 
+    /**
+     * enum类型的取值，例如'NORMAL','BANNED'，其他类型为null
+     */
+    private String fieldValues;
+
     public String getFieldName() {
         return fieldName;
     }
@@ -138,4 +143,12 @@ public class CreateTableParam {
         this.fieldIsUnique = fieldIsUnique;
     }
 
+    public String getFieldValues() {
+        return fieldValues;
+    }
+
+    public void setFieldValues(String fieldValues) {
+        this.fieldValues = fieldValues;
+    }
+
 }
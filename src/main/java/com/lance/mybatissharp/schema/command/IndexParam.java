@@ -0,0 +1,108 @@
+package com.lance.mybatissharp.schema.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用于存放索引的定义，来自{@code @Index}或information_schema.statistics
+ *
+ * @author Lance
+ */
+public class IndexParam {
+
+    /**
+     * 索引名
+     */
+    private String indexName;
+
+    /**
+     * 索引字段，按顺序排列
+     */
+    private List<String> columns = new ArrayList<>();
+
+    /**
+     * 每个字段的前缀长度，与columns一一对应，0表示整个字段
+     */
+    private List<Integer> lengths = new ArrayList<>();
+
+    /**
+     * 是否唯一
+     */
+    private boolean unique;
+
+    /**
+     * 是否全文索引
+     */
+    private boolean fulltext;
+
+    public IndexParam() {
+    }
+
+    public IndexParam(String indexName) {
+        this.indexName = indexName;
+    }
+
+    /**
+     * 追加一个索引字段
+     *
+     * @param column 字段名
+     * @param length 前缀长度，0表示整个字段
+     */
+    public void addColumn(String column, int length) {
+        columns.add(column);
+        lengths.add(length);
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public void setIndexName(String indexName) {
+        this.indexName = indexName;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public void setColumns(List<String> columns) {
+        this.columns = columns;
+    }
+
+    public List<Integer> getLengths() {
+        return lengths;
+    }
+
+    public void setLengths(List<Integer> lengths) {
+        this.lengths = lengths;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    public void setUnique(boolean unique) {
+        this.unique = unique;
+    }
+
+    public boolean isFulltext() {
+        return fulltext;
+    }
+
+    public void setFulltext(boolean fulltext) {
+        this.fulltext = fulltext;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(indexName).append(unique ? "(unique " : fulltext ? "(fulltext " : "(");
+        for (int i = 0; i < columns.size(); i++) {
+            sb.append(i == 0 ? "" : ",").append(columns.get(i));
+            if (lengths.get(i) > 0) {
+                sb.append('(').append(lengths.get(i)).append(')');
+            }
+        }
+        return sb.append(')').toString();
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.lance.mybatissharp.schema.command;
+
+import com.lance.mybatissharp.schema.constants.AlterAlgorithm;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 迁移计划，包括每张表需要创建或修改的内容和预估代价，可以交给MyBatisSchemaUpdate.execute(plan)执行而不重新查询库中结构
+ *
+ * @author Lance
+ */
+public class MigrationPlan {
+
+    /**
+     * 执行计划的schema，为null时使用当前库
+     */
+    private String schema;
+
+    /**
+     * 生成计划时的tableAuto配置
+     */
+    private String tableAuto;
+
+    /**
+     * 数据库版本
+     */
+    private String serverVersion;
+
+    /**
+     * 执行后需要记录的实体结构指纹，为null时不记录
+     */
+    private String fingerprint;
+
+    /**
+     * 表名为key，每张表的计划为value
+     */
+    private Map<String, TablePlan> tables = new LinkedHashMap<>();
+
+    /**
+     * 复制一份在指定schema上执行的计划，与原计划共用各表的计划，不记录指纹
+     *
+     * @param schema 执行计划的schema
+     * @return 新的计划
+     */
+    public MigrationPlan forSchema(String schema) {
+        MigrationPlan plan = new MigrationPlan();
+        plan.setSchema(schema);
+        plan.setTableAuto(tableAuto);
+        plan.setServerVersion(serverVersion);
+        plan.setTables(tables);
+        return plan;
+    }
+
+    /**
+     * 需要创建或修改的表
+     */
+    public List<TablePlan> getChangedTables() {
+        List<TablePlan> changedTables = new ArrayList<>();
+        for (TablePlan table : tables.values()) {
+            if (table.hasChanges()) {
+                changedTables.add(table);
+            }
+        }
+        return changedTables;
+    }
+
+    /**
+     * 修改时预计使用指定算法的表，例如用COPY找出需要复制整张表的修改
+     *
+     * @param algorithm 算法
+     */
+    public List<TablePlan> getTablesByAlgorithm(AlterAlgorithm algorithm) {
+        List<TablePlan> result = new ArrayList<>();
+        for (TablePlan table : tables.values()) {
+            if (table.hasAlter() && table.getAlgorithm() == algorithm) {
+                result.add(table);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 是否有需要创建或修改的表
+     */
+    public boolean hasChanges() {
+        for (TablePlan table : tables.values()) {
+            if (table.hasChanges()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public void setSchema(String schema) {
+        this.schema = schema;
+    }
+
+    public String getTableAuto() {
+        return tableAuto;
+    }
+
+    public void setTableAuto(String tableAuto) {
+        this.tableAuto = tableAuto;
+    }
+
+    public String getServerVersion() {
+        return serverVersion;
+    }
+
+    public void setServerVersion(String serverVersion) {
+        this.serverVersion = serverVersion;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public Map<String, TablePlan> getTables() {
+        return tables;
+    }
+
+    public void setTables(Map<String, TablePlan> tables) {
+        this.tables = tables;
+    }
+
+}
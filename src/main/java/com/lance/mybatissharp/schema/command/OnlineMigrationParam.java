@@ -0,0 +1,161 @@
+package com.lance.mybatissharp.schema.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用于存放通过影子表在线修改表结构的信息
+ *
+ * @author Lance
+ */
+public class OnlineMigrationParam {
+
+    /**
+     * 表所在的schema，为null时使用当前库
+     */
+    private String schemaName;
+
+    /**
+     * 原表名
+     */
+    private String tableName;
+
+    /**
+     * 影子表名，按目标结构创建，复制完成后替换原表
+     */
+    private String shadowTableName;
+
+    /**
+     * 替换后原表的表名，替换完成后删除
+     */
+    private String oldTableName;
+
+    /**
+     * 同步增删改的触发器名
+     */
+    private String insertTrigger;
+    private String updateTrigger;
+    private String deleteTrigger;
+
+    /**
+     * 主键字段名，按主键分批复制
+     */
+    private String primaryKey;
+
+    /**
+     * 原表和影子表共有的字段名
+     */
+    private List<String> columns = new ArrayList<>();
+
+    /**
+     * 每批复制的行数
+     */
+    private int chunkSize;
+
+    /**
+     * 上一批复制的最大主键，第一批时为null
+     */
+    private Object lastKey;
+
+    /**
+     * 本批复制的最大主键
+     */
+    private Object upperKey;
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public void setSchemaName(String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getShadowTableName() {
+        return shadowTableName;
+    }
+
+    public void setShadowTableName(String shadowTableName) {
+        this.shadowTableName = shadowTableName;
+    }
+
+    public String getOldTableName() {
+        return oldTableName;
+    }
+
+    public void setOldTableName(String oldTableName) {
+        this.oldTableName = oldTableName;
+    }
+
+    public String getInsertTrigger() {
+        return insertTrigger;
+    }
+
+    public void setInsertTrigger(String insertTrigger) {
+        this.insertTrigger = insertTrigger;
+    }
+
+    public String getUpdateTrigger() {
+        return updateTrigger;
+    }
+
+    public void setUpdateTrigger(String updateTrigger) {
+        this.updateTrigger = updateTrigger;
+    }
+
+    public String getDeleteTrigger() {
+        return deleteTrigger;
+    }
+
+    public void setDeleteTrigger(String deleteTrigger) {
+        this.deleteTrigger = deleteTrigger;
+    }
+
+    public String getPrimaryKey() {
+        return primaryKey;
+    }
+
+    public void setPrimaryKey(String primaryKey) {
+        this.primaryKey = primaryKey;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public void setColumns(List<String> columns) {
+        this.columns = columns;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Object getLastKey() {
+        return lastKey;
+    }
+
+    public void setLastKey(Object lastKey) {
+        this.lastKey = lastKey;
+    }
+
+    public Object getUpperKey() {
+        return upperKey;
+    }
+
+    public void setUpperKey(Object upperKey) {
+        this.upperKey = upperKey;
+    }
+
+}
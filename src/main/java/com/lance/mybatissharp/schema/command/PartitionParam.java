@@ -0,0 +1,153 @@
+package com.lance.mybatissharp.schema.command;
+
+import com.lance.mybatissharp.schema.constants.PartitionInterval;
+import com.lance.mybatissharp.schema.constants.PartitionType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用于存放表的分区定义，来自{@code @Partition}或information_schema.partitions
+ *
+ * @author Lance
+ */
+public class PartitionParam {
+
+    /**
+     * 分区方式
+     */
+    private PartitionType type;
+
+    /**
+     * 分区表达式或字段
+     */
+    private String expression;
+
+    /**
+     * HASH、KEY的分区数量，范围分区时为0
+     */
+    private int count;
+
+    /**
+     * 范围分区的分区名，与ranges一一对应
+     */
+    private List<String> names = new ArrayList<>();
+
+    /**
+     * 范围分区每个分区的上界
+     */
+    private List<String> ranges = new ArrayList<>();
+
+    /**
+     * 滚动分区的周期
+     */
+    private PartitionInterval interval = PartitionInterval.NONE;
+
+    /**
+     * 滚动分区时提前创建的分区数
+     */
+    private int ahead;
+
+    /**
+     * 滚动分区时保留的分区数，0表示不删除
+     */
+    private int retention;
+
+    /**
+     * 追加一个范围分区
+     *
+     * @param name     分区名
+     * @param lessThan 上界
+     */
+    public void addRange(String name, String lessThan) {
+        names.add(name);
+        ranges.add(lessThan);
+    }
+
+    /**
+     * 是否滚动分区
+     */
+    public boolean isRolling() {
+        return interval != PartitionInterval.NONE;
+    }
+
+    public PartitionType getType() {
+        return type;
+    }
+
+    public void setType(PartitionType type) {
+        this.type = type;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public void setExpression(String expression) {
+        this.expression = expression;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    public void setNames(List<String> names) {
+        this.names = names;
+    }
+
+    public List<String> getRanges() {
+        return ranges;
+    }
+
+    public void setRanges(List<String> ranges) {
+        this.ranges = ranges;
+    }
+
+    public PartitionInterval getInterval() {
+        return interval;
+    }
+
+    public void setInterval(PartitionInterval interval) {
+        this.interval = interval;
+    }
+
+    public int getAhead() {
+        return ahead;
+    }
+
+    public void setAhead(int ahead) {
+        this.ahead = ahead;
+    }
+
+    public int getRetention() {
+        return retention;
+    }
+
+    public void setRetention(int retention) {
+        this.retention = retention;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append(type).append('(').append(expression).append(')');
+        if (count > 0) {
+            sb.append(" partitions ").append(count);
+        }
+        if (isRolling()) {
+            sb.append(" rolling ").append(interval).append(",ahead ").append(ahead).append(",retention ").append(retention);
+        }
+        for (int i = 0; i < ranges.size(); i++) {
+            sb.append(i == 0 ? " " : ",").append(names.get(i)).append('<').append(ranges.get(i));
+        }
+        return sb.toString();
+    }
+
+}
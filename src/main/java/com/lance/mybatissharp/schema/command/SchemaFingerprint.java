@@ -0,0 +1,64 @@
+package com.lance.mybatissharp.schema.command;
+
+import java.util.Date;
+
+/**
+ * 用于存放上次更新表结构后记录的实体结构指纹
+ *
+ * @author Lance
+ */
+public class SchemaFingerprint {
+
+    /**
+     * 记录id
+     */
+    private String id;
+
+    /**
+     * 实体结构指纹
+     */
+    private String fingerprint;
+
+    /**
+     * 更新后库中结构的校验值
+     */
+    private String checksum;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public Date getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(Date updateTime) {
+        this.updateTime = updateTime;
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.lance.mybatissharp.schema.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多个租户schema更新表结构的结果，执行过程中可以并发记录
+ *
+ * @author Lance
+ */
+public class SchemaMigrationReport {
+
+    /**
+     * 需要处理的schema数量
+     */
+    private final int total;
+
+    /**
+     * 更新成功的schema
+     */
+    private final List<String> succeeded = new ArrayList<>();
+
+    /**
+     * 结构没有变化、不需要更新的schema
+     */
+    private final List<String> skipped = new ArrayList<>();
+
+    /**
+     * 更新失败的schema为key，失败原因为value
+     */
+    private final Map<String, Throwable> failed = new LinkedHashMap<>();
+
+    public SchemaMigrationReport(int total) {
+        this.total = total;
+    }
+
+    /**
+     * 记录更新成功
+     *
+     * @param schema schema名
+     * @return 已完成的数量
+     */
+    public synchronized int succeeded(String schema) {
+        succeeded.add(schema);
+        return getCompleted();
+    }
+
+    /**
+     * 记录不需要更新
+     *
+     * @param schema schema名
+     * @return 已完成的数量
+     */
+    public synchronized int skipped(String schema) {
+        skipped.add(schema);
+        return getCompleted();
+    }
+
+    /**
+     * 记录更新失败
+     *
+     * @param schema schema名
+     * @param cause  失败原因
+     * @return 已完成的数量
+     */
+    public synchronized int failed(String schema, Throwable cause) {
+        failed.put(schema, cause);
+        return getCompleted();
+    }
+
+    /**
+     * 是否所有schema都没有失败
+     */
+    public synchronized boolean isSuccess() {
+        return failed.isEmpty();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * 已完成（成功、跳过或失败）的数量
+     */
+    public synchronized int getCompleted() {
+        return succeeded.size() + skipped.size() + failed.size();
+    }
+
+    public synchronized List<String> getSucceeded() {
+        return Collections.unmodifiableList(new ArrayList<>(succeeded));
+    }
+
+    public synchronized List<String> getSkipped() {
+        return Collections.unmodifiableList(new ArrayList<>(skipped));
+    }
+
+    public synchronized Map<String, Throwable> getFailed() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(failed));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SchemaMigrationReport{total=" + total + ", succeeded=" + succeeded.size()
+                + ", skipped=" + skipped.size() + ", failed=" + failed.keySet() + "}";
+    }
+}
@@ -0,0 +1,107 @@
+package com.lance.mybatissharp.schema.command;
+
+/**
+ * 用于查询表的分区信息，每个分区一行
+ *
+ * @author Lance
+ */
+public class SysMysqlPartitions {
+
+    /**
+     * 表所在的schema
+     */
+    private String  table_schema;
+    /**
+     * 表名
+     */
+    private String  table_name;
+    /**
+     * 分区名
+     */
+    private String  partition_name;
+    /**
+     * 分区的位置，从1开始
+     */
+    private Integer partition_ordinal_position;
+    /**
+     * 分区方式，值：(RANGE,RANGE COLUMNS,LIST,LIST COLUMNS,HASH,LINEAR HASH,KEY,LINEAR KEY)
+     */
+    private String  partition_method;
+    /**
+     * 分区表达式
+     */
+    private String  partition_expression;
+    /**
+     * 范围分区的上界，例如738000、'2026-11-01'、MAXVALUE
+     */
+    private String  partition_description;
+    /**
+     * 估算的行数
+     */
+    private Long    table_rows;
+
+    public String getTable_schema() {
+        return table_schema;
+    }
+
+    public void setTable_schema(String table_schema) {
+        this.table_schema = table_schema;
+    }
+
+    public String getTable_name() {
+        return table_name;
+    }
+
+    public void setTable_name(String table_name) {
+        this.table_name = table_name;
+    }
+
+    public String getPartition_name() {
+        return partition_name;
+    }
+
+    public void setPartition_name(String partition_name) {
+        this.partition_name = partition_name;
+    }
+
+    public Integer getPartition_ordinal_position() {
+        return partition_ordinal_position;
+    }
+
+    public void setPartition_ordinal_position(Integer partition_ordinal_position) {
+        this.partition_ordinal_position = partition_ordinal_position;
+    }
+
+    public String getPartition_method() {
+        return partition_method;
+    }
+
+    public void setPartition_method(String partition_method) {
+        this.partition_method = partition_method;
+    }
+
+    public String getPartition_expression() {
+        return partition_expression;
+    }
+
+    public void setPartition_expression(String partition_expression) {
+        this.partition_expression = partition_expression;
+    }
+
+    public String getPartition_description() {
+        return partition_description;
+    }
+
+    public void setPartition_description(String partition_description) {
+        this.partition_description = partition_description;
+    }
+
+    public Long getTable_rows() {
+        return table_rows;
+    }
+
+    public void setTable_rows(Long table_rows) {
+        this.table_rows = table_rows;
+    }
+
+}
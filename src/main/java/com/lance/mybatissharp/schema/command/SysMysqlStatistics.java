@@ -0,0 +1,107 @@
+package com.lance.mybatissharp.schema.command;
+
+/**
+ * 用于查询表的索引信息，每个索引字段一行
+ *
+ * @author Lance
+ */
+public class SysMysqlStatistics {
+
+    /**
+     * 表所在的schema
+     */
+    private String  table_schema;
+    /**
+     * 表名
+     */
+    private String  table_name;
+    /**
+     * 索引名
+     */
+    private String  index_name;
+    /**
+     * 是否可以重复，唯一索引为0
+     */
+    private Integer non_unique;
+    /**
+     * 字段在索引中的位置，从1开始
+     */
+    private Integer seq_in_index;
+    /**
+     * 字段名
+     */
+    private String  column_name;
+    /**
+     * 前缀长度，整个字段时为null
+     */
+    private Integer sub_part;
+    /**
+     * 索引类型，值：(BTREE,FULLTEXT,HASH,SPATIAL)
+     */
+    private String  index_type;
+
+    public String getTable_schema() {
+        return table_schema;
+    }
+
+    public void setTable_schema(String table_schema) {
+        this.table_schema = table_schema;
+    }
+
+    public String getTable_name() {
+        return table_name;
+    }
+
+    public void setTable_name(String table_name) {
+        this.table_name = table_name;
+    }
+
+    public String getIndex_name() {
+        return index_name;
+    }
+
+    public void setIndex_name(String index_name) {
+        this.index_name = index_name;
+    }
+
+    public Integer getNon_unique() {
+        return non_unique;
+    }
+
+    public void setNon_unique(Integer non_unique) {
+        this.non_unique = non_unique;
+    }
+
+    public Integer getSeq_in_index() {
+        return seq_in_index;
+    }
+
+    public void setSeq_in_index(Integer seq_in_index) {
+        this.seq_in_index = seq_in_index;
+    }
+
+    public String getColumn_name() {
+        return column_name;
+    }
+
+    public void setColumn_name(String column_name) {
+        this.column_name = column_name;
+    }
+
+    public Integer getSub_part() {
+        return sub_part;
+    }
+
+    public void setSub_part(Integer sub_part) {
+        this.sub_part = sub_part;
+    }
+
+    public String getIndex_type() {
+        return index_type;
+    }
+
+    public void setIndex_type(String index_type) {
+        this.index_type = index_type;
+    }
+
+}
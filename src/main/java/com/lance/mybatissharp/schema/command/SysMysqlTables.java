@@ -0,0 +1,107 @@
+package com.lance.mybatissharp.schema.command;
+
+/**
+ * 用于查询表的状态信息
+ *
+ * @author Lance
+ */
+public class SysMysqlTables {
+
+    /**
+     * 表所在的schema
+     */
+    private String table_schema;
+    /**
+     * 表名
+     */
+    private String table_name;
+    /**
+     * 表引擎
+     */
+    private String engine;
+    /**
+     * 行格式，例如Dynamic、Compressed
+     */
+    private String row_format;
+    /**
+     * 建表时指定的选项，例如row_format=COMPRESSED KEY_BLOCK_SIZE=8 COMPRESSION="zlib"
+     */
+    private String create_options;
+    /**
+     * 估算的行数
+     */
+    private Long   table_rows;
+    /**
+     * 数据大小（字节）
+     */
+    private Long   data_length;
+    /**
+     * 索引大小（字节）
+     */
+    private Long   index_length;
+
+    public String getTable_schema() {
+        return table_schema;
+    }
+
+    public void setTable_schema(String table_schema) {
+        this.table_schema = table_schema;
+    }
+
+    public String getTable_name() {
+        return table_name;
+    }
+
+    public void setTable_name(String table_name) {
+        this.table_name = table_name;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public String getRow_format() {
+        return row_format;
+    }
+
+    public void setRow_format(String row_format) {
+        this.row_format = row_format;
+    }
+
+    public String getCreate_options() {
+        return create_options;
+    }
+
+    public void setCreate_options(String create_options) {
+        this.create_options = create_options;
+    }
+
+    public Long getTable_rows() {
+        return table_rows;
+    }
+
+    public void setTable_rows(Long table_rows) {
+        this.table_rows = table_rows;
+    }
+
+    public Long getData_length() {
+        return data_length;
+    }
+
+    public void setData_length(Long data_length) {
+        this.data_length = data_length;
+    }
+
+    public Long getIndex_length() {
+        return index_length;
+    }
+
+    public void setIndex_length(Long index_length) {
+        this.index_length = index_length;
+    }
+
+}
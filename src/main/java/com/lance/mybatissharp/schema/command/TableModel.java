@@ -0,0 +1,84 @@
+package com.lance.mybatissharp.schema.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单张表在实体中声明的结构，包括字段、索引、分区和存储选项，来自编译期生成的建表元数据或反射解析的注解
+ *
+ * @author Lance
+ */
+public class TableModel {
+
+    /**
+     * 表名
+     */
+    private String tableName;
+
+    /**
+     * 字段，顺序与实体中声明的一致
+     */
+    private List<CreateTableParam> fields = new ArrayList<>();
+
+    /**
+     * 声明的二级索引
+     */
+    private List<IndexParam> indexes = new ArrayList<>();
+
+    /**
+     * 声明的分区，不分区时为null
+     */
+    private PartitionParam partition;
+
+    /**
+     * 声明的存储选项，没有声明时为null
+     */
+    private TableOptionParam tableOptions;
+
+    public TableModel() {
+    }
+
+    public TableModel(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public List<CreateTableParam> getFields() {
+        return fields;
+    }
+
+    public void setFields(List<CreateTableParam> fields) {
+        this.fields = fields;
+    }
+
+    public List<IndexParam> getIndexes() {
+        return indexes;
+    }
+
+    public void setIndexes(List<IndexParam> indexes) {
+        this.indexes = indexes;
+    }
+
+    public PartitionParam getPartition() {
+        return partition;
+    }
+
+    public void setPartition(PartitionParam partition) {
+        this.partition = partition;
+    }
+
+    public TableOptionParam getTableOptions() {
+        return tableOptions;
+    }
+
+    public void setTableOptions(TableOptionParam tableOptions) {
+        this.tableOptions = tableOptions;
+    }
+}
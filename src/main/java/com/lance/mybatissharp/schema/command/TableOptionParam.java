@@ -0,0 +1,128 @@
+package com.lance.mybatissharp.schema.command;
+
+/**
+ * 用于存放表的存储选项，来自{@code @Table}或information_schema.tables，为null的选项不指定
+ *
+ * @author Lance
+ */
+public class TableOptionParam {
+
+    /**
+     * 表引擎
+     */
+    private String  engine;
+
+    /**
+     * 默认字符集，只在建表时使用，不对比
+     */
+    private String  charset;
+
+    /**
+     * 行格式，大写，例如COMPRESSED
+     */
+    private String  rowFormat;
+
+    /**
+     * 压缩页的大小（KB），0表示取消
+     */
+    private Integer keyBlockSize;
+
+    /**
+     * 透明页压缩的算法，例如zlib
+     */
+    private String  compression;
+
+    /**
+     * 是否持久化统计信息，1或0
+     */
+    private Integer statsPersistent;
+
+    /**
+     * 估算统计信息时采样的页数
+     */
+    private Integer statsSamplePages;
+
+    /**
+     * 是否没有指定任何选项
+     */
+    public boolean isEmpty() {
+        return engine == null && charset == null && rowFormat == null && keyBlockSize == null && compression == null
+                && statsPersistent == null && statsSamplePages == null;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public String getCharset() {
+        return charset;
+    }
+
+    public void setCharset(String charset) {
+        this.charset = charset;
+    }
+
+    public String getRowFormat() {
+        return rowFormat;
+    }
+
+    public void setRowFormat(String rowFormat) {
+        this.rowFormat = rowFormat;
+    }
+
+    public Integer getKeyBlockSize() {
+        return keyBlockSize;
+    }
+
+    public void setKeyBlockSize(Integer keyBlockSize) {
+        this.keyBlockSize = keyBlockSize;
+    }
+
+    public String getCompression() {
+        return compression;
+    }
+
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
+    public Integer getStatsPersistent() {
+        return statsPersistent;
+    }
+
+    public void setStatsPersistent(Integer statsPersistent) {
+        this.statsPersistent = statsPersistent;
+    }
+
+    public Integer getStatsSamplePages() {
+        return statsSamplePages;
+    }
+
+    public void setStatsSamplePages(Integer statsSamplePages) {
+        this.statsSamplePages = statsSamplePages;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        append(sb, "engine", engine);
+        append(sb, "charset", charset);
+        append(sb, "row_format", rowFormat);
+        append(sb, "key_block_size", keyBlockSize);
+        append(sb, "compression", compression);
+        append(sb, "stats_persistent", statsPersistent);
+        append(sb, "stats_sample_pages", statsSamplePages);
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String name, Object value) {
+        if (value != null) {
+            sb.append(sb.length() == 0 ? "" : " ").append(name).append('=').append(value);
+        }
+    }
+
+}
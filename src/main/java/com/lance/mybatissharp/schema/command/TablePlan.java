@@ -0,0 +1,370 @@
+package com.lance.mybatissharp.schema.command;
+
+import com.lance.mybatissharp.schema.constants.AlterAlgorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单张表的迁移计划，包括需要创建或修改的内容、预估代价和预计使用的算法
+ *
+ * @author Lance
+ */
+public class TablePlan {
+
+    /**
+     * 表名
+     */
+    private String tableName;
+
+    /**
+     * 是否需要创建表
+     */
+    private boolean create;
+
+    /**
+     * 创建前是否先删除已有的表（create模式）
+     */
+    private boolean recreate;
+
+    /**
+     * 创建表时的字段
+     */
+    private List<CreateTableParam> newFields = new ArrayList<>();
+
+    /**
+     * 新增的字段
+     */
+    private List<CreateTableParam> addFields = new ArrayList<>();
+
+    /**
+     * 删除的字段名
+     */
+    private List<String> removeFields = new ArrayList<>();
+
+    /**
+     * 修改的字段
+     */
+    private List<CreateTableParam> modifyFields = new ArrayList<>();
+
+    /**
+     * 需要删除主键的字段
+     */
+    private List<CreateTableParam> dropKeyFields = new ArrayList<>();
+
+    /**
+     * 需要删除唯一约束的字段
+     */
+    private List<CreateTableParam> dropUniqueFields = new ArrayList<>();
+
+    /**
+     * 创建表时的索引
+     */
+    private List<IndexParam> newIndexes = new ArrayList<>();
+
+    /**
+     * 新增的索引，包括定义变化后重新创建的索引
+     */
+    private List<IndexParam> addIndexes = new ArrayList<>();
+
+    /**
+     * 删除的索引名
+     */
+    private List<String> dropIndexes = new ArrayList<>();
+
+    /**
+     * 创建表时为全部存储选项，修改表时为需要修改的存储选项，不需要时为null
+     */
+    private TableOptionParam tableOptions;
+
+    /**
+     * 创建表或重新分区时的分区定义，不分区时为null
+     */
+    private PartitionParam partition;
+
+    /**
+     * 是否需要按partition重新分区
+     */
+    private boolean repartition;
+
+    /**
+     * 是否需要取消分区
+     */
+    private boolean removePartitioning;
+
+    /**
+     * 需要增加的范围分区，不需要时为null
+     */
+    private PartitionParam addPartitions;
+
+    /**
+     * 需要删除的分区名
+     */
+    private List<String> dropPartitions = new ArrayList<>();
+
+    /**
+     * 估算的行数，来自information_schema.tables
+     */
+    private long tableRows;
+
+    /**
+     * 数据大小（字节）
+     */
+    private long dataLength;
+
+    /**
+     * 索引大小（字节）
+     */
+    private long indexLength;
+
+    /**
+     * 修改表预计使用的算法，不需要修改时为null
+     */
+    private AlterAlgorithm algorithm;
+
+    /**
+     * 是否通过影子表在线修改
+     */
+    private boolean online;
+
+    /**
+     * 生成计划时该表在库中的结构，不存在时为null
+     */
+    private List<SysMysqlColumns> columns;
+
+    public TablePlan() {
+    }
+
+    public TablePlan(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * 是否需要修改表
+     */
+    public boolean hasAlter() {
+        return !addFields.isEmpty() || !removeFields.isEmpty() || !modifyFields.isEmpty() || !dropKeyFields.isEmpty()
+                || !dropUniqueFields.isEmpty() || !addIndexes.isEmpty() || !dropIndexes.isEmpty()
+                || (!create && tableOptions != null);
+    }
+
+    /**
+     * 是否需要修改分区，分区的修改在修改字段、索引之后单独执行
+     */
+    public boolean hasPartitionChanges() {
+        return repartition || removePartitioning || addPartitions != null || !dropPartitions.isEmpty();
+    }
+
+    /**
+     * 是否需要创建或修改表
+     */
+    public boolean hasChanges() {
+        return create || hasAlter() || hasPartitionChanges();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public boolean isCreate() {
+        return create;
+    }
+
+    public void setCreate(boolean create) {
+        this.create = create;
+    }
+
+    public boolean isRecreate() {
+        return recreate;
+    }
+
+    public void setRecreate(boolean recreate) {
+        this.recreate = recreate;
+    }
+
+    public List<CreateTableParam> getNewFields() {
+        return newFields;
+    }
+
+    public void setNewFields(List<CreateTableParam> newFields) {
+        this.newFields = newFields;
+    }
+
+    public List<CreateTableParam> getAddFields() {
+        return addFields;
+    }
+
+    public void setAddFields(List<CreateTableParam> addFields) {
+        this.addFields = addFields;
+    }
+
+    public List<String> getRemoveFields() {
+        return removeFields;
+    }
+
+    public void setRemoveFields(List<String> removeFields) {
+        this.removeFields = removeFields;
+    }
+
+    public List<CreateTableParam> getModifyFields() {
+        return modifyFields;
+    }
+
+    public void setModifyFields(List<CreateTableParam> modifyFields) {
+        this.modifyFields = modifyFields;
+    }
+
+    public List<CreateTableParam> getDropKeyFields() {
+        return dropKeyFields;
+    }
+
+    public void setDropKeyFields(List<CreateTableParam> dropKeyFields) {
+        this.dropKeyFields = dropKeyFields;
+    }
+
+    public List<CreateTableParam> getDropUniqueFields() {
+        return dropUniqueFields;
+    }
+
+    public void setDropUniqueFields(List<CreateTableParam> dropUniqueFields) {
+        this.dropUniqueFields = dropUniqueFields;
+    }
+
+    public List<IndexParam> getNewIndexes() {
+        return newIndexes;
+    }
+
+    public void setNewIndexes(List<IndexParam> newIndexes) {
+        this.newIndexes = newIndexes;
+    }
+
+    public List<IndexParam> getAddIndexes() {
+        return addIndexes;
+    }
+
+    public void setAddIndexes(List<IndexParam> addIndexes) {
+        this.addIndexes = addIndexes;
+    }
+
+    public List<String> getDropIndexes() {
+        return dropIndexes;
+    }
+
+    public void setDropIndexes(List<String> dropIndexes) {
+        this.dropIndexes = dropIndexes;
+    }
+
+    public TableOptionParam getTableOptions() {
+        return tableOptions;
+    }
+
+    public void setTableOptions(TableOptionParam tableOptions) {
+        this.tableOptions = tableOptions;
+    }
+
+    public PartitionParam getPartition() {
+        return partition;
+    }
+
+    public void setPartition(PartitionParam partition) {
+        this.partition = partition;
+    }
+
+    public boolean isRepartition() {
+        return repartition;
+    }
+
+    public void setRepartition(boolean repartition) {
+        this.repartition = repartition;
+    }
+
+    public boolean isRemovePartitioning() {
+        return removePartitioning;
+    }
+
+    public void setRemovePartitioning(boolean removePartitioning) {
+        this.removePartitioning = removePartitioning;
+    }
+
+    public PartitionParam getAddPartitions() {
+        return addPartitions;
+    }
+
+    public void setAddPartitions(PartitionParam addPartitions) {
+        this.addPartitions = addPartitions;
+    }
+
+    public List<String> getDropPartitions() {
+        return dropPartitions;
+    }
+
+    public void setDropPartitions(List<String> dropPartitions) {
+        this.dropPartitions = dropPartitions;
+    }
+
+    public long getTableRows() {
+        return tableRows;
+    }
+
+    public void setTableRows(long tableRows) {
+        this.tableRows = tableRows;
+    }
+
+    public long getDataLength() {
+        return dataLength;
+    }
+
+    public void setDataLength(long dataLength) {
+        this.dataLength = dataLength;
+    }
+
+    public long getIndexLength() {
+        return indexLength;
+    }
+
+    public void setIndexLength(long indexLength) {
+        this.indexLength = indexLength;
+    }
+
+    public AlterAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(AlterAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+
+    public void setOnline(boolean online) {
+        this.online = online;
+    }
+
+    public List<SysMysqlColumns> getColumns() {
+        return columns;
+    }
+
+    public void setColumns(List<SysMysqlColumns> columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public String toString() {
+        return tableName + (create ? "：创建" : "：增加字段" + addFields.size() + "，删除字段" + removeFields.size()
+                + "，修改字段" + modifyFields.size() + "，删除主键" + dropKeyFields.size()
+                + "，删除唯一约束" + dropUniqueFields.size() + "，增加索引" + addIndexes.size()
+                + "，删除索引" + dropIndexes.size() + (tableOptions == null ? "" : "，存储选项" + tableOptions)
+                + "，算法" + algorithm + (online ? "（影子表）" : "")
+                + (repartition ? "，重新分区" : "") + (removePartitioning ? "，取消分区" : "")
+                + "，增加分区" + (addPartitions == null ? 0 : addPartitions.getNames().size())
+                + "，删除分区" + dropPartitions.size())
+                + "，行数" + tableRows + "，大小" + (dataLength + indexLength);
+    }
+
+}
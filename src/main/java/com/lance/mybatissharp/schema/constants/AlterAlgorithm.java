@@ -0,0 +1,34 @@
+package com.lance.mybatissharp.schema.constants;
+
+/**
+ * 修改表结构时使用的算法，代价从低到高排列
+ *
+ * @author Lance
+ */
+public enum AlterAlgorithm {
+
+    /** 只修改数据字典，不读写表数据 */
+    INSTANT,
+
+    /** 在原表上修改，期间允许并发读写，部分操作需要重建表 */
+    INPLACE,
+
+    /** 复制整张表，期间阻塞写入 */
+    COPY;
+
+    /**
+     * 取代价更高的算法
+     */
+    public AlterAlgorithm max(AlterAlgorithm other) {
+        return other.ordinal() > ordinal() ? other : this;
+    }
+
+    /**
+     * 服务端拒绝当前算法时尝试的下一个算法
+     *
+     * @return 已经是COPY时返回null
+     */
+    public AlterAlgorithm next() {
+        return this == COPY ? null : values()[ordinal() + 1];
+    }
+}
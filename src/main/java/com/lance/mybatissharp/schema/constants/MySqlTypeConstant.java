@@ -41,4 +41,58 @@ public class MySqlTypeConstant {
      */
     @LengthCount
     public static final String BIGINT = "bigint";
+
+    /**
+     * 1个字节，tinyint(1)用于boolean
+     */
+    @LengthCount
+    public static final String TINYINT = "tinyint";
+
+    /**
+     * 2个字节，等于java中的short
+     */
+    @LengthCount
+    public static final String SMALLINT = "smallint";
+
+    /**
+     * 3个字节
+     */
+    @LengthCount
+    public static final String MEDIUMINT = "mediumint";
+
+    @LengthCount(LengthCount = 0)
+    public static final String FLOAT = "float";
+
+    @LengthCount(LengthCount = 0)
+    public static final String DATE = "date";
+
+    @LengthCount(LengthCount = 0)
+    public static final String TIME = "time";
+
+    /**
+     * 4个字节，范围到2038年
+     */
+    @LengthCount(LengthCount = 0)
+    public static final String TIMESTAMP = "timestamp";
+
+    @LengthCount(LengthCount = 0)
+    public static final String JSON = "json";
+
+    /**
+     * 定长二进制，binary(16)用于UUID
+     */
+    @LengthCount
+    public static final String BINARY = "binary";
+
+    @LengthCount
+    public static final String VARBINARY = "varbinary";
+
+    @LengthCount(LengthCount = 0)
+    public static final String BLOB = "blob";
+
+    @LengthCount(LengthCount = 0)
+    public static final String MEDIUMTEXT = "mediumtext";
+
+    @LengthCount(LengthCount = 0)
+    public static final String LONGTEXT = "longtext";
 }
@@ -0,0 +1,32 @@
+package com.lance.mybatissharp.schema.constants;
+
+/**
+ * InnoDB透明页压缩的算法，需要文件系统支持打洞，不能与ROW_FORMAT=COMPRESSED一起使用
+ *
+ * @author Lance
+ */
+public enum PageCompression {
+
+    /** 不指定，也不对比库中的压缩算法 */
+    DEFAULT(null),
+
+    /** 不压缩 */
+    NONE("None"),
+
+    /** 压缩率更高 */
+    ZLIB("zlib"),
+
+    /** 速度更快 */
+    LZ4("lz4");
+
+    /** 建表语句和information_schema.tables的create_options中的写法 */
+    private final String sql;
+
+    PageCompression(String sql) {
+        this.sql = sql;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+}
@@ -0,0 +1,56 @@
+package com.lance.mybatissharp.schema.constants;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 滚动分区的周期，每个周期一个分区
+ *
+ * @author Lance
+ */
+public enum PartitionInterval {
+
+    /** 不滚动，使用声明的固定范围 */
+    NONE(null),
+
+    /** 每天一个分区，分区名例如p20261018 */
+    DAY(DateTimeFormatter.BASIC_ISO_DATE),
+
+    /** 每月一个分区，分区名例如p202610 */
+    MONTH(DateTimeFormatter.ofPattern("yyyyMM"));
+
+    /** 分区名中日期的格式 */
+    private final DateTimeFormatter nameFormatter;
+
+    PartitionInterval(DateTimeFormatter nameFormatter) {
+        this.nameFormatter = nameFormatter;
+    }
+
+    /**
+     * 日期所在周期的开始日期
+     */
+    public LocalDate start(LocalDate date) {
+        return this == MONTH ? date.withDayOfMonth(1) : date;
+    }
+
+    /**
+     * 日期所在周期的下一个周期的开始日期，即该周期分区的上界
+     */
+    public LocalDate next(LocalDate date) {
+        return this == MONTH ? date.withDayOfMonth(1).plusMonths(1) : date.plusDays(1);
+    }
+
+    /**
+     * 往前或往后移动若干个周期
+     */
+    public LocalDate plus(LocalDate date, int periods) {
+        return this == MONTH ? date.plusMonths(periods) : date.plusDays(periods);
+    }
+
+    /**
+     * 包含该日期的周期的分区名
+     */
+    public String partitionName(LocalDate date) {
+        return "p" + start(date).format(nameFormatter);
+    }
+}
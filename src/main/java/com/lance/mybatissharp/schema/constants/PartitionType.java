@@ -0,0 +1,54 @@
+package com.lance.mybatissharp.schema.constants;
+
+/**
+ * 表的分区方式
+ *
+ * @author Lance
+ */
+public enum PartitionType {
+
+    /** 按表达式的整数值分区，例如to_days(create_time) */
+    RANGE("RANGE"),
+
+    /** 按字段值分区，可以直接使用日期字段，滚动分区使用此方式 */
+    RANGE_COLUMNS("RANGE COLUMNS"),
+
+    /** 按表达式的整数值取模，分成固定数量的分区 */
+    HASH("HASH"),
+
+    /** 按字段的哈希值分成固定数量的分区 */
+    KEY("KEY");
+
+    /** 建表语句和information_schema.partitions中的写法 */
+    private final String sql;
+
+    PartitionType(String sql) {
+        this.sql = sql;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * 按information_schema.partitions中的partition_method查找
+     *
+     * @param sql 分区方式
+     * @return 不支持的分区方式（例如LIST、LINEAR HASH）返回null
+     */
+    public static PartitionType of(String sql) {
+        for (PartitionType type : values()) {
+            if (type.sql.equalsIgnoreCase(sql)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 是否按范围分区
+     */
+    public boolean isRange() {
+        return this == RANGE || this == RANGE_COLUMNS;
+    }
+}
@@ -0,0 +1,24 @@
+package com.lance.mybatissharp.schema.constants;
+
+/**
+ * InnoDB表的行格式
+ *
+ * @author Lance
+ */
+public enum RowFormat {
+
+    /** 不指定，使用数据库的innodb_default_row_format，也不对比库中的行格式 */
+    DEFAULT,
+
+    /** 长字段完全存放在溢出页，MySQL 5.7开始的默认行格式 */
+    DYNAMIC,
+
+    /** 长字段前768字节存放在行内 */
+    COMPACT,
+
+    /** 旧版本的行格式 */
+    REDUNDANT,
+
+    /** 在DYNAMIC的基础上按KEY_BLOCK_SIZE压缩数据页和索引页，适合读多写少的归档表 */
+    COMPRESSED
+}
@@ -1,9 +1,13 @@
 package com.lance.mybatissharp.schema.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import com.lance.mybatissharp.plugins.row.CompactRow;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
 
 /**
@@ -41,5 +45,83 @@ public interface BaseMysqlCRUDMapper {
      */
     public List<Map<String, Object>> query(@Param("tableMap") Map<Object, Map<Object, Object>> tableMap);
 
+    /**
+     * 流式查询，结果逐行从连接读取，内存占用与结果行数无关
+     * <p>遍历期间需要保持会话打开（例如在事务中），遍历结束后关闭游标；同一连接在游标关闭前不能执行其他语句</p>
+     *
+     * @param tableMap 表结构的map，条件为空时查询整张表
+     * @return 游标
+     */
+    public Cursor<Map<String, Object>> queryCursor(@Param("tableMap") Map<Object, Map<Object, Object>> tableMap);
+
+    /**
+     * 流式查询，每读取一行回调一次，回调返回后该行即可被回收
+     *
+     * @param tableMap 表结构的map，条件为空时查询整张表
+     * @param handler  每行的回调，可以调用ResultContext.stop()提前结束
+     */
+    public void queryStream(@Param("tableMap") Map<Object, Map<Object, Object>> tableMap,
+                            ResultHandler<Map<String, Object>> handler);
+
+    /**
+     * 查询，每行是字段名共用的紧凑行，需要注册CompactRowInterceptor
+     *
+     * @param tableMap 表结构的map，条件为空时查询整张表
+     * @return 紧凑行
+     */
+    public List<CompactRow> queryCompact(@Param("tableMap") Map<Object, Map<Object, Object>> tableMap);
+
+    /**
+     * 流式查询，每行是字段名共用的紧凑行，需要注册CompactRowInterceptor
+     *
+     * @param tableMap 表结构的map，条件为空时查询整张表
+     * @param handler  每行的回调，可以调用ResultContext.stop()提前结束
+     */
+    public void queryCompactStream(@Param("tableMap") Map<Object, Map<Object, Object>> tableMap,
+                                   ResultHandler<CompactRow> handler);
+
+    /**
+     * 多行插入，updateColumns不为空时主键或唯一键冲突的行改为更新这些字段
+     *
+     * @param tableName     表名
+     * @param columns       字段名，每行都按这些字段取值，没有值的字段插入null
+     * @param rows          字段名为key的行
+     * @param updateColumns 冲突时更新的字段名，为null时不处理冲突
+     * @return 影响的行数
+     */
+    public int saveBatch(@Param("tableName") String tableName, @Param("columns") List<String> columns,
+                         @Param("rows") List<Map<String, Object>> rows,
+                         @Param("updateColumns") List<String> updateColumns);
+
+    /**
+     * 按主键更新一行，在BATCH模式下执行时相同语句合并成一次JDBC批量提交
+     *
+     * @param tableName 表名
+     * @param columns   需要更新的字段名
+     * @param keyField  主键字段名
+     * @param row       字段名为key的行
+     * @return 影响的行数
+     */
+    public int updateByKey(@Param("tableName") String tableName, @Param("columns") List<String> columns,
+                           @Param("keyField") String keyField, @Param("row") Map<String, Object> row);
+
+    /**
+     * 按主键删除多行
+     *
+     * @param tableName 表名
+     * @param keyField  主键字段名
+     * @param keys      主键值
+     * @return 影响的行数
+     */
+    public int deleteBatch(@Param("tableName") String tableName, @Param("keyField") String keyField,
+                           @Param("keys") Collection<?> keys);
+
+    /**
+     * 查询服务端允许的最大数据包
+     *
+     * @return 字节数
+     */
+    public long findMaxAllowedPacket();
+
 
 }
@@ -1,11 +1,21 @@
 package com.lance.mybatissharp.schema.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.annotations.Param;
 
+import com.lance.mybatissharp.schema.command.AlterTableParam;
+import com.lance.mybatissharp.schema.command.IndexParam;
+import com.lance.mybatissharp.schema.command.OnlineMigrationParam;
+import com.lance.mybatissharp.schema.command.PartitionParam;
+import com.lance.mybatissharp.schema.command.SchemaFingerprint;
 import com.lance.mybatissharp.schema.command.SysMysqlColumns;
+import com.lance.mybatissharp.schema.command.SysMysqlPartitions;
+import com.lance.mybatissharp.schema.command.SysMysqlStatistics;
+import com.lance.mybatissharp.schema.command.SysMysqlTables;
+import com.lance.mybatissharp.schema.command.TableOptionParam;
 
 
 /**
@@ -18,16 +28,24 @@ public interface CreateMysqlTablesMapper {
     /**
      * 根据结构注解解析出来的信息创建表
      *
-     * @param tableMap 表结构的map
+     * @param schema    表所在的schema，为null时使用当前库
+     * @param tableMap  表结构的map
+     * @param indexes   表的二级索引，可以为null
+     * @param options   表的存储选项，都不指定时为null
+     * @param partition 表的分区定义，不分区时为null
      */
-    void createTable(@Param("tableMap") Map<String, List<Object>> tableMap);
+    void createTable(@Param("schema") String schema, @Param("tableMap") Map<String, List<Object>> tableMap,
+                     @Param("indexes") List<IndexParam> indexes, @Param("options") TableOptionParam options,
+                     @Param("partition") PartitionParam partition);
 
     /**
      * 根据表名查询表在库中是否存在，存在返回1，不存在返回0
      *
      * @param tableName 表结构的map
      * @return 存在返回1，不存在返回0
+     * @deprecated 逐表查询，请使用{@link #findAllTableEnsemble()}一次查询所有表，结果中没有字段的表不存在
      */
+    @Deprecated
     int findTableCountByTableName(@Param("tableName") String tableName);
 
     /**
@@ -35,48 +53,308 @@ public interface CreateMysqlTablesMapper {
      *
      * @param tableName 表结构的map
      * @return 表的字段结构等信息
+     * @deprecated 逐表查询，请使用{@link #findAllTableEnsemble()}一次查询所有表
      */
+    @Deprecated
     List<SysMysqlColumns> findTableEnsembleByTableName(@Param("tableName") String tableName);
 
+    /**
+     * 查询当前库中所有表的字段结构等信息，一次查询代替逐表查询
+     *
+     * @return 所有表的字段结构等信息，按表名、字段位置排序
+     */
+    List<SysMysqlColumns> findAllTableEnsemble();
+
+    /**
+     * 查询多个schema中所有表的字段结构等信息，一次查询代替逐个schema查询
+     *
+     * @param schemas schema名
+     * @return 所有表的字段结构等信息，按schema、表名、字段位置排序
+     */
+    List<SysMysqlColumns> findAllTableEnsembleBySchemas(@Param("schemas") Collection<String> schemas);
+
+    /**
+     * 查询当前库中所有表的索引，不包括主键，一次查询代替逐表查询
+     *
+     * @return 所有表的索引信息，按表名、索引名、字段位置排序
+     */
+    List<SysMysqlStatistics> findAllIndexes();
+
+    /**
+     * 查询多个schema中所有表的索引，不包括主键
+     *
+     * @param schemas schema名
+     * @return 所有表的索引信息，按schema、表名、索引名、字段位置排序
+     */
+    List<SysMysqlStatistics> findAllIndexesBySchemas(@Param("schemas") Collection<String> schemas);
+
     /**
      * 增加字段
      *
      * @param tableMap 表结构的map
+     * @deprecated 每个字段一条语句，请使用{@link #alterTable(AlterTableParam)}合并成一条alter table语句
      */
+    @Deprecated
     void addTableField(@Param("tableMap") Map<String, Object> tableMap);
 
     /**
      * 删除字段
      *
      * @param tableMap 表结构的map
+     * @deprecated 每个字段一条语句，请使用{@link #alterTable(AlterTableParam)}合并成一条alter table语句
      */
+    @Deprecated
     void removeTableField(@Param("tableMap") Map<String, Object> tableMap);
 
     /**
      * 修改字段
      *
      * @param tableMap 表结构的map
+     * @deprecated 每个字段一条语句，请使用{@link #alterTable(AlterTableParam)}合并成一条alter table语句
      */
+    @Deprecated
     void modifyTableField(@Param("tableMap") Map<String, Object> tableMap);
 
     /**
      * 删除主键约束，附带修改其他字段属性功能
      *
      * @param tableMap 表结构的map
+     * @deprecated 每个字段一条语句，请使用{@link #alterTable(AlterTableParam)}合并成一条alter table语句
      */
+    @Deprecated
     void dropKeyTableField(@Param("tableMap") Map<String, Object> tableMap);
 
     /**
      * 删除唯一约束字段，不带修改其他字段属性的功能
      *
      * @param tableMap 表结构的map
+     * @deprecated 每个字段一条语句，请使用{@link #alterTable(AlterTableParam)}合并成一条alter table语句
      */
+    @Deprecated
     void dropUniqueTableField(@Param("tableMap") Map<String, Object> tableMap);
 
+    /**
+     * 修改表，同一张表的删除主键、删除唯一约束、增加、删除、修改字段、增删索引合并成一条alter table语句
+     *
+     * @param alter 表的变更信息
+     */
+    void alterTable(@Param("alter") AlterTableParam alter);
+
+    /**
+     * 按分区定义重新分区，没有分区的表改为分区表，需要复制整张表
+     *
+     * @param schema    表所在的schema，为null时使用当前库
+     * @param tableName 表名
+     * @param partition 分区定义
+     */
+    void partitionTable(@Param("schema") String schema, @Param("tableName") String tableName,
+                        @Param("partition") PartitionParam partition);
+
+    /**
+     * 取消分区，需要复制整张表
+     *
+     * @param schema    表所在的schema，为null时使用当前库
+     * @param tableName 表名
+     */
+    void removePartitioning(@Param("schema") String schema, @Param("tableName") String tableName);
+
+    /**
+     * 在最后一个范围分区之后增加分区
+     *
+     * @param schema    表所在的schema，为null时使用当前库
+     * @param tableName 表名
+     * @param partition 需要增加的分区
+     */
+    void addPartitions(@Param("schema") String schema, @Param("tableName") String tableName,
+                       @Param("partition") PartitionParam partition);
+
+    /**
+     * 删除分区，分区中的数据一起删除
+     *
+     * @param schema         表所在的schema，为null时使用当前库
+     * @param tableName      表名
+     * @param partitionNames 分区名
+     */
+    void dropPartitions(@Param("schema") String schema, @Param("tableName") String tableName,
+                        @Param("partitionNames") List<String> partitionNames);
+
+    /**
+     * 查询当前库中所有分区表的分区
+     *
+     * @return 所有分区信息，按表名、分区位置排序
+     */
+    List<SysMysqlPartitions> findAllPartitions();
+
+    /**
+     * 查询多个schema中所有分区表的分区
+     *
+     * @param schemas schema名
+     * @return 所有分区信息，按schema、表名、分区位置排序
+     */
+    List<SysMysqlPartitions> findAllPartitionsBySchemas(@Param("schemas") Collection<String> schemas);
+
+    /**
+     * 查询数据库版本
+     *
+     * @return 版本号，例如8.0.22
+     */
+    String findServerVersion();
+
+    /**
+     * 在数据库中计算表达式的值
+     *
+     * @param expression 表达式，例如to_days('2024-01-01')
+     * @return 计算结果的文本
+     */
+    String evaluateExpression(@Param("expression") String expression);
+
+    /**
+     * 创建记录实体结构指纹的表，已存在时不做任何事
+     *
+     * @param tableName 记录表名
+     */
+    void createSchemaMetaTable(@Param("tableName") String tableName);
+
+    /**
+     * 查询上次更新后记录的实体结构指纹
+     *
+     * @param tableName 记录表名
+     * @param id        记录id
+     * @return 实体结构指纹，没有记录时返回null
+     */
+    SchemaFingerprint findSchemaFingerprint(@Param("tableName") String tableName, @Param("id") String id);
+
+    /**
+     * 保存实体结构指纹，已存在时覆盖
+     *
+     * @param tableName   记录表名
+     * @param fingerprint 实体结构指纹
+     */
+    void saveSchemaFingerprint(@Param("tableName") String tableName, @Param("fingerprint") SchemaFingerprint fingerprint);
+
+    /**
+     * 创建集群迁移锁的表，已存在时不做任何事
+     *
+     * @param tableName 锁表名
+     */
+    void createMigrationLockTable(@Param("tableName") String tableName);
+
+    /**
+     * 尝试获得迁移锁：锁不存在或已到期时改为owner持有，owner持有时延长到期时间，被其他节点持有时不修改
+     *
+     * @param tableName    锁表名
+     * @param id           锁id
+     * @param owner        节点标识
+     * @param leaseSeconds 租期（秒）
+     */
+    void tryMigrationLock(@Param("tableName") String tableName, @Param("id") String id, @Param("owner") String owner,
+                          @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * 查询迁移锁的持有者，包括已到期的
+     *
+     * @param tableName 锁表名
+     * @param id        锁id
+     * @return 节点标识，没有记录时返回null
+     */
+    String findMigrationLockOwner(@Param("tableName") String tableName, @Param("id") String id);
+
+    /**
+     * 释放owner持有的迁移锁，已被其他节点获得时不做任何事
+     *
+     * @param tableName 锁表名
+     * @param id        锁id
+     * @param owner     节点标识
+     */
+    void releaseMigrationLock(@Param("tableName") String tableName, @Param("id") String id, @Param("owner") String owner);
+
+    /**
+     * 计算当前库中所有表字段结构、索引、分区和存储选项的校验值，只返回一行，用于低成本地判断库中结构是否被修改
+     *
+     * @param excludeTableName 不参与计算的表名
+     * @return 字段数、字段定义crc32之和、索引字段数、索引定义crc32之和、分区数、分区定义crc32之和、表存储选项crc32之和拼接的校验值
+     */
+    String findSchemaChecksum(@Param("excludeTableName") String excludeTableName);
+
+    /**
+     * 查询当前库中所有表的行数、大小等状态信息
+     *
+     * @return 所有表的状态信息
+     */
+    List<SysMysqlTables> findAllTables();
+
+    /**
+     * 查询多个schema中所有表的行数、大小等状态信息
+     *
+     * @param schemas schema名
+     * @return 所有表的状态信息
+     */
+    List<SysMysqlTables> findAllTablesBySchemas(@Param("schemas") Collection<String> schemas);
+
+    /**
+     * 按原表结构创建影子表
+     *
+     * @param migration 在线修改表结构的信息
+     */
+    void createShadowTable(@Param("migration") OnlineMigrationParam migration);
+
+    /**
+     * 在原表上创建触发器，把插入同步到影子表
+     *
+     * @param migration 在线修改表结构的信息
+     */
+    void createInsertTrigger(@Param("migration") OnlineMigrationParam migration);
+
+    /**
+     * 在原表上创建触发器，把更新同步到影子表
+     *
+     * @param migration 在线修改表结构的信息
+     */
+    void createUpdateTrigger(@Param("migration") OnlineMigrationParam migration);
+
+    /**
+     * 在原表上创建触发器，把删除同步到影子表
+     *
+     * @param migration 在线修改表结构的信息
+     */
+    void createDeleteTrigger(@Param("migration") OnlineMigrationParam migration);
+
+    /**
+     * 删除触发器，不存在时不做任何事
+     *
+     * @param schema      触发器所在的schema，为null时使用当前库
+     * @param triggerName 触发器名
+     */
+    void dropTrigger(@Param("schema") String schema, @Param("triggerName") String triggerName);
+
+    /**
+     * 查询下一批复制的最大主键
+     *
+     * @param migration 在线修改表结构的信息
+     * @return 最大主键，没有剩余的行时返回null
+     */
+    Object findChunkUpperKey(@Param("migration") OnlineMigrationParam migration);
+
+    /**
+     * 复制一批数据到影子表，已被触发器同步的行不覆盖
+     *
+     * @param migration 在线修改表结构的信息
+     * @return 复制的行数
+     */
+    int copyChunk(@Param("migration") OnlineMigrationParam migration);
+
+    /**
+     * 原子地用影子表替换原表
+     *
+     * @param migration 在线修改表结构的信息
+     */
+    void swapShadowTable(@Param("migration") OnlineMigrationParam migration);
+
     /**
      * 根据表名删除表
      *
+     * @param schema    表所在的schema，为null时使用当前库
      * @param tableName 表结构的map
      */
-    void dropTableByName(@Param("tableName") String tableName);
+    void dropTableByName(@Param("schema") String schema, @Param("tableName") String tableName);
 }
@@ -0,0 +1,126 @@
+package com.lance.mybatissharp.schema.metadata;
+
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.IndexParam;
+import com.lance.mybatissharp.schema.command.PartitionParam;
+import com.lance.mybatissharp.schema.command.TableOptionParam;
+import com.lance.mybatissharp.schema.constants.PageCompression;
+import com.lance.mybatissharp.schema.constants.PartitionInterval;
+import com.lance.mybatissharp.schema.constants.PartitionType;
+import com.lance.mybatissharp.schema.constants.RowFormat;
+import com.lance.mybatissharp.schema.utils.IndexTools;
+import com.lance.mybatissharp.schema.utils.PartitionTools;
+import com.lance.mybatissharp.schema.utils.TableOptionTools;
+
+/**
+ * 生成的建表元数据的基类
+ *
+ * @author Lance
+ */
+public abstract class AbstractTableMetadata implements TableMetadata {
+
+    /**
+     * 构建字段结构
+     *
+     * @param fieldName            字段名
+     * @param fieldType            字段类型（小写）
+     * @param fieldLength          类型长度
+     * @param fieldDecimalLength   类型小数长度
+     * @param fieldIsNull          字段是否可以为null
+     * @param fieldIsKey           字段是否是主键
+     * @param fieldIsAutoIncrement 主键是否自增
+     * @param fieldDefaultValue    字段默认值
+     * @param fileTypeLength       该类型需要几个长度
+     * @param fieldIsUnique        值是否唯一
+     * @return 字段结构
+     */
+    protected static CreateTableParam field(String fieldName, String fieldType, int fieldLength, int fieldDecimalLength,
+                                            boolean fieldIsNull, boolean fieldIsKey, boolean fieldIsAutoIncrement,
+                                            String fieldDefaultValue, int fileTypeLength, boolean fieldIsUnique) {
+        CreateTableParam param = new CreateTableParam();
+        param.setFieldName(fieldName);
+        param.setFieldType(fieldType);
+        param.setFieldLength(fieldLength);
+        param.setFieldDecimalLength(fieldDecimalLength);
+        param.setFieldIsNull(fieldIsNull);
+        param.setFieldIsKey(fieldIsKey);
+        param.setFieldIsAutoIncrement(fieldIsAutoIncrement);
+        param.setFieldDefaultValue(fieldDefaultValue);
+        param.setFileTypeLength(fileTypeLength);
+        param.setFieldIsUnique(fieldIsUnique);
+        return param;
+    }
+
+    /**
+     * 构建enum类型的字段结构
+     *
+     * @param fieldName            字段名
+     * @param fieldType            字段类型（小写）
+     * @param fieldLength          类型长度
+     * @param fieldDecimalLength   类型小数长度
+     * @param fieldIsNull          字段是否可以为null
+     * @param fieldIsKey           字段是否是主键
+     * @param fieldIsAutoIncrement 主键是否自增
+     * @param fieldDefaultValue    字段默认值
+     * @param fileTypeLength       该类型需要几个长度
+     * @param fieldIsUnique        值是否唯一
+     * @param fieldValues          enum类型的取值，例如'A','B'
+     * @return 字段结构
+     */
+    protected static CreateTableParam field(String fieldName, String fieldType, int fieldLength, int fieldDecimalLength,
+                                            boolean fieldIsNull, boolean fieldIsKey, boolean fieldIsAutoIncrement,
+                                            String fieldDefaultValue, int fileTypeLength, boolean fieldIsUnique,
+                                            String fieldValues) {
+        CreateTableParam param = field(fieldName, fieldType, fieldLength, fieldDecimalLength, fieldIsNull, fieldIsKey,
+                fieldIsAutoIncrement, fieldDefaultValue, fileTypeLength, fieldIsUnique);
+        param.setFieldValues(fieldValues);
+        return param;
+    }
+
+    /**
+     * 构建索引定义
+     *
+     * @param name     索引名
+     * @param columns  索引字段
+     * @param lengths  每个字段的前缀长度，为空表示都是整个字段
+     * @param unique   是否唯一
+     * @param fulltext 是否全文索引
+     * @return 索引定义
+     */
+    protected static IndexParam index(String name, String[] columns, int[] lengths, boolean unique, boolean fulltext) {
+        return IndexTools.indexParam(name, columns, lengths, unique, fulltext);
+    }
+
+    /**
+     * 构建分区定义
+     *
+     * @param type       分区方式
+     * @param expression 分区表达式或字段
+     * @param count      HASH、KEY的分区数量
+     * @param ranges     范围分区每个分区的上界
+     * @param interval   滚动分区的周期
+     * @param ahead      滚动分区时提前创建的分区数
+     * @param retention  滚动分区时保留的分区数
+     * @return 分区定义
+     */
+    protected static PartitionParam partition(PartitionType type, String expression, int count, String[] ranges,
+                                              PartitionInterval interval, int ahead, int retention) {
+        return PartitionTools.partitionParam(type, expression, count, ranges, interval, ahead, retention);
+    }
+
+    /**
+     * 构建存储选项
+     *
+     * @param engine           表引擎，为空表示不指定
+     * @param rowFormat        行格式
+     * @param keyBlockSize     压缩页的大小，0表示不指定
+     * @param compression      透明页压缩的算法
+     * @param statsPersistent  是否持久化统计信息，-1表示不指定
+     * @param statsSamplePages 采样的页数，0表示不指定
+     * @return 存储选项
+     */
+    protected static TableOptionParam tableOption(String engine, RowFormat rowFormat, int keyBlockSize,
+                                                  PageCompression compression, int statsPersistent, int statsSamplePages) {
+        return TableOptionTools.tableOption(engine, rowFormat, keyBlockSize, compression, statsPersistent, statsSamplePages);
+    }
+}
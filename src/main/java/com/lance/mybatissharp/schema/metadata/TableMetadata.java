@@ -0,0 +1,65 @@
+package com.lance.mybatissharp.schema.metadata;
+
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.IndexParam;
+import com.lance.mybatissharp.schema.command.PartitionParam;
+import com.lance.mybatissharp.schema.command.TableOptionParam;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 实体的建表元数据，由mybatis-sharp-processor在编译期根据{@code @Table}、{@code @Column}、{@code @Index}、{@code @Partition}生成，运行时不需要反射
+ *
+ * @author Lance
+ */
+public interface TableMetadata {
+
+    /**
+     * 实体类
+     *
+     * @return 实体类
+     */
+    Class<?> getEntityClass();
+
+    /**
+     * 表名
+     *
+     * @return 表名
+     */
+    String getTableName();
+
+    /**
+     * 字段结构，包括父类中的字段，顺序与运行时反射解析的一致
+     *
+     * @return 每次调用返回新的列表，调用方可以修改
+     */
+    List<CreateTableParam> getFields();
+
+    /**
+     * 二级索引，包括父类上的{@code @Index}
+     *
+     * @return 每次调用返回新的列表，调用方可以修改
+     */
+    default List<IndexParam> getIndexes() {
+        return new ArrayList<>();
+    }
+
+    /**
+     * 分区定义
+     *
+     * @return 不分区时返回null
+     */
+    default PartitionParam getPartition() {
+        return null;
+    }
+
+    /**
+     * {@code @Table}中声明的存储选项
+     *
+     * @return 都没有声明时返回null
+     */
+    default TableOptionParam getTableOptions() {
+        return null;
+    }
+}
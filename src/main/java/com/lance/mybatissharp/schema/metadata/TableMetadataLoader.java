@@ -0,0 +1,29 @@
+package com.lance.mybatissharp.schema.metadata;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * 加载编译期生成的建表元数据
+ *
+ * @author Lance
+ */
+public class TableMetadataLoader {
+
+    /**
+     * 通过ServiceLoader加载所有注册表中的建表元数据
+     *
+     * @param classLoader 类加载器
+     * @return 实体类为key，建表元数据为value；没有生成元数据时返回空map
+     */
+    public static Map<Class<?>, TableMetadata> load(ClassLoader classLoader) {
+        Map<Class<?>, TableMetadata> metadataMap = new LinkedHashMap<>();
+        for (TableMetadataRegistry registry : ServiceLoader.load(TableMetadataRegistry.class, classLoader)) {
+            for (TableMetadata metadata : registry.getTableMetadata()) {
+                metadataMap.put(metadata.getEntityClass(), metadata);
+            }
+        }
+        return metadataMap;
+    }
+}
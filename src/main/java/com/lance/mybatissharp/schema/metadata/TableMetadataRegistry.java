@@ -0,0 +1,19 @@
+package com.lance.mybatissharp.schema.metadata;
+
+import java.util.List;
+
+/**
+ * 建表元数据注册表，由mybatis-sharp-processor为每个编译模块生成一个，并通过
+ * {@code META-INF/services/com.lance.mybatissharp.schema.metadata.TableMetadataRegistry}注册
+ *
+ * @author Lance
+ */
+public interface TableMetadataRegistry {
+
+    /**
+     * 该模块中所有实体的建表元数据
+     *
+     * @return 建表元数据
+     */
+    List<TableMetadata> getTableMetadata();
+}
@@ -0,0 +1,249 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.AlterTableParam;
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.SysMysqlColumns;
+import com.lance.mybatissharp.schema.command.TableOptionParam;
+import com.lance.mybatissharp.schema.constants.AlterAlgorithm;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按InnoDB的在线DDL规则，判断一条合并后的alter table语句能使用的最低代价算法
+ *
+ * @author Lance
+ */
+public class AlterAlgorithmTools {
+
+    /** 服务端不支持指定的ALGORITHM或LOCK */
+    private static final int ER_ALTER_OPERATION_NOT_SUPPORTED        = 1845;
+    private static final int ER_ALTER_OPERATION_NOT_SUPPORTED_REASON = 1846;
+
+    /** varchar长度字节数从1个变成2个的边界 */
+    private static final int VARCHAR_ONE_BYTE_LENGTH_MAX = 255;
+
+    /** enum存储字节数从1个变成2个的边界 */
+    private static final int ENUM_ONE_BYTE_VALUES_MAX = 255;
+
+    /** column_type中的长度或精度，例如varchar(50)、decimal(10,2) */
+    private static final Pattern TYPE_LENGTH = Pattern.compile("\\((\\d+)(?:,(\\d+))?\\)");
+
+    /**
+     * 判断整条语句需要的算法，取其中每个变更需要的算法的最大值
+     *
+     * @param alter         表的变更信息
+     * @param columnIndex   该表在库中的结构，小写字段名为key
+     * @param serverVersion 数据库版本，例如8.0.22
+     * @return 算法
+     */
+    public static AlterAlgorithm classify(AlterTableParam alter, Map<String, SysMysqlColumns> columnIndex,
+                                          String serverVersion) {
+        // 8.0.12开始支持INSTANT在末尾增加字段，8.0.29开始支持INSTANT删除字段
+        boolean instantAdd = versionAtLeast(serverVersion, 8, 0, 12);
+        boolean instantDrop = versionAtLeast(serverVersion, 8, 0, 29);
+        AlterAlgorithm metadataOnly = instantAdd ? AlterAlgorithm.INSTANT : AlterAlgorithm.INPLACE;
+
+        // 删除主键后没有新主键，需要复制整张表
+        AlterAlgorithm algorithm = alter.isDropPrimaryKey() ? AlterAlgorithm.COPY : AlterAlgorithm.INSTANT;
+
+        // 删除、增加二级索引都可以INPLACE，增加全文索引不能LOCK=NONE，在执行时处理
+        if (!alter.getDropUniqueFields().isEmpty() || !alter.getDropIndexes().isEmpty()
+                || !alter.getAddIndexes().isEmpty()) {
+            algorithm = algorithm.max(AlterAlgorithm.INPLACE);
+        }
+        if (!alter.getRemoveFields().isEmpty()) {
+            algorithm = algorithm.max(instantDrop ? AlterAlgorithm.INSTANT : AlterAlgorithm.INPLACE);
+        }
+        for (CreateTableParam field : alter.getAddFields()) {
+            if (field.isFieldIsAutoIncrement()) {
+                algorithm = algorithm.max(AlterAlgorithm.COPY);
+            } else if (field.isFieldIsKey() || field.isFieldIsUnique()) {
+                algorithm = algorithm.max(AlterAlgorithm.INPLACE);
+            } else {
+                // 新字段总是加在末尾
+                algorithm = algorithm.max(metadataOnly);
+            }
+        }
+        for (CreateTableParam field : alter.getModifyFields()) {
+            algorithm = algorithm.max(classifyModify(field, columnIndex.get(field.getFieldName().toLowerCase()), metadataOnly));
+        }
+
+        // 更换引擎需要复制整张表；行格式、压缩页大小INPLACE重建，统计信息、页压缩算法只修改元数据
+        TableOptionParam options = alter.getTableOptions();
+        if (options != null) {
+            algorithm = algorithm.max(options.getEngine() != null ? AlterAlgorithm.COPY : AlterAlgorithm.INPLACE);
+        }
+        return algorithm;
+    }
+
+    /**
+     * 判断修改单个字段需要的算法
+     */
+    private static AlterAlgorithm classifyModify(CreateTableParam field, SysMysqlColumns column, AlterAlgorithm metadataOnly) {
+        if (column == null) {
+            return AlterAlgorithm.COPY;
+        }
+        // 修改类型、增加自增需要复制整张表
+        if (!column.getData_type().equalsIgnoreCase(field.getFieldType())) {
+            return AlterAlgorithm.COPY;
+        }
+        if (field.isFieldIsAutoIncrement() && !"auto_increment".equalsIgnoreCase(column.getExtra())) {
+            return AlterAlgorithm.COPY;
+        }
+
+        AlterAlgorithm algorithm = metadataOnly;
+        // 整数的显示宽度不影响存储，只有显示宽度不同时不算修改长度
+        String columnType = ColumnTypeTools.normalizeType(column.getColumn_type());
+        if (field.getFileTypeLength() > 0
+                && !columnType.equalsIgnoreCase(ColumnTypeTools.normalizeType(ColumnTypeTools.columnType(field)))) {
+            algorithm = algorithm.max(classifyLengthChange(field, column, metadataOnly));
+        }
+        if (field.getFieldValues() != null
+                && !columnType.equalsIgnoreCase(ColumnTypeTools.columnType(field))) {
+            algorithm = algorithm.max(classifyValuesChange(field, column, metadataOnly));
+        }
+        boolean nullable = "YES".equals(column.getIs_nullable());
+        if (nullable != field.isFieldIsNull() && !field.isFieldIsKey()) {
+            algorithm = algorithm.max(AlterAlgorithm.INPLACE);
+        }
+        if ((field.isFieldIsKey() && !"PRI".equals(column.getColumn_key()))
+                || (field.isFieldIsUnique() && !"UNI".equals(column.getColumn_key()))) {
+            algorithm = algorithm.max(AlterAlgorithm.INPLACE);
+        }
+        return algorithm;
+    }
+
+    /**
+     * 整数只修改显示宽度（例如tinyint(1)与tinyint(4)）只修改元数据；
+     * varchar在长度字节数不变的范围内加长可以INPLACE，其他长度修改都需要复制整张表
+     */
+    private static AlterAlgorithm classifyLengthChange(CreateTableParam field, SysMysqlColumns column,
+                                                       AlterAlgorithm metadataOnly) {
+        if (ColumnTypeTools.isIntegerType(field.getFieldType())) {
+            return metadataOnly;
+        }
+        if (!"varchar".equalsIgnoreCase(field.getFieldType()) || column.getCharacter_maximum_length() == null) {
+            return AlterAlgorithm.COPY;
+        }
+        long oldLength = Long.parseLong(column.getCharacter_maximum_length());
+        long newLength = field.getFieldLength();
+        if (newLength < oldLength) {
+            return AlterAlgorithm.COPY;
+        }
+
+        long bytesPerChar = 1;
+        if (column.getCharacter_octet_length() != null && oldLength > 0) {
+            bytesPerChar = Math.max(1, Long.parseLong(column.getCharacter_octet_length()) / oldLength);
+        }
+        boolean oldOneByte = oldLength * bytesPerChar <= VARCHAR_ONE_BYTE_LENGTH_MAX;
+        boolean newOneByte = newLength * bytesPerChar <= VARCHAR_ONE_BYTE_LENGTH_MAX;
+        return oldOneByte == newOneByte ? AlterAlgorithm.INPLACE : AlterAlgorithm.COPY;
+    }
+
+    /**
+     * 只有在enum取值的末尾追加，并且存储字节数不变时只修改元数据，删除、调整顺序都需要复制整张表
+     */
+    private static AlterAlgorithm classifyValuesChange(CreateTableParam field, SysMysqlColumns column,
+                                                       AlterAlgorithm metadataOnly) {
+        String columnType = column.getColumn_type();
+        if (!columnType.toLowerCase().startsWith("enum(") || !columnType.endsWith(")")) {
+            return AlterAlgorithm.COPY;
+        }
+        String oldValues = columnType.substring("enum(".length(), columnType.length() - 1);
+        if (!field.getFieldValues().startsWith(oldValues + ",")) {
+            return AlterAlgorithm.COPY;
+        }
+        boolean oldOneByte = oldValues.split(",").length <= ENUM_ONE_BYTE_VALUES_MAX;
+        boolean newOneByte = field.getFieldValues().split(",").length <= ENUM_ONE_BYTE_VALUES_MAX;
+        return oldOneByte == newOneByte ? metadataOnly : AlterAlgorithm.COPY;
+    }
+
+    /**
+     * 判断修改字段是否可能丢失数据：修改类型、缩短长度、减小精度或小数位数、删除enum或set的取值。
+     * 这些修改复制数据时不符合新定义的值会被截断，整数只修改显示宽度不算
+     *
+     * @param field  修改后的字段
+     * @param column 该字段在库中的结构，为null时返回true
+     * @return 可能丢失数据时返回true
+     */
+    public static boolean isLossyModify(CreateTableParam field, SysMysqlColumns column) {
+        if (column == null || column.getData_type() == null
+                || !column.getData_type().equalsIgnoreCase(field.getFieldType())) {
+            return true;
+        }
+        String columnType = column.getColumn_type();
+        if (field.getFieldValues() != null) {
+            int start = columnType.indexOf('(');
+            if (start < 0 || !columnType.endsWith(")")) {
+                return true;
+            }
+            List<String> newValues = Arrays.asList(field.getFieldValues().split(","));
+            for (String value : columnType.substring(start + 1, columnType.length() - 1).split(",")) {
+                if (!newValues.contains(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        Matcher matcher = TYPE_LENGTH.matcher(columnType);
+        if (field.getFileTypeLength() == 0 || ColumnTypeTools.isIntegerType(field.getFieldType()) || !matcher.find()) {
+            return false;
+        }
+        long oldLength = Long.parseLong(matcher.group(1));
+        long oldDecimal = matcher.group(2) == null ? 0 : Long.parseLong(matcher.group(2));
+        if (field.getFileTypeLength() == 1) {
+            return field.getFieldLength() < oldLength;
+        }
+        return field.getFieldDecimalLength() < oldDecimal
+                || field.getFieldLength() - field.getFieldDecimalLength() < oldLength - oldDecimal;
+    }
+
+    /**
+     * 判断异常是否因为服务端不支持指定的ALGORITHM或LOCK
+     *
+     * @param e 执行alter table时的异常
+     * @return 不支持时返回true
+     */
+    public static boolean isAlgorithmRefused(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                int errorCode = ((SQLException) cause).getErrorCode();
+                if (errorCode == ER_ALTER_OPERATION_NOT_SUPPORTED || errorCode == ER_ALTER_OPERATION_NOT_SUPPORTED_REASON) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断数据库版本是否不低于指定版本
+     *
+     * @param version 数据库版本，例如8.0.22-log
+     * @return 无法解析时返回false
+     */
+    public static boolean versionAtLeast(String version, int major, int minor, int patch) {
+        if (version == null) {
+            return false;
+        }
+        int[] expected = {major, minor, patch};
+        String[] parts = version.split("[^0-9]+", 4);
+        for (int i = 0; i < expected.length; i++) {
+            int actual;
+            try {
+                actual = i < parts.length ? Integer.parseInt(parts[i]) : 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (actual != expected[i]) {
+                return actual > expected[i];
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,104 @@
+package com.lance.mybatissharp.schema.utils;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * 把多行写入拆分成多条语句，每条语句的估算大小不超过max_allowed_packet，占位符数量不超过服务端上限
+ *
+ * @author Lance
+ */
+public class BatchChunkTools {
+
+    /** 一条预编译语句最多的占位符数量 */
+    public static final int MAX_PLACEHOLDERS = 65535;
+
+    /** 每行的括号和分隔符 */
+    private static final int ROW_OVERHEAD   = 3;
+    /** 日期时间按'yyyy-MM-dd HH:mm:ss.SSSSSS'计算 */
+    private static final int DATE_BYTES     = 28;
+    /** 语句头（insert into、字段名等）之外预留的大小 */
+    private static final int PACKET_RESERVE = 1024;
+
+    /**
+     * 按大小和行数拆分
+     *
+     * @param items         需要写入的行
+     * @param columnCount   每行的占位符数量
+     * @param maxPacket     服务端的max_allowed_packet
+     * @param headerBytes   语句中与行数无关的部分的大小
+     * @param maxRows       每条语句最多的行数
+     * @param sizer         估算一行的大小
+     * @param <T>           行的类型
+     * @return 拆分后的每批，单行超过大小时单独成一批，由服务端报错
+     */
+    public static <T> List<List<T>> chunk(Collection<T> items, int columnCount, long maxPacket, long headerBytes,
+                                          int maxRows, ToLongFunction<T> sizer) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int rowsLimit = Math.max(1, Math.min(maxRows, MAX_PLACEHOLDERS / Math.max(1, columnCount)));
+        long bytesLimit = maxPacket - headerBytes - PACKET_RESERVE;
+
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> current = new ArrayList<>();
+        long currentBytes = 0;
+        for (T item : items) {
+            long itemBytes = sizer.applyAsLong(item) + ROW_OVERHEAD;
+            if (!current.isEmpty() && (current.size() >= rowsLimit || currentBytes + itemBytes > bytesLimit)) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(item);
+            currentBytes += itemBytes;
+        }
+        chunks.add(current);
+        return chunks;
+    }
+
+    /**
+     * 估算一行按指定字段写入时的大小
+     *
+     * @param row     字段名为key的行
+     * @param columns 字段名
+     * @return 字节数
+     */
+    public static long estimateRowBytes(Map<String, Object> row, List<String> columns) {
+        long bytes = 0;
+        for (String column : columns) {
+            bytes += estimateBytes(row.get(column)) + 1;
+        }
+        return bytes;
+    }
+
+    /**
+     * 估算一个值在语句中的大小，偏大估算
+     *
+     * @param value 值
+     * @return 字节数
+     */
+    public static long estimateBytes(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof byte[]) {
+            // 十六进制或转义，最多翻倍
+            return ((byte[]) value).length * 2L + 3;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString().length();
+        }
+        if (value instanceof Date || value instanceof Temporal) {
+            return DATE_BYTES;
+        }
+        // 字符串按每个字符最多3个UTF-8字节计算，不逐个编码，两边加引号
+        return value.toString().length() * 3L + 2;
+    }
+}
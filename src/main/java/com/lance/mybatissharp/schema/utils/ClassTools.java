@@ -28,7 +28,9 @@ public class ClassTools {
      *
      * @param pack 扫描的包
      * @return 该包下的class
+     * @deprecated 会加载包下所有的类，扫描实体类请使用{@link TableClassScanner}
      */
+    @Deprecated
     public static Set<Class<?>> getClasses(String pack) {
 
         // 第一个class类的集合
@@ -161,13 +163,22 @@ public class ClassTools {
 
     /**
      * 取出list对象中的某个属性的值作为list返回
+     *
+     * @deprecated 按属性名反射取值，属性改名后编译期无法发现，
+     * 请直接调用getter，例如{@code list.stream().map(TableModel::getTableName).collect(Collectors.toList())}
      */
+    @Deprecated
+    @SuppressWarnings("unchecked")
     public static <T, E> List<E> getPropertyValueList(List<T> objList, String fieldName) {
-        List<E> list = new ArrayList<E>();
+        List<E> list = new ArrayList<E>(objList.size());
         try {
+            // 同一个类的属性只反射查找一次
+            Field field = null;
             for (T object : objList) {
-                Field field = object.getClass().getDeclaredField(fieldName);
-                field.setAccessible(true);
+                if (field == null || field.getDeclaringClass() != object.getClass()) {
+                    field = object.getClass().getDeclaredField(fieldName);
+                    field.setAccessible(true);
+                }
                 list.add((E) field.get(object));
             }
         } catch (Exception e) {
@@ -0,0 +1,357 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.ColumnAdvice;
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.constants.MySqlTypeConstant;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按Java字段类型推断紧凑的数据库类型，估算字段占用的字节数，找出声明得过宽的字段
+ *
+ * @author Lance
+ */
+public class ColumnTypeTools {
+
+    /** decimal的最大精度 */
+    private static final int DECIMAL_PRECISION_MAX = 65;
+
+    /** decimal每9位数字占4个字节，不足9位的按位数占用的字节数 */
+    private static final int   DECIMAL_DIGITS_PER_GROUP = 9;
+    private static final int[] DECIMAL_LEFTOVER_BYTES   = {0, 1, 1, 2, 2, 3, 3, 4, 4};
+
+    /** enum取值超过255个时占2个字节 */
+    private static final int ENUM_ONE_BYTE_VALUES_MAX = 255;
+
+    /** 变长字段的内容超过255个字节时长度前缀占2个字节 */
+    private static final int VARCHAR_ONE_BYTE_LENGTH_MAX = 255;
+
+    /** Instant保留到毫秒 */
+    private static final int INSTANT_FRACTIONAL_DIGITS = 3;
+
+    private static final int UUID_BYTES = 16;
+
+    /** 整数类型 */
+    private static final String  INTEGER_TYPES         = "tinyint|smallint|mediumint|int|integer|bigint";
+    /** 带显示宽度的整数类型，例如int(11) unsigned */
+    private static final Pattern INTEGER_DISPLAY_WIDTH =
+            Pattern.compile("(" + INTEGER_TYPES + ")\\((\\d+)\\)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 按Java字段类型推断数据库类型，把类型、长度、小数位、长度个数和enum取值填入字段信息
+     * <ul>
+     *     <li>boolean：tinyint(1)，byte：tinyint，short：smallint，int：int，long：bigint，整数不指定显示宽度，
+     *     与MySQL 8.0.19起information_schema中的column_type一致</li>
+     *     <li>float、double：float、double，BigDecimal：decimal(length,decimalLength)</li>
+     *     <li>char：char(1)，String：varchar(length)，byte[]：varbinary(length)，UUID：binary(16)</li>
+     *     <li>Date、LocalDateTime：datetime，Instant：datetime(3)，LocalDate：date，LocalTime：time</li>
+     *     <li>枚举：enum('A','B')，取值是常量名，与MyBatis默认的EnumTypeHandler一致</li>
+     * </ul>
+     *
+     * @param javaType      Java类型的全名，基本类型为int等，数组为byte[]
+     * @param enumConstants 枚举的常量名，不是枚举时为空
+     * @param length        {@code @Column}中的长度
+     * @param decimalLength {@code @Column}中的小数位
+     * @param param         用于存推断出的类型
+     * @return 不支持该类型，或BigDecimal的长度超过65时返回false
+     */
+    public static boolean inferType(String javaType, List<String> enumConstants, int length, int decimalLength,
+                                    CreateTableParam param) {
+        param.setFieldValues(null);
+        if (enumConstants != null && !enumConstants.isEmpty()) {
+            StringBuilder values = new StringBuilder();
+            for (String constant : enumConstants) {
+                values.append(values.length() == 0 ? "" : ",").append('\'').append(constant).append('\'');
+            }
+            param.setFieldValues(values.toString());
+            return type(param, "enum", 0, 0, 0);
+        }
+        switch (javaType) {
+            case "boolean":
+            case "java.lang.Boolean":
+                return type(param, MySqlTypeConstant.TINYINT, 1, 1, 0);
+            case "byte":
+            case "java.lang.Byte":
+                return type(param, MySqlTypeConstant.TINYINT, 0, 0, 0);
+            case "short":
+            case "java.lang.Short":
+                return type(param, MySqlTypeConstant.SMALLINT, 0, 0, 0);
+            case "int":
+            case "java.lang.Integer":
+                return type(param, MySqlTypeConstant.INT, 0, 0, 0);
+            case "long":
+            case "java.lang.Long":
+                return type(param, MySqlTypeConstant.BIGINT, 0, 0, 0);
+            case "float":
+            case "java.lang.Float":
+                return type(param, MySqlTypeConstant.FLOAT, 0, 0, 0);
+            case "double":
+            case "java.lang.Double":
+                return type(param, MySqlTypeConstant.DOUBLE, 0, 0, 0);
+            case "java.math.BigDecimal":
+                if (length > DECIMAL_PRECISION_MAX || decimalLength > length) {
+                    return false;
+                }
+                return type(param, MySqlTypeConstant.DECIMAL, 2, length, decimalLength);
+            case "char":
+            case "java.lang.Character":
+                return type(param, MySqlTypeConstant.CHAR, 1, 1, 0);
+            case "java.lang.String":
+                return type(param, MySqlTypeConstant.VARCHAR, 1, length, 0);
+            case "byte[]":
+                return type(param, MySqlTypeConstant.VARBINARY, 1, length, 0);
+            case "java.util.UUID":
+                return type(param, MySqlTypeConstant.BINARY, 1, UUID_BYTES, 0);
+            case "java.util.Date":
+            case "java.time.LocalDateTime":
+                return type(param, MySqlTypeConstant.DATETIME, 0, 0, 0);
+            case "java.time.Instant":
+                return type(param, MySqlTypeConstant.DATETIME, 1, INSTANT_FRACTIONAL_DIGITS, 0);
+            case "java.time.LocalDate":
+                return type(param, MySqlTypeConstant.DATE, 0, 0, 0);
+            case "java.time.LocalTime":
+                return type(param, MySqlTypeConstant.TIME, 0, 0, 0);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 拼接字段的完整类型，与information_schema.columns中的column_type格式相同，例如varchar(64)、enum('A','B')
+     *
+     * @param param 字段信息
+     * @return 完整类型
+     */
+    public static String columnType(CreateTableParam param) {
+        if (param.getFieldValues() != null) {
+            return param.getFieldType() + "(" + param.getFieldValues() + ")";
+        }
+        if (param.getFileTypeLength() == 1) {
+            return param.getFieldType() + "(" + param.getFieldLength() + ")";
+        }
+        if (param.getFileTypeLength() == 2) {
+            return param.getFieldType() + "(" + param.getFieldLength() + "," + param.getFieldDecimalLength() + ")";
+        }
+        return param.getFieldType();
+    }
+
+    /**
+     * 去掉整数类型的显示宽度，例如int(11)为int，用于对比库中的类型与声明的类型。
+     * 显示宽度不影响存储，MySQL 8.0.19起column_type中不再包含；tinyint(1)保留，驱动按它映射为布尔
+     *
+     * @param columnType 完整类型
+     * @return 去掉显示宽度后的类型
+     */
+    public static String normalizeType(String columnType) {
+        Matcher matcher = INTEGER_DISPLAY_WIDTH.matcher(columnType);
+        if (!matcher.lookingAt()
+                || (MySqlTypeConstant.TINYINT.equalsIgnoreCase(matcher.group(1)) && "1".equals(matcher.group(2)))) {
+            return columnType;
+        }
+        return matcher.group(1) + columnType.substring(matcher.end());
+    }
+
+    /**
+     * 判断是否整数类型
+     *
+     * @param fieldType 不带长度的类型，例如int
+     * @return tinyint、smallint、mediumint、int、integer、bigint时返回true
+     */
+    public static boolean isIntegerType(String fieldType) {
+        return fieldType.toLowerCase().matches(INTEGER_TYPES);
+    }
+
+    /**
+     * 估算字段在一行中占用的字节数，字符按每个字符1个字节估算，变长字段按该Java类型最长的文本估算
+     *
+     * @param param         字段信息
+     * @param typicalLength 该字段的值转成文本后的长度，未知时为-1
+     * @return 无法估算时返回-1
+     */
+    public static int estimateBytes(CreateTableParam param, int typicalLength) {
+        int length = param.getFieldLength();
+        switch (param.getFieldType().toLowerCase()) {
+            case "tinyint":
+                return 1;
+            case "smallint":
+                return 2;
+            case "mediumint":
+            case "date":
+                return 3;
+            case "int":
+            case "float":
+                return 4;
+            case "bigint":
+            case "double":
+                return 8;
+            case "decimal":
+                return decimalBytes(length - param.getFieldDecimalLength()) + decimalBytes(param.getFieldDecimalLength());
+            case "time":
+                return 3 + fractionalBytes(param);
+            case "datetime":
+                return 5 + fractionalBytes(param);
+            case "timestamp":
+                return 4 + fractionalBytes(param);
+            case "enum":
+                return param.getFieldValues() != null
+                        && param.getFieldValues().split(",").length > ENUM_ONE_BYTE_VALUES_MAX ? 2 : 1;
+            case "char":
+            case "binary":
+                return length;
+            case "varchar":
+            case "varbinary":
+                return typicalLength < 0 ? -1 : Math.min(length, typicalLength) + lengthPrefix(length);
+            case "text":
+            case "blob":
+                return typicalLength < 0 ? -1 : typicalLength + 2;
+            case "mediumtext":
+                return typicalLength < 0 ? -1 : typicalLength + 3;
+            case "longtext":
+                return typicalLength < 0 ? -1 : typicalLength + 4;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * 对比声明的类型与按Java类型推断的类型，推断的类型更省空间时给出建议
+     *
+     * @param tableName     表名
+     * @param javaType      Java类型的全名
+     * @param enumConstants 枚举的常量名，不是枚举时为空
+     * @param declared      按{@code @Column}声明的字段信息
+     * @return 不需要修改或无法估算时返回null
+     */
+    public static ColumnAdvice advise(String tableName, String javaType, List<String> enumConstants,
+                                      CreateTableParam declared) {
+        CreateTableParam suggested = new CreateTableParam();
+        if (!inferType(javaType, enumConstants, declared.getFieldLength(), declared.getFieldDecimalLength(), suggested)) {
+            return null;
+        }
+        int typicalLength = typicalLength(javaType, enumConstants, declared.getFieldLength());
+        int declaredBytes = estimateBytes(declared, typicalLength);
+        int suggestedBytes = estimateBytes(suggested, typicalLength);
+        if (declaredBytes < 0 || suggestedBytes < 0 || suggestedBytes >= declaredBytes) {
+            return null;
+        }
+
+        ColumnAdvice advice = new ColumnAdvice();
+        advice.setTableName(tableName);
+        advice.setFieldName(declared.getFieldName());
+        advice.setJavaType(javaType);
+        advice.setDeclaredType(columnType(declared));
+        advice.setSuggestedType(columnType(suggested));
+        advice.setDeclaredBytes(declaredBytes);
+        advice.setSuggestedBytes(suggestedBytes);
+        return advice;
+    }
+
+    /**
+     * Java类型的全名，与注解处理器中得到的名称一致
+     *
+     * @param type 字段类型
+     * @return 全名，例如int、byte[]、java.lang.String
+     */
+    public static String javaTypeName(Class<?> type) {
+        return type.getCanonicalName() == null ? type.getName() : type.getCanonicalName();
+    }
+
+    /**
+     * 枚举的常量名
+     *
+     * @param type 字段类型
+     * @return 不是枚举时返回空
+     */
+    public static List<String> enumConstants(Class<?> type) {
+        if (!type.isEnum()) {
+            return Collections.emptyList();
+        }
+        List<String> constants = new ArrayList<>();
+        for (Object constant : type.getEnumConstants()) {
+            constants.add(((Enum<?>) constant).name());
+        }
+        return constants;
+    }
+
+    private static boolean type(CreateTableParam param, String type, int fileTypeLength, int length, int decimalLength) {
+        param.setFieldType(type);
+        param.setFileTypeLength(fileTypeLength);
+        param.setFieldLength(length);
+        param.setFieldDecimalLength(decimalLength);
+        return true;
+    }
+
+    /**
+     * 该Java类型的值转成文本后最长的长度，按文本存储时使用
+     *
+     * @return String、byte[]等无法确定时返回-1
+     */
+    private static int typicalLength(String javaType, List<String> enumConstants, int length) {
+        if (enumConstants != null && !enumConstants.isEmpty()) {
+            int max = 0;
+            for (String constant : enumConstants) {
+                max = Math.max(max, constant.length());
+            }
+            return max;
+        }
+        switch (javaType) {
+            case "boolean":
+            case "java.lang.Boolean":
+            case "char":
+            case "java.lang.Character":
+                return 1;
+            case "byte":
+            case "java.lang.Byte":
+                return 4;
+            case "short":
+            case "java.lang.Short":
+                return 6;
+            case "int":
+            case "java.lang.Integer":
+                return 11;
+            case "long":
+            case "java.lang.Long":
+                return 20;
+            case "java.math.BigDecimal":
+                return length + 2;
+            case "java.util.UUID":
+                return 36;
+            case "java.util.Date":
+            case "java.time.LocalDateTime":
+                return 19;
+            case "java.time.Instant":
+                return 24;
+            case "java.time.LocalDate":
+                return 10;
+            case "java.time.LocalTime":
+                return 8;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * decimal的整数部分或小数部分占用的字节数
+     */
+    private static int decimalBytes(int digits) {
+        if (digits <= 0) {
+            return 0;
+        }
+        return digits / DECIMAL_DIGITS_PER_GROUP * 4 + DECIMAL_LEFTOVER_BYTES[digits % DECIMAL_DIGITS_PER_GROUP];
+    }
+
+    /**
+     * time、datetime、timestamp的小数秒占用的字节数，每2位1个字节
+     */
+    private static int fractionalBytes(CreateTableParam param) {
+        return param.getFileTypeLength() == 1 ? (param.getFieldLength() + 1) / 2 : 0;
+    }
+
+    private static int lengthPrefix(int length) {
+        return length > VARCHAR_ONE_BYTE_LENGTH_MAX ? 2 : 1;
+    }
+}
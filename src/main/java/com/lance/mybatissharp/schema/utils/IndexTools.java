@@ -0,0 +1,151 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.IndexParam;
+import com.lance.mybatissharp.schema.command.SysMysqlStatistics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 构建索引定义，对比model中声明的索引与库中的索引
+ *
+ * @author Lance
+ */
+public class IndexTools {
+
+    /** 主键在information_schema.statistics中的索引名 */
+    public static final String PRIMARY_INDEX_NAME = "PRIMARY";
+
+    private static final String FULLTEXT_INDEX_TYPE = "FULLTEXT";
+
+    /**
+     * 按{@code @Index}的属性构建索引定义
+     *
+     * @param name     索引名
+     * @param columns  索引字段
+     * @param lengths  每个字段的前缀长度，为空表示都是整个字段
+     * @param unique   是否唯一
+     * @param fulltext 是否全文索引
+     * @return 索引定义
+     * @throws IllegalStateException 属性不合法时
+     */
+    public static IndexParam indexParam(String name, String[] columns, int[] lengths, boolean unique, boolean fulltext) {
+        if (name == null || name.isEmpty() || PRIMARY_INDEX_NAME.equalsIgnoreCase(name)) {
+            throw new IllegalStateException("索引名不能为空或PRIMARY：" + name);
+        }
+        if (columns.length == 0) {
+            throw new IllegalStateException("索引" + name + "没有字段");
+        }
+        if (lengths.length != 0 && lengths.length != columns.length) {
+            throw new IllegalStateException("索引" + name + "的前缀长度个数与字段个数不一致");
+        }
+        if (fulltext && (unique || lengths.length != 0)) {
+            throw new IllegalStateException("全文索引" + name + "不能是唯一索引或指定前缀长度");
+        }
+
+        IndexParam index = new IndexParam(name);
+        index.setUnique(unique);
+        index.setFulltext(fulltext);
+        for (int i = 0; i < columns.length; i++) {
+            index.addColumn(columns[i], lengths.length == 0 ? 0 : lengths[i]);
+        }
+        return index;
+    }
+
+    /**
+     * 把information_schema.statistics中同一张表的记录合并成索引定义，不包括主键
+     *
+     * @param statisticsList 该表的索引信息，按索引名、字段位置排序
+     * @return 小写索引名为key，按查询顺序排列
+     */
+    public static Map<String, IndexParam> existingIndexes(List<SysMysqlStatistics> statisticsList) {
+        Map<String, IndexParam> indexes = new LinkedHashMap<>();
+        if (statisticsList == null) {
+            return indexes;
+        }
+        for (SysMysqlStatistics statistics : statisticsList) {
+            if (PRIMARY_INDEX_NAME.equals(statistics.getIndex_name())) {
+                continue;
+            }
+            IndexParam index = indexes.computeIfAbsent(statistics.getIndex_name().toLowerCase(), k -> {
+                IndexParam param = new IndexParam(statistics.getIndex_name());
+                param.setUnique(statistics.getNon_unique() != null && statistics.getNon_unique() == 0);
+                param.setFulltext(FULLTEXT_INDEX_TYPE.equalsIgnoreCase(statistics.getIndex_type()));
+                return param;
+            });
+            index.addColumn(statistics.getColumn_name(), statistics.getSub_part() == null ? 0 : statistics.getSub_part());
+        }
+        return indexes;
+    }
+
+    /**
+     * 对比model中声明的索引与库中的索引：不存在的增加，定义不同的先删除再增加，
+     * 库中有但没有声明的只有dropUndeclared为true时删除
+     * <p>单字段唯一索引由{@code @Column(isUnique)}管理，没有声明时不删除</p>
+     *
+     * @param declared        model中声明的索引
+     * @param existingIndexes 库中的索引，小写索引名为key
+     * @param dropUndeclared  是否删除没有声明的索引
+     * @param addIndexes      用于存需要增加的索引
+     * @param dropIndexes     用于存需要删除的索引名
+     */
+    public static void diff(List<IndexParam> declared, Map<String, IndexParam> existingIndexes, boolean dropUndeclared,
+                            List<IndexParam> addIndexes, List<String> dropIndexes) {
+        Map<String, IndexParam> declaredMap = new LinkedHashMap<>();
+        for (IndexParam index : declared) {
+            declaredMap.put(index.getIndexName().toLowerCase(), index);
+        }
+
+        for (Map.Entry<String, IndexParam> entry : declaredMap.entrySet()) {
+            IndexParam existing = existingIndexes.get(entry.getKey());
+            if (existing == null) {
+                addIndexes.add(entry.getValue());
+            } else if (!sameDefinition(entry.getValue(), existing)) {
+                dropIndexes.add(existing.getIndexName());
+                addIndexes.add(entry.getValue());
+            }
+        }
+
+        if (dropUndeclared) {
+            for (Map.Entry<String, IndexParam> entry : existingIndexes.entrySet()) {
+                IndexParam existing = entry.getValue();
+                if (!declaredMap.containsKey(entry.getKey()) && !(existing.isUnique() && existing.getColumns().size() == 1)) {
+                    dropIndexes.add(existing.getIndexName());
+                }
+            }
+        }
+    }
+
+    /**
+     * 判断两个索引的字段、前缀长度、唯一和全文属性是否相同，字段名不区分大小写
+     */
+    public static boolean sameDefinition(IndexParam index, IndexParam other) {
+        if (index.isUnique() != other.isUnique() || index.isFulltext() != other.isFulltext()
+                || index.getColumns().size() != other.getColumns().size()) {
+            return false;
+        }
+        for (int i = 0; i < index.getColumns().size(); i++) {
+            if (!index.getColumns().get(i).equalsIgnoreCase(other.getColumns().get(i))
+                    || !index.getLengths().get(i).equals(other.getLengths().get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断是否包含全文索引，增加全文索引时不能指定LOCK=NONE
+     *
+     * @param indexes 索引
+     * @return 包含时返回true
+     */
+    public static boolean hasFulltext(List<IndexParam> indexes) {
+        for (IndexParam index : indexes) {
+            if (index.isFulltext()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,338 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.PartitionParam;
+import com.lance.mybatissharp.schema.command.SysMysqlPartitions;
+import com.lance.mybatissharp.schema.command.TableModel;
+import com.lance.mybatissharp.schema.command.TablePlan;
+import com.lance.mybatissharp.schema.constants.PartitionInterval;
+import com.lance.mybatissharp.schema.constants.PartitionType;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * 构建分区定义，对比model中声明的分区与库中的分区，计算滚动分区需要增加和删除的分区
+ *
+ * @author Lance
+ */
+public class PartitionTools {
+
+    private static final String MAXVALUE = "MAXVALUE";
+
+    /** 日期的长度，例如2026-10-18 */
+    private static final int DATE_LENGTH = 10;
+
+    /** 范围分区上界中的常量：数字、字符串、MAXVALUE、NULL，RANGE COLUMNS多个字段时用逗号分隔 */
+    private static final String  LITERAL      = "(-?\\d+(\\.\\d+)?|'([^']|'')*'|(?i:maxvalue)|(?i:null))";
+    private static final Pattern LITERAL_LIST = Pattern.compile(LITERAL + "(\\s*,\\s*" + LITERAL + ")*");
+
+    /**
+     * 按{@code @Partition}的属性构建分区定义，固定范围的分区按顺序命名为p0、p1……，MAXVALUE命名为pmax
+     *
+     * @param type       分区方式
+     * @param expression 分区表达式或字段
+     * @param count      HASH、KEY的分区数量
+     * @param ranges     范围分区每个分区的上界
+     * @param interval   滚动分区的周期
+     * @param ahead      滚动分区时提前创建的分区数
+     * @param retention  滚动分区时保留的分区数
+     * @return 分区定义
+     * @throws IllegalStateException 属性不合法时
+     */
+    public static PartitionParam partitionParam(PartitionType type, String expression, int count, String[] ranges,
+                                                PartitionInterval interval, int ahead, int retention) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalStateException("分区表达式不能为空");
+        }
+        boolean rolling = interval != PartitionInterval.NONE;
+        if (!type.isRange() && (count <= 0 || ranges.length > 0 || rolling)) {
+            throw new IllegalStateException(type + "分区必须指定分区数量，不能指定范围或滚动周期");
+        }
+        if (type.isRange() && (count > 0 || rolling == (ranges.length > 0))) {
+            throw new IllegalStateException(type + "分区必须指定范围或滚动周期中的一个，不能指定分区数量");
+        }
+        if (rolling && (type != PartitionType.RANGE_COLUMNS || ahead < 1 || retention < 0)) {
+            throw new IllegalStateException("滚动分区必须使用RANGE_COLUMNS，并且ahead不小于1、retention不小于0");
+        }
+
+        PartitionParam partition = new PartitionParam();
+        partition.setType(type);
+        partition.setExpression(expression.trim());
+        partition.setCount(count);
+        partition.setInterval(interval);
+        partition.setAhead(ahead);
+        partition.setRetention(retention);
+        for (int i = 0; i < ranges.length; i++) {
+            partition.addRange(MAXVALUE.equalsIgnoreCase(ranges[i].trim()) ? "pmax" : "p" + i, ranges[i].trim());
+        }
+        return partition;
+    }
+
+    /**
+     * 把information_schema.partitions中同一张表的记录合并成分区定义
+     *
+     * @param partitionsList 该表的分区信息，按分区位置排序
+     * @return 没有分区时返回null，不支持的分区方式type为null
+     */
+    public static PartitionParam existingPartition(List<SysMysqlPartitions> partitionsList) {
+        if (partitionsList == null || partitionsList.isEmpty() || partitionsList.get(0).getPartition_name() == null) {
+            return null;
+        }
+        SysMysqlPartitions first = partitionsList.get(0);
+        PartitionParam partition = new PartitionParam();
+        partition.setType(PartitionType.of(first.getPartition_method()));
+        partition.setExpression(first.getPartition_expression());
+        for (SysMysqlPartitions partitions : partitionsList) {
+            // 有子分区时每个子分区一行
+            if (partition.getNames().contains(partitions.getPartition_name())) {
+                continue;
+            }
+            partition.addRange(partitions.getPartition_name(), partitions.getPartition_description());
+        }
+        if (partition.getType() != null && !partition.getType().isRange()) {
+            partition.setCount(partition.getNames().size());
+            partition.getNames().clear();
+            partition.getRanges().clear();
+        }
+        return partition;
+    }
+
+    /**
+     * 建表或重新分区时使用的分区定义，滚动分区按当前日期生成从当前周期开始的ahead + 1个分区，
+     * 第一个分区同时容纳更早的数据
+     *
+     * @param declared model中声明的分区
+     * @param today    当前日期
+     * @return 分区定义
+     */
+    public static PartitionParam layout(PartitionParam declared, LocalDate today) {
+        if (!declared.isRolling()) {
+            return declared;
+        }
+        PartitionParam partition = copyWithoutRanges(declared);
+        PartitionInterval interval = declared.getInterval();
+        LocalDate current = interval.start(today);
+        for (int i = 0; i <= declared.getAhead(); i++) {
+            LocalDate start = interval.plus(current, i);
+            partition.addRange(interval.partitionName(start), quote(interval.next(start)));
+        }
+        return partition;
+    }
+
+    /**
+     * 对比model中声明的分区与库中的分区，把需要的变更放入该表的计划
+     * <ul>
+     *     <li>没有声明、库中有分区：取消分区</li>
+     *     <li>分区方式、表达式、数量不同，或固定范围不是在原有范围后追加：重新分区</li>
+     *     <li>固定范围在原有范围后追加：增加分区</li>
+     *     <li>滚动分区：增加到当前周期之后ahead个周期，删除超过保留周期的分区</li>
+     * </ul>
+     *
+     * @param declared  model中声明的分区，没有声明时为null
+     * @param existing  库中的分区，没有分区时为null
+     * @param today     当前日期
+     * @param tablePlan 该表的迁移计划
+     */
+    public static void diff(PartitionParam declared, PartitionParam existing, LocalDate today, TablePlan tablePlan) {
+        if (declared == null) {
+            tablePlan.setRemovePartitioning(existing != null);
+            return;
+        }
+        if (existing == null || declared.getType() != existing.getType()
+                || !normalize(declared.getExpression()).equals(normalize(existing.getExpression()))) {
+            repartition(declared, today, tablePlan);
+            return;
+        }
+
+        if (declared.isRolling()) {
+            if (!roll(declared, existing, today, tablePlan)) {
+                repartition(declared, today, tablePlan);
+            }
+        } else if (!declared.getType().isRange()) {
+            if (declared.getCount() != existing.getCount()) {
+                repartition(declared, today, tablePlan);
+            }
+        } else if (!appendRanges(declared, existing, tablePlan)) {
+            repartition(declared, today, tablePlan);
+        }
+    }
+
+    /**
+     * 把声明中不是常量的范围上界换成计算后的值，库中的PARTITION_DESCRIPTION是计算后的值，
+     * 例如to_days('2024-01-01')为739251，直接按文本对比会每次都重新分区
+     *
+     * @param declared  model中声明的分区，没有声明时为null
+     * @param evaluator 计算表达式的值，例如在数据库中执行select
+     * @return 上界都是常量时返回declared本身，否则返回换成计算后的值的副本
+     * @throws IllegalStateException 表达式的计算结果为null时
+     */
+    public static PartitionParam evaluateRanges(PartitionParam declared, Function<String, String> evaluator) {
+        if (declared == null || isLiteral(declared.getRanges())) {
+            return declared;
+        }
+        PartitionParam partition = copyWithoutRanges(declared);
+        for (int i = 0; i < declared.getRanges().size(); i++) {
+            String range = declared.getRanges().get(i);
+            String value = isLiteral(Collections.singletonList(range)) ? range : evaluator.apply(range);
+            if (value == null) {
+                throw new IllegalStateException("分区上界" + range + "的计算结果为null");
+            }
+            partition.addRange(declared.getNames().get(i), value);
+        }
+        return partition;
+    }
+
+    /**
+     * 计算滚动分区需要增加和删除的分区
+     *
+     * @param declared  model中声明的滚动分区
+     * @param existing  库中的分区
+     * @param today     当前日期
+     * @param tablePlan 该表的迁移计划
+     * @return 库中的分区不是按日期的RANGE COLUMNS分区，或最后一个分区是MAXVALUE时返回false
+     */
+    public static boolean roll(PartitionParam declared, PartitionParam existing, LocalDate today, TablePlan tablePlan) {
+        if (existing.getType() != PartitionType.RANGE_COLUMNS || existing.getRanges().isEmpty()
+                || !normalize(declared.getExpression()).equals(normalize(existing.getExpression()))) {
+            return false;
+        }
+        LocalDate last = parseDate(existing.getRanges().get(existing.getRanges().size() - 1));
+        if (last == null) {
+            return false;
+        }
+
+        // 提前创建到当前周期之后ahead个周期
+        PartitionInterval interval = declared.getInterval();
+        LocalDate current = interval.start(today);
+        LocalDate until = interval.next(interval.plus(current, declared.getAhead()));
+        PartitionParam addPartitions = copyWithoutRanges(declared);
+        for (LocalDate lessThan = last; lessThan.isBefore(until); ) {
+            LocalDate start = lessThan;
+            lessThan = interval.next(start);
+            addPartitions.addRange(interval.partitionName(start), quote(lessThan));
+        }
+        if (!addPartitions.getRanges().isEmpty()) {
+            tablePlan.setAddPartitions(addPartitions);
+        }
+
+        // 上界不晚于保留周期开始日期的分区中只有更早的数据
+        if (declared.getRetention() > 0) {
+            LocalDate cutoff = interval.plus(current, -declared.getRetention());
+            for (int i = 0; i < existing.getRanges().size(); i++) {
+                LocalDate lessThan = parseDate(existing.getRanges().get(i));
+                if (lessThan != null && !lessThan.isAfter(cutoff)) {
+                    tablePlan.getDropPartitions().add(existing.getNames().get(i));
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断是否有滚动分区，结构指纹不变时仍需要按日期维护
+     *
+     * @param tableModels model中声明的各表结构
+     * @return 有滚动分区时返回true
+     */
+    public static boolean hasRolling(Collection<TableModel> tableModels) {
+        for (TableModel tableModel : tableModels) {
+            if (tableModel.getPartition() != null && tableModel.getPartition().isRolling()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 声明的固定范围以库中的范围开头时，追加之后的范围
+     *
+     * @return 不能追加时返回false
+     */
+    private static boolean appendRanges(PartitionParam declared, PartitionParam existing, TablePlan tablePlan) {
+        List<String> declaredRanges = declared.getRanges();
+        List<String> existingRanges = existing.getRanges();
+        if (declaredRanges.size() < existingRanges.size()) {
+            return false;
+        }
+        for (int i = 0; i < existingRanges.size(); i++) {
+            if (!normalize(declaredRanges.get(i)).equals(normalize(existingRanges.get(i)))) {
+                return false;
+            }
+        }
+        if (declaredRanges.size() == existingRanges.size()) {
+            return true;
+        }
+        if (!existingRanges.isEmpty() && MAXVALUE.equalsIgnoreCase(existingRanges.get(existingRanges.size() - 1))) {
+            return false;
+        }
+
+        PartitionParam addPartitions = copyWithoutRanges(declared);
+        for (int i = existingRanges.size(); i < declaredRanges.size(); i++) {
+            String name = declared.getNames().get(i);
+            if (existing.getNames().contains(name)) {
+                return false;
+            }
+            addPartitions.addRange(name, declaredRanges.get(i));
+        }
+        tablePlan.setAddPartitions(addPartitions);
+        return true;
+    }
+
+    private static void repartition(PartitionParam declared, LocalDate today, TablePlan tablePlan) {
+        tablePlan.setPartition(layout(declared, today));
+        tablePlan.setRepartition(true);
+    }
+
+    private static PartitionParam copyWithoutRanges(PartitionParam declared) {
+        PartitionParam partition = new PartitionParam();
+        partition.setType(declared.getType());
+        partition.setExpression(declared.getExpression());
+        partition.setCount(declared.getCount());
+        partition.setInterval(declared.getInterval());
+        partition.setAhead(declared.getAhead());
+        partition.setRetention(declared.getRetention());
+        return partition;
+    }
+
+    /**
+     * 去掉反引号和空白，转成小写，information_schema中的表达式会给字段名加上反引号
+     */
+    private static String normalize(String expression) {
+        return expression == null ? "" : expression.replace("`", "").replaceAll("\\s+", "").toLowerCase();
+    }
+
+    private static boolean isLiteral(List<String> ranges) {
+        for (String range : ranges) {
+            if (!LITERAL_LIST.matcher(range.trim()).matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String quote(LocalDate date) {
+        return "'" + date + "'";
+    }
+
+    /**
+     * 解析范围分区的日期上界，例如'2026-11-01'、'2026-11-01 00:00:00'
+     *
+     * @return 不是日期时返回null
+     */
+    private static LocalDate parseDate(String lessThan) {
+        String value = lessThan.replace("'", "").trim();
+        if (value.length() < DATE_LENGTH) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.substring(0, DATE_LENGTH));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.IndexParam;
+import com.lance.mybatissharp.schema.command.TableModel;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 计算实体结构指纹
+ *
+ * @author Lance
+ */
+public class SchemaFingerprintTools {
+
+    /**
+     * 指纹格式版本，参与对比的model属性或配置有变化时需要升级
+     */
+    private static final String FINGERPRINT_VERSION = "6";
+
+    /**
+     * 按名称排序后拼接影响对比结果的配置，再按表名排序后拼接所有model的字段属性、声明的索引、分区和存储选项，
+     * 计算SHA-256
+     *
+     * @param tableModels  model中声明的各表结构
+     * @param diffSettings 影响对比结果的配置，配置名为key，例如indexDropEnabled
+     * @return 十六进制的指纹
+     */
+    public static String fingerprint(Collection<TableModel> tableModels, Map<String, ?> diffSettings) {
+        Map<String, TableModel> sortedModels = new TreeMap<>();
+        for (TableModel tableModel : tableModels) {
+            sortedModels.put(tableModel.getTableName(), tableModel);
+        }
+        StringBuilder sb = new StringBuilder(FINGERPRINT_VERSION);
+        for (Map.Entry<String, ?> setting : new TreeMap<>(diffSettings).entrySet()) {
+            sb.append('&').append(setting.getKey()).append('=').append(setting.getValue());
+        }
+        for (TableModel tableModel : sortedModels.values()) {
+            sb.append('\n').append(tableModel.getTableName());
+            for (CreateTableParam param : tableModel.getFields()) {
+                sb.append('|').append(param.getFieldName())
+                        .append(',').append(param.getFieldType())
+                        .append(',').append(param.getFieldLength())
+                        .append(',').append(param.getFieldDecimalLength())
+                        .append(',').append(param.isFieldIsNull())
+                        .append(',').append(param.isFieldIsKey())
+                        .append(',').append(param.isFieldIsAutoIncrement())
+                        .append(',').append(param.getFieldDefaultValue())
+                        .append(',').append(param.isFieldIsUnique())
+                        .append(',').append(param.getFieldValues());
+            }
+            for (IndexParam index : tableModel.getIndexes()) {
+                sb.append('#').append(index);
+            }
+            if (tableModel.getPartition() != null) {
+                sb.append('@').append(tableModel.getPartition());
+            }
+            if (tableModel.getTableOptions() != null) {
+                sb.append('$').append(tableModel.getTableOptions());
+            }
+        }
+        return sha256Hex(sb.toString());
+    }
+
+    /**
+     * 计算文本的SHA-256，十六进制小写
+     *
+     * @param text 文本
+     * @return 64位十六进制字符串
+     */
+    public static String sha256Hex(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持SHA-256", e);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.annotation.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+/**
+ * 扫描包下打了{@code @Table}的实体类
+ * <p>读取编译期由mybatis-sharp-processor生成的{@value #INDEX_FILE}索引文件；没有索引文件的jar或目录直接解析class文件的字节，
+ * 两者合并。只加载实体类，不加载（也不初始化）包下的其他类。jar中的class并行解析</p>
+ * <p>{@code @Table}可以被继承，但只能识别父类也在扫描范围内的情况</p>
+ *
+ * @author Lance
+ */
+public class TableClassScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableClassScanner.class);
+
+    /** 实体类索引文件，每行一个类名 */
+    public static final String INDEX_FILE = "META-INF/mybatis-sharp.idx";
+
+    private static final String TABLE_DESCRIPTOR = "L" + Table.class.getName().replace('.', '/') + ";";
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final ClassLoader classLoader;
+
+    public TableClassScanner() {
+        this(Thread.currentThread().getContextClassLoader());
+    }
+
+    public TableClassScanner(ClassLoader classLoader) {
+        this.classLoader = classLoader != null ? classLoader : TableClassScanner.class.getClassLoader();
+    }
+
+    /**
+     * 扫描包下打了{@code @Table}的实体类
+     *
+     * @param pack 扫描的包
+     * @return 该包（包括子包）下的实体类
+     */
+    public Set<Class<?>> scan(String pack) {
+        String packagePrefix = pack.isEmpty() ? "" : pack + ".";
+
+        // 1. 读取所有索引文件中属于该包的类
+        Set<String> classNames = readIndex(packagePrefix);
+
+        // 2. 没有索引文件的classpath根目录或jar解析class文件，例如没有使用mybatis-sharp-processor编译的模块
+        Map<String, ClassFileInfo> classInfoMap = new TreeMap<>();
+        String packageDirName = pack.replace('.', '/');
+        int indexedRoots = 0;
+        int scannedRoots = 0;
+        try {
+            Enumeration<URL> dirs = classLoader.getResources(packageDirName);
+            while (dirs.hasMoreElements()) {
+                URL url = dirs.nextElement();
+                String protocol = url.getProtocol();
+                if ("file".equals(protocol)) {
+                    File dir = new File(URLDecoder.decode(url.getFile(), "UTF-8"));
+                    String path = dir.getPath();
+                    File root = new File(path.substring(0, path.length() - packageDirName.length()));
+                    if (new File(root, INDEX_FILE).isFile()) {
+                        indexedRoots++;
+                        continue;
+                    }
+                    scanDirectory(dir, classInfoMap);
+                    scannedRoots++;
+                } else if ("jar".equals(protocol)) {
+                    JarFile jar = ((JarURLConnection) url.openConnection()).getJarFile();
+                    if (jar.getJarEntry(INDEX_FILE) != null) {
+                        indexedRoots++;
+                        continue;
+                    }
+                    scanJar(jar, packageDirName + "/", classInfoMap);
+                    scannedRoots++;
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("扫描包" + pack + "失败", e);
+        }
+
+        int indexedCount = classNames.size();
+        for (ClassFileInfo info : classInfoMap.values()) {
+            if (isTable(info, classInfoMap) && info.className.startsWith(packagePrefix)) {
+                classNames.add(info.className);
+            }
+        }
+        logger.info("包" + pack + "下从" + INDEX_FILE + "中读取到实体类" + indexedCount + "个（" + indexedRoots
+                + "个位置有索引），解析" + scannedRoots + "个位置的class" + classInfoMap.size() + "个，共" + classNames.size()
+                + "个实体类");
+        return loadClasses(classNames);
+    }
+
+    /**
+     * 读取所有索引文件中属于该包的类名，索引文件只列出所在jar或目录中的类
+     *
+     * @return 没有索引文件时返回空
+     */
+    private Set<String> readIndex(String packagePrefix) {
+        Set<String> classNames = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> indexes = classLoader.getResources(INDEX_FILE);
+            while (indexes.hasMoreElements()) {
+                URL url = indexes.nextElement();
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty() && !line.startsWith("#") && line.startsWith(packagePrefix)) {
+                            classNames.add(line);
+                        }
+                    }
+                }
+            }
+            return classNames;
+        } catch (IOException e) {
+            throw new IllegalStateException("读取" + INDEX_FILE + "失败", e);
+        }
+    }
+
+    private void scanDirectory(File dir, Map<String, ClassFileInfo> classInfoMap) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                scanDirectory(file, classInfoMap);
+            } else if (file.getName().endsWith(CLASS_SUFFIX)) {
+                ClassFileInfo info = ClassFileInfo.parse(Files.readAllBytes(file.toPath()));
+                classInfoMap.put(info.className, info);
+            }
+        }
+    }
+
+    private void scanJar(JarFile jar, String packageDirPrefix, Map<String, ClassFileInfo> classInfoMap) {
+        List<JarEntry> entries = new ArrayList<>();
+        for (JarEntry entry : Collections.list(jar.entries())) {
+            String name = entry.getName();
+            if (name.charAt(0) == '/') {
+                name = name.substring(1);
+            }
+            if (!entry.isDirectory() && name.endsWith(CLASS_SUFFIX) && name.startsWith(packageDirPrefix)) {
+                entries.add(entry);
+            }
+        }
+
+        // jar中的class并行读取、解析
+        List<ClassFileInfo> infos = entries.parallelStream().map(entry -> {
+            try (InputStream in = jar.getInputStream(entry)) {
+                return ClassFileInfo.parse(readAll(in));
+            } catch (IOException e) {
+                throw new IllegalStateException("读取" + jar.getName() + "中的" + entry.getName() + "失败", e);
+            }
+        }).collect(Collectors.toList());
+        for (ClassFileInfo info : infos) {
+            classInfoMap.put(info.className, info);
+        }
+    }
+
+    /**
+     * 本类或扫描范围内的父类打了{@code @Table}
+     */
+    private boolean isTable(ClassFileInfo info, Map<String, ClassFileInfo> classInfoMap) {
+        for (ClassFileInfo clas = info; clas != null; clas = classInfoMap.get(clas.superClassName)) {
+            if (clas.table) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 加载类但不初始化，不会执行static代码块
+     */
+    private Set<Class<?>> loadClasses(Set<String> classNames) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (String className : classNames) {
+            try {
+                classes.add(Class.forName(className, false, classLoader));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("加载实体类" + className + "失败", e);
+            }
+        }
+        return classes;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 从class文件字节中解析出的类名、父类名以及是否打了{@code @Table}
+     */
+    private static class ClassFileInfo {
+
+        private String  className;
+        private String  superClassName;
+        private boolean table;
+
+        /**
+         * 按JVM规范解析class文件，只读取常量池、类名、父类名和类上的RuntimeVisibleAnnotations
+         */
+        static ClassFileInfo parse(byte[] bytes) {
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            if (buf.getInt() != 0xCAFEBABE) {
+                throw new IllegalStateException("不是合法的class文件");
+            }
+            // minor_version、major_version
+            buf.getInt();
+
+            int constantPoolCount = buf.getShort() & 0xFFFF;
+            String[] utf8 = new String[constantPoolCount];
+            int[] classNameIndex = new int[constantPoolCount];
+            for (int i = 1; i < constantPoolCount; i++) {
+                int tag = buf.get() & 0xFF;
+                switch (tag) {
+                    case 1:
+                        utf8[i] = readUtf8(buf);
+                        break;
+                    case 7:
+                        classNameIndex[i] = buf.getShort() & 0xFFFF;
+                        break;
+                    case 8:
+                    case 16:
+                    case 19:
+                    case 20:
+                        skip(buf, 2);
+                        break;
+                    case 15:
+                        skip(buf, 3);
+                        break;
+                    case 3:
+                    case 4:
+                    case 9:
+                    case 10:
+                    case 11:
+                    case 12:
+                    case 17:
+                    case 18:
+                        skip(buf, 4);
+                        break;
+                    case 5:
+                    case 6:
+                        skip(buf, 8);
+                        // long和double占两个位置
+                        i++;
+                        break;
+                    default:
+                        throw new IllegalStateException("不支持的常量池类型：" + tag);
+                }
+            }
+
+            ClassFileInfo info = new ClassFileInfo();
+            // access_flags
+            skip(buf, 2);
+            info.className = utf8[classNameIndex[buf.getShort() & 0xFFFF]].replace('/', '.');
+            int superIndex = buf.getShort() & 0xFFFF;
+            info.superClassName = superIndex == 0 ? null : utf8[classNameIndex[superIndex]].replace('/', '.');
+            // interfaces
+            skip(buf, 2 * (buf.getShort() & 0xFFFF));
+            // fields、methods
+            for (int n = 0; n < 2; n++) {
+                int count = buf.getShort() & 0xFFFF;
+                for (int i = 0; i < count; i++) {
+                    skip(buf, 6);
+                    skipAttributes(buf);
+                }
+            }
+            // 类的attributes
+            int attributesCount = buf.getShort() & 0xFFFF;
+            for (int i = 0; i < attributesCount; i++) {
+                String name = utf8[buf.getShort() & 0xFFFF];
+                int length = buf.getInt();
+                if ("RuntimeVisibleAnnotations".equals(name)) {
+                    int end = buf.position() + length;
+                    int annotationsCount = buf.getShort() & 0xFFFF;
+                    for (int j = 0; j < annotationsCount && !info.table; j++) {
+                        info.table = TABLE_DESCRIPTOR.equals(utf8[buf.getShort() & 0xFFFF]);
+                        skipElementValuePairs(buf);
+                    }
+                    buf.position(end);
+                } else {
+                    skip(buf, length);
+                }
+            }
+            return info;
+        }
+
+        private static String readUtf8(ByteBuffer buf) {
+            int length = buf.getShort() & 0xFFFF;
+            char[] chars = new char[length];
+            int count = 0;
+            int end = buf.position() + length;
+            // modified UTF-8
+            while (buf.position() < end) {
+                int c = buf.get() & 0xFF;
+                if (c < 0x80) {
+                    chars[count++] = (char) c;
+                } else if ((c & 0xE0) == 0xC0) {
+                    chars[count++] = (char) (((c & 0x1F) << 6) | (buf.get() & 0x3F));
+                } else {
+                    chars[count++] = (char) (((c & 0x0F) << 12) | ((buf.get() & 0x3F) << 6) | (buf.get() & 0x3F));
+                }
+            }
+            return new String(chars, 0, count);
+        }
+
+        private static void skipAttributes(ByteBuffer buf) {
+            int count = buf.getShort() & 0xFFFF;
+            for (int i = 0; i < count; i++) {
+                skip(buf, 2);
+                skip(buf, buf.getInt());
+            }
+        }
+
+        private static void skipElementValuePairs(ByteBuffer buf) {
+            int count = buf.getShort() & 0xFFFF;
+            for (int i = 0; i < count; i++) {
+                skip(buf, 2);
+                skipElementValue(buf);
+            }
+        }
+
+        private static void skipElementValue(ByteBuffer buf) {
+            int tag = buf.get() & 0xFF;
+            switch (tag) {
+                case 'e':
+                    skip(buf, 4);
+                    break;
+                case '@':
+                    skip(buf, 2);
+                    skipElementValuePairs(buf);
+                    break;
+                case '[':
+                    int count = buf.getShort() & 0xFFFF;
+                    for (int i = 0; i < count; i++) {
+                        skipElementValue(buf);
+                    }
+                    break;
+                default:
+                    // 基本类型、String、Class
+                    skip(buf, 2);
+            }
+        }
+
+        private static void skip(ByteBuffer buf, int length) {
+            buf.position(buf.position() + length);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.SysMysqlTables;
+import com.lance.mybatissharp.schema.command.TableOptionParam;
+import com.lance.mybatissharp.schema.constants.PageCompression;
+import com.lance.mybatissharp.schema.constants.RowFormat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 构建表的存储选项，对比model中声明的选项与库中的选项
+ *
+ * @author Lance
+ */
+public class TableOptionTools {
+
+    /** 引擎名、字符集直接拼接到语句中，只允许字母、数字和下划线 */
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_]+");
+
+    private static final List<Integer> KEY_BLOCK_SIZES = Arrays.asList(1, 2, 4, 8, 16);
+
+    private static final int MAX_STATS_SAMPLE_PAGES = 65535;
+
+    /**
+     * 按{@code @Table}的属性构建存储选项
+     *
+     * @param engine           表引擎，为空表示不指定
+     * @param rowFormat        行格式
+     * @param keyBlockSize     压缩页的大小，0表示不指定
+     * @param compression      透明页压缩的算法
+     * @param statsPersistent  是否持久化统计信息，-1表示不指定
+     * @param statsSamplePages 采样的页数，0表示不指定
+     * @return 都没有指定时返回null
+     * @throws IllegalStateException 属性不合法时
+     */
+    public static TableOptionParam tableOption(String engine, RowFormat rowFormat, int keyBlockSize,
+                                               PageCompression compression, int statsPersistent, int statsSamplePages) {
+        if (keyBlockSize != 0 && !KEY_BLOCK_SIZES.contains(keyBlockSize)) {
+            throw new IllegalStateException("keyBlockSize只能是1、2、4、8、16：" + keyBlockSize);
+        }
+        if (keyBlockSize != 0 && rowFormat != RowFormat.DEFAULT && rowFormat != RowFormat.COMPRESSED) {
+            throw new IllegalStateException("指定keyBlockSize时行格式必须是COMPRESSED：" + rowFormat);
+        }
+        if (compression != PageCompression.DEFAULT && compression != PageCompression.NONE
+                && (rowFormat == RowFormat.COMPRESSED || keyBlockSize != 0)) {
+            throw new IllegalStateException("透明页压缩不能与ROW_FORMAT=COMPRESSED、keyBlockSize一起使用");
+        }
+        if (statsPersistent < -1 || statsPersistent > 1) {
+            throw new IllegalStateException("statsPersistent只能是-1、0、1：" + statsPersistent);
+        }
+        if (statsSamplePages < 0 || statsSamplePages > MAX_STATS_SAMPLE_PAGES) {
+            throw new IllegalStateException("statsSamplePages超出范围：" + statsSamplePages);
+        }
+
+        TableOptionParam options = new TableOptionParam();
+        options.setEngine(engine == null || engine.trim().isEmpty() ? null : checkName(engine.trim()));
+        options.setRowFormat(rowFormat == RowFormat.DEFAULT ? null : rowFormat.name());
+        options.setKeyBlockSize(keyBlockSize == 0 ? null : keyBlockSize);
+        options.setCompression(compression.getSql());
+        options.setStatsPersistent(statsPersistent == -1 ? null : statsPersistent);
+        options.setStatsSamplePages(statsSamplePages == 0 ? null : statsSamplePages);
+        return options.isEmpty() ? null : options;
+    }
+
+    /**
+     * 建表时使用的存储选项，没有声明引擎时使用全局配置的引擎，并加上全局配置的字符集
+     *
+     * @param declared       model中声明的选项，没有声明时为null
+     * @param defaultEngine  全局配置的引擎，可以为空
+     * @param defaultCharset 全局配置的字符集，可以为空
+     * @return 都没有指定时返回null
+     */
+    public static TableOptionParam createOptions(TableOptionParam declared, String defaultEngine, String defaultCharset) {
+        TableOptionParam options = copy(declared);
+        if (options.getEngine() == null && defaultEngine != null && !defaultEngine.trim().isEmpty()) {
+            options.setEngine(checkName(defaultEngine.trim()));
+        }
+        if (defaultCharset != null && !defaultCharset.trim().isEmpty()) {
+            options.setCharset(checkName(defaultCharset.trim()));
+        }
+        return options.isEmpty() ? null : options;
+    }
+
+    /**
+     * 从information_schema.tables中解析表的存储选项，create_options中没有的选项为null
+     *
+     * @param tableStatus 该表的状态，不存在时为null
+     * @return 表不存在时返回null
+     */
+    public static TableOptionParam existingOption(SysMysqlTables tableStatus) {
+        if (tableStatus == null) {
+            return null;
+        }
+        TableOptionParam options = new TableOptionParam();
+        options.setEngine(tableStatus.getEngine());
+        options.setRowFormat(tableStatus.getRow_format() == null ? null : tableStatus.getRow_format().toUpperCase());
+        if (tableStatus.getCreate_options() == null) {
+            return options;
+        }
+        for (String option : tableStatus.getCreate_options().trim().split("\\s+")) {
+            int equals = option.indexOf('=');
+            if (equals <= 0) {
+                continue;
+            }
+            String name = option.substring(0, equals).toLowerCase();
+            String value = option.substring(equals + 1).replace("\"", "").replace("'", "");
+            switch (name) {
+                case "key_block_size":
+                    options.setKeyBlockSize(parseInt(value));
+                    break;
+                case "compression":
+                    options.setCompression(value);
+                    break;
+                case "stats_persistent":
+                    options.setStatsPersistent(parseInt(value));
+                    break;
+                case "stats_sample_pages":
+                    options.setStatsSamplePages(parseInt(value));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return options;
+    }
+
+    /**
+     * 对比model中声明的选项与库中的选项，只对比声明了的选项
+     * <p>声明了COMPRESSED以外的行格式时，库中的KEY_BLOCK_SIZE一起取消，否则严格模式下修改会失败</p>
+     *
+     * @param declared model中声明的选项，没有声明时为null
+     * @param existing 库中的选项，表不存在时为null
+     * @return 需要修改的选项，不需要修改时返回null
+     */
+    public static TableOptionParam diff(TableOptionParam declared, TableOptionParam existing) {
+        if (declared == null || existing == null) {
+            return null;
+        }
+        TableOptionParam changes = new TableOptionParam();
+        if (declared.getEngine() != null && !declared.getEngine().equalsIgnoreCase(existing.getEngine())) {
+            changes.setEngine(declared.getEngine());
+        }
+        if (declared.getRowFormat() != null && !declared.getRowFormat().equalsIgnoreCase(existing.getRowFormat())) {
+            changes.setRowFormat(declared.getRowFormat());
+        }
+        int existingKeyBlockSize = existing.getKeyBlockSize() == null ? 0 : existing.getKeyBlockSize();
+        if (declared.getKeyBlockSize() != null && declared.getKeyBlockSize() != existingKeyBlockSize) {
+            changes.setKeyBlockSize(declared.getKeyBlockSize());
+        } else if (declared.getKeyBlockSize() == null && existingKeyBlockSize != 0 && declared.getRowFormat() != null
+                && !RowFormat.COMPRESSED.name().equals(declared.getRowFormat())) {
+            changes.setKeyBlockSize(0);
+        }
+        String existingCompression = existing.getCompression() == null ? PageCompression.NONE.getSql()
+                : existing.getCompression();
+        if (declared.getCompression() != null && !declared.getCompression().equalsIgnoreCase(existingCompression)) {
+            changes.setCompression(declared.getCompression());
+        }
+        if (declared.getStatsPersistent() != null
+                && !declared.getStatsPersistent().equals(existing.getStatsPersistent())) {
+            changes.setStatsPersistent(declared.getStatsPersistent());
+        }
+        if (declared.getStatsSamplePages() != null
+                && !declared.getStatsSamplePages().equals(existing.getStatsSamplePages())) {
+            changes.setStatsSamplePages(declared.getStatsSamplePages());
+        }
+        return changes.isEmpty() ? null : changes;
+    }
+
+    private static TableOptionParam copy(TableOptionParam declared) {
+        TableOptionParam options = new TableOptionParam();
+        if (declared != null) {
+            options.setEngine(declared.getEngine());
+            options.setCharset(declared.getCharset());
+            options.setRowFormat(declared.getRowFormat());
+            options.setKeyBlockSize(declared.getKeyBlockSize());
+            options.setCompression(declared.getCompression());
+            options.setStatsPersistent(declared.getStatsPersistent());
+            options.setStatsSamplePages(declared.getStatsSamplePages());
+        }
+        return options;
+    }
+
+    private static String checkName(String name) {
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalStateException("引擎名或字符集不合法：" + name);
+        }
+        return name;
+    }
+
+    private static Integer parseInt(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
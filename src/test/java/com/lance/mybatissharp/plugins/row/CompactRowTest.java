@@ -0,0 +1,74 @@
+package com.lance.mybatissharp.plugins.row;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author Lance
+ */
+class CompactRowTest {
+
+    @Test
+    public void testReadResultSet() throws Exception {
+        ResultSet resultSet = resultSet(new String[]{"id", "Name"}, new Object[][]{{1L, "a"}, {2L, "b"}});
+        CompactRowColumns columns = CompactRow.columnsOf(resultSet);
+        List<CompactRow> rows = new ArrayList<>();
+        while (resultSet.next()) {
+            rows.add(CompactRow.read(columns, resultSet));
+        }
+
+        assertEquals(2, rows.size());
+        assertSame(rows.get(0).getColumns(), rows.get(1).getColumns());
+        assertEquals(1L, rows.get(0).get("id"));
+        assertEquals("b", rows.get(1).get("name"));
+        assertEquals("b", rows.get(1).get(1));
+        assertNull(rows.get(1).get("missing"));
+        assertEquals("{id=2, Name=b}", rows.get(1).toMap().toString());
+    }
+
+    @Test
+    public void testDuplicateColumn() {
+        CompactRowColumns columns = new CompactRowColumns("id", "ID", "name");
+        assertEquals(0, columns.indexOf("id"));
+        assertEquals(0, columns.indexOf("Id"));
+        assertEquals(2, columns.indexOf("NAME"));
+        assertEquals(-1, columns.indexOf("missing"));
+    }
+
+    private static ResultSet resultSet(String[] labels, Object[][] rows) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return labels.length;
+                        case "getColumnLabel":
+                            return labels[(Integer) args[0] - 1];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return metaData;
+                        case "next":
+                            return ++cursor[0] < rows.length;
+                        case "getObject":
+                            return rows[cursor[0]][(Integer) args[0] - 1];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
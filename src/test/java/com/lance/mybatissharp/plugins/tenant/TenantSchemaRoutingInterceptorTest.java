@@ -0,0 +1,94 @@
+package com.lance.mybatissharp.plugins.tenant;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Lance
+ */
+class TenantSchemaRoutingInterceptorTest {
+
+    @Test
+    public void testSwitchCatalog() throws Throwable {
+        String[] tenantSchema = {"tenant_a"};
+        TenantSchemaRoutingInterceptor interceptor = new TenantSchemaRoutingInterceptor()
+                .setTenantSchemaHandler(new TenantSchemaHandler() {
+                    @Override
+                    public String getTenantSchema() {
+                        return tenantSchema[0];
+                    }
+
+                    @Override
+                    public boolean doTableFilter(String tableName) {
+                        return false;
+                    }
+                })
+                .setDefaultSchema("common");
+
+        List<String> setCatalogCalls = new ArrayList<>();
+        Connection connection = connection(setCatalogCalls);
+
+        interceptor.intercept(prepare(connection));
+        interceptor.intercept(prepare(connection));
+        tenantSchema[0] = "tenant_b";
+        interceptor.intercept(prepare(connection));
+        tenantSchema[0] = null;
+        interceptor.intercept(prepare(connection));
+
+        assertEquals(3, setCatalogCalls.size());
+        assertEquals("tenant_a", setCatalogCalls.get(0));
+        assertEquals("tenant_b", setCatalogCalls.get(1));
+        assertEquals("common", setCatalogCalls.get(2));
+    }
+
+    @Test
+    public void testCatalogChangedOutside() throws Throwable {
+        TenantSchemaRoutingInterceptor interceptor = new TenantSchemaRoutingInterceptor().setDefaultSchema("tenant_a");
+        List<String> setCatalogCalls = new ArrayList<>();
+        Connection connection = connection(setCatalogCalls);
+
+        interceptor.intercept(prepare(connection));
+        // 绕过拦截器切换了catalog，例如USE语句或连接池重置
+        connection.setCatalog("tenant_b");
+        interceptor.intercept(prepare(connection));
+
+        assertEquals(3, setCatalogCalls.size());
+        assertEquals("tenant_a", connection.getCatalog());
+    }
+
+    private static Connection connection(List<String> setCatalogCalls) {
+        String[] catalog = {null};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getCatalog":
+                            return catalog[0];
+                        case "setCatalog":
+                            catalog[0] = (String) args[0];
+                            setCatalogCalls.add(catalog[0]);
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static Invocation prepare(Connection connection) throws NoSuchMethodException {
+        StatementHandler statementHandler = (StatementHandler) Proxy.newProxyInstance(StatementHandler.class.getClassLoader(),
+                new Class<?>[]{StatementHandler.class}, (proxy, method, args) -> null);
+        return new Invocation(statementHandler, StatementHandler.class.getMethod("prepare", Connection.class, Integer.class),
+                new Object[]{connection, null});
+    }
+}
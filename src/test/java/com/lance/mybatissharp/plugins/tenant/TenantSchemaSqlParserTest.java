@@ -0,0 +1,179 @@
+package com.lance.mybatissharp.plugins.tenant;
+
+import com.lance.mybatissharp.metrics.SharpMetricNames;
+import com.lance.mybatissharp.metrics.SharpMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Lance
+ */
+class TenantSchemaSqlParserTest {
+
+    @Test
+    public void testAllTables() {
+        MutableTenantSchemaHandler handler = new MutableTenantSchemaHandler();
+        handler.schema = "s1";
+        TenantSchemaSqlParser parser = new TenantSchemaSqlParser().setTenantSchemaHandler(handler);
+
+        assertEquals("SELECT a.id FROM s1.t_a a LEFT JOIN s1.t_b b ON a.id = b.a_id AND b.c_id IN (SELECT id FROM s1.t_c)",
+                parser.parser(null, "select a.id from t_a a left join t_b b on a.id = b.a_id and b.c_id in (select id from t_c)").getSql());
+        assertEquals("SELECT * FROM (SELECT id FROM s1.t_a) t WHERE EXISTS (SELECT 1 FROM s1.t_b WHERE t_b.id = t.id)",
+                parser.parser(null, "select * from (select id from t_a) t where exists (select 1 from t_b where t_b.id = t.id)").getSql());
+        assertEquals("WITH w AS (SELECT id FROM s1.t_a) SELECT * FROM w JOIN s1.t_b ON w.id = t_b.id",
+                parser.parser(null, "with w as (select id from t_a) select * from w join t_b on w.id = t_b.id").getSql());
+        assertEquals("INSERT INTO s1.t_a (id) SELECT id FROM s1.t_b",
+                parser.parser(null, "insert into t_a (id) select id from t_b").getSql());
+        assertEquals("UPDATE s1.t_a a JOIN s1.t_b b ON a.id = b.id SET a.name = b.name",
+                parser.parser(null, "update t_a a join t_b b on a.id = b.id set a.name = b.name").getSql());
+        assertEquals("DELETE FROM s1.t_a WHERE id IN (SELECT a_id FROM s1.t_b)",
+                parser.parser(null, "delete from t_a where id in (select a_id from t_b)").getSql());
+    }
+
+    @Test
+    public void testRowValueIn() {
+        MutableTenantSchemaHandler handler = new MutableTenantSchemaHandler();
+        handler.schema = "s1";
+        TenantSchemaSqlParser parser = new TenantSchemaSqlParser().setTenantSchemaHandler(handler);
+
+        assertEquals("SELECT * FROM s1.t_a WHERE (x, y) IN ((1, 2), (3, 4))",
+                parser.parser(null, "select * from t_a where (x, y) in ((1, 2), (3, 4))").getSql());
+        assertEquals("SELECT * FROM s1.t_a WHERE (x, y) IN (SELECT x, y FROM s1.t_b)",
+                parser.parser(null, "select * from t_a where (x, y) in (select x, y from t_b)").getSql());
+    }
+
+    @Test
+    public void testTableFilter() {
+        MutableTenantSchemaHandler handler = new MutableTenantSchemaHandler();
+        handler.schema = "s1";
+        handler.ignoreTable = "t_common";
+        TenantSchemaSqlParser parser = new TenantSchemaSqlParser().setTenantSchemaHandler(handler);
+
+        String sql = "select * from t_a join t_common c on t_a.c_id = c.id join t_common d on t_a.d_id = d.id";
+        assertEquals("SELECT * FROM s1.t_a JOIN t_common c ON t_a.c_id = c.id JOIN t_common d ON t_a.d_id = d.id",
+                parser.parser(null, sql).getSql());
+        parser.parser(null, sql);
+        assertEquals(2, handler.filterCount);
+    }
+
+    @Test
+    public void testSqlCache() {
+        MutableTenantSchemaHandler handler = new MutableTenantSchemaHandler();
+        TenantSqlCache<String> sqlCache = new TenantSqlCache<>(16);
+        TenantSchemaSqlParser parser = new TenantSchemaSqlParser()
+                .setTenantSchemaHandler(handler)
+                .setSqlCache(sqlCache);
+
+        String sql = "select * from t_player where id = 1";
+        handler.schema = "tenant_a";
+        assertEquals("SELECT * FROM tenant_a.t_player WHERE id = 1", parser.parser(null, sql).getSql());
+        assertEquals("SELECT * FROM tenant_a.t_player WHERE id = 1", parser.parser(null, sql).getSql());
+        handler.schema = "tenant_b";
+        assertEquals("SELECT * FROM tenant_b.t_player WHERE id = 1", parser.parser(null, sql).getSql());
+
+        assertEquals(1, sqlCache.getHitCount());
+        assertEquals(2, sqlCache.getMissCount());
+        assertEquals(2, sqlCache.size());
+    }
+
+    @Test
+    public void testSqlCacheEviction() {
+        TenantSqlCache<String> sqlCache = new TenantSqlCache<>(1);
+        sqlCache.put("select 1", "tenant_a", "a");
+        sqlCache.put("select 1", "tenant_b", "b");
+
+        assertNull(sqlCache.get("select 1", "tenant_a"));
+        assertEquals("b", sqlCache.get("select 1", "tenant_b"));
+        assertEquals(1, sqlCache.getEvictionCount());
+    }
+
+    @Test
+    public void testTemplate() {
+        MutableTenantSchemaHandler handler = new MutableTenantSchemaHandler();
+        TenantSqlCache<TenantSqlTemplate> templateCache = new TenantSqlCache<>(16);
+        TenantSchemaSqlParser parser = new TenantSchemaSqlParser()
+                .setTenantSchemaHandler(handler)
+                .setTemplateCache(templateCache);
+
+        String sql = "select * from t_player where id = 1";
+        handler.schema = "tenant_a";
+        assertEquals("SELECT * FROM tenant_a.t_player WHERE id = 1", parser.parser(null, sql).getSql());
+        handler.schema = "tenant_b";
+        assertEquals("SELECT * FROM tenant_b.t_player WHERE id = 1", parser.parser(null, sql).getSql());
+        handler.schema = null;
+        assertEquals("SELECT * FROM t_player WHERE id = 1", parser.parser(null, sql).getSql());
+
+        assertEquals(2, templateCache.getHitCount());
+        assertEquals(1, templateCache.size());
+    }
+
+    @Test
+    public void testTemplateRender() {
+        TenantSqlTemplate template = TenantSqlTemplate.compile("INSERT INTO " + TenantSqlTemplate.SCHEMA_PLACEHOLDER
+                + ".t_a (id) VALUES (1); DELETE FROM " + TenantSqlTemplate.SCHEMA_PLACEHOLDER + ".t_b");
+
+        assertEquals(2, template.getSlotCount());
+        assertEquals("INSERT INTO s1.t_a (id) VALUES (1); DELETE FROM s1.t_b", template.render("s1"));
+        assertEquals("INSERT INTO t_a (id) VALUES (1); DELETE FROM t_b", template.render(""));
+    }
+
+    @Test
+    public void testMetrics() {
+        MutableTenantSchemaHandler handler = new MutableTenantSchemaHandler();
+        handler.schema = "tenant_a";
+        handler.ignoreTable = "t_common";
+        Map<String, Long> counters = new HashMap<>();
+        List<String> timers = new ArrayList<>();
+        TenantSchemaSqlParser parser = new TenantSchemaSqlParser()
+                .setTenantSchemaHandler(handler)
+                .setSqlCache(new TenantSqlCache<>(16))
+                .setMetrics(new SharpMetrics() {
+                    @Override
+                    public void recordTime(String name, long nanos, String... tags) {
+                        timers.add(name + Arrays.toString(tags));
+                    }
+
+                    @Override
+                    public void increment(String name, long amount, String... tags) {
+                        counters.merge(name + Arrays.toString(tags), amount, Long::sum);
+                    }
+                });
+
+        String sql = "select * from t_player p join t_common c on p.c_id = c.id";
+        parser.parser(null, sql);
+        parser.parser(null, sql);
+
+        assertEquals(1, timers.size());
+        assertEquals(SharpMetricNames.TENANT_PARSE + "[mode, rewrite]", timers.get(0));
+        assertEquals(1, counters.get(SharpMetricNames.TENANT_REWRITE + "[source, parsed]").longValue());
+        assertEquals(1, counters.get(SharpMetricNames.TENANT_REWRITE + "[source, sql_cache]").longValue());
+        assertEquals(1, counters.get(SharpMetricNames.TENANT_TABLE + "[result, qualified]").longValue());
+        assertEquals(1, counters.get(SharpMetricNames.TENANT_TABLE + "[result, filtered]").longValue());
+    }
+
+    private static class MutableTenantSchemaHandler implements TenantSchemaHandler {
+
+        private String schema;
+        private String ignoreTable;
+        private int    filterCount;
+
+        @Override
+        public String getTenantSchema() {
+            return schema;
+        }
+
+        @Override
+        public boolean doTableFilter(String tableName) {
+            filterCount++;
+            return tableName.equals(ignoreTable);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.lance.mybatissharp.schema;
+
+import com.lance.mybatissharp.schema.command.AlterTableParam;
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.IndexParam;
+import com.lance.mybatissharp.schema.command.SysMysqlColumns;
+import com.lance.mybatissharp.schema.dao.CreateMysqlTablesMapper;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Lance
+ */
+class OnlineTableMigratorTest {
+
+    private final OnlineTableMigrator migrator = new OnlineTableMigrator(mapper(), new MyBatisSchemaSettings());
+
+    /** 库中的表：id主键，code唯一，name允许为空 */
+    private final List<SysMysqlColumns> columns = Arrays.asList(
+            column("id", "PRI", "NO"), column("code", "UNI", "NO"), column("name", "", "YES"));
+
+    @Test
+    public void testSupports() {
+        AlterTableParam alter = new AlterTableParam("t_user");
+        alter.getAddFields().add(field("age", true, false, "NULL"));
+        alter.getAddFields().add(field("status", false, false, "0"));
+        alter.getModifyFields().add(field("code", false, true, "NULL"));
+        IndexParam index = new IndexParam("idx_name");
+        index.getColumns().add("name");
+        alter.getAddIndexes().add(index);
+        assertTrue(migrator.supports(alter, columns));
+    }
+
+    @Test
+    public void testPrimaryKey() {
+        assertFalse(migrator.supports(new AlterTableParam("t_user"), Arrays.asList(
+                column("id", "PRI", "NO"), column("tenant_id", "PRI", "NO"))));
+
+        AlterTableParam alter = new AlterTableParam("t_user");
+        alter.getModifyFields().add(field("id", false, false, "NULL"));
+        assertFalse(migrator.supports(alter, columns));
+    }
+
+    @Test
+    public void testUnique() {
+        // 新增唯一索引，复制时重复的行会被insert ignore丢弃
+        AlterTableParam alter = new AlterTableParam("t_user");
+        IndexParam index = new IndexParam("uk_name");
+        index.getColumns().add("name");
+        index.setUnique(true);
+        alter.getAddIndexes().add(index);
+        assertFalse(migrator.supports(alter, columns));
+
+        alter = new AlterTableParam("t_user");
+        alter.getAddFields().add(field("email", true, true, "NULL"));
+        assertFalse(migrator.supports(alter, columns));
+
+        alter = new AlterTableParam("t_user");
+        alter.getModifyFields().add(field("name", true, true, "NULL"));
+        assertFalse(migrator.supports(alter, columns));
+    }
+
+    @Test
+    public void testNotNullWithoutDefault() {
+        AlterTableParam alter = new AlterTableParam("t_user");
+        alter.getAddFields().add(field("status", false, false, "NULL"));
+        assertFalse(migrator.supports(alter, columns));
+
+        alter = new AlterTableParam("t_user");
+        alter.getModifyFields().add(field("name", false, false, "''"));
+        assertFalse(migrator.supports(alter, columns));
+    }
+
+    @Test
+    public void testLossyModify() {
+        SysMysqlColumns remark = column("remark", "", "YES");
+        remark.setData_type("varchar");
+        remark.setColumn_type("varchar(50)");
+        List<SysMysqlColumns> columns = Arrays.asList(column("id", "PRI", "NO"), remark);
+
+        // 缩短varchar，复制时超长的值会被insert ignore截断
+        AlterTableParam alter = new AlterTableParam("t_user");
+        alter.getModifyFields().add(varchar("remark", 40));
+        assertFalse(migrator.supports(alter, columns));
+
+        alter = new AlterTableParam("t_user");
+        alter.getModifyFields().add(varchar("remark", 100));
+        assertTrue(migrator.supports(alter, columns));
+
+        // 修改类型
+        alter = new AlterTableParam("t_user");
+        alter.getModifyFields().add(field("remark", true, false, "NULL"));
+        assertFalse(migrator.supports(alter, columns));
+    }
+
+    @Test
+    public void testMigrateUnsupported() {
+        // 不满足条件时不执行任何语句，mapper的调用会抛出异常
+        AlterTableParam alter = new AlterTableParam("t_user");
+        alter.getAddFields().add(field("status", false, false, "NULL"));
+        assertFalse(migrator.migrate(alter, columns));
+    }
+
+    private static SysMysqlColumns column(String name, String key, String nullable) {
+        SysMysqlColumns column = new SysMysqlColumns();
+        column.setColumn_name(name);
+        column.setColumn_key(key);
+        column.setIs_nullable(nullable);
+        column.setData_type("int");
+        column.setColumn_type("int");
+        return column;
+    }
+
+    private static CreateTableParam field(String name, boolean nullable, boolean unique, String defaultValue) {
+        CreateTableParam field = new CreateTableParam();
+        field.setFieldName(name);
+        field.setFieldType("int");
+        field.setFieldIsNull(nullable);
+        field.setFieldIsUnique(unique);
+        field.setFieldDefaultValue(defaultValue);
+        return field;
+    }
+
+    private static CreateTableParam varchar(String name, int length) {
+        CreateTableParam field = field(name, true, false, "NULL");
+        field.setFieldType("varchar");
+        field.setFieldLength(length);
+        field.setFileTypeLength(1);
+        return field;
+    }
+
+    private CreateMysqlTablesMapper mapper() {
+        return (CreateMysqlTablesMapper) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{CreateMysqlTablesMapper.class}, (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
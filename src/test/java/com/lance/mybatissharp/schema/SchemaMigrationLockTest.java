@@ -0,0 +1,113 @@
+package com.lance.mybatissharp.schema;
+
+import com.lance.mybatissharp.schema.dao.CreateMysqlTablesMapper;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Lance
+ */
+class SchemaMigrationLockTest {
+
+    private final MyBatisSchemaSettings settings = new MyBatisSchemaSettings()
+            .setMigrationLockWaitSeconds(1)
+            .setMigrationLockLeaseSeconds(60);
+
+    /** 内存中的锁记录，续期线程也会读写 */
+    private volatile String owner;
+    private volatile long   expireTime;
+
+    @Test
+    public void testRunExclusively() {
+        AtomicInteger runs = new AtomicInteger();
+        assertTrue(new SchemaMigrationLock(mapper(), settings).runExclusively(() -> false, runs::incrementAndGet));
+        assertEquals(1, runs.get());
+        assertNull(owner);
+
+        // 等待期间其他节点已完成迁移时不执行，仍然释放锁
+        assertFalse(new SchemaMigrationLock(mapper(), settings).runExclusively(() -> true, runs::incrementAndGet));
+        assertEquals(1, runs.get());
+        assertNull(owner);
+    }
+
+    @Test
+    public void testWaitTimeout() {
+        owner = "other";
+        expireTime = System.currentTimeMillis() + 60000;
+        AtomicInteger runs = new AtomicInteger();
+        assertThrows(IllegalStateException.class,
+                () -> new SchemaMigrationLock(mapper(), settings).runExclusively(() -> false, runs::incrementAndGet));
+        assertEquals(0, runs.get());
+        assertEquals("other", owner);
+    }
+
+    @Test
+    public void testExpiredLock() {
+        // 持有者宕机，锁已到期
+        owner = "other";
+        expireTime = System.currentTimeMillis() - 1;
+        AtomicInteger runs = new AtomicInteger();
+        assertTrue(new SchemaMigrationLock(mapper(), settings).runExclusively(() -> false, runs::incrementAndGet));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testLostLease() {
+        // 租期3秒，每秒续期一次
+        settings.setMigrationLockLeaseSeconds(3);
+        SchemaMigrationLock lock = new SchemaMigrationLock(mapper(), settings);
+        assertThrows(IllegalStateException.class, () -> lock.runExclusively(() -> false, () -> {
+            lock.checkHeld();
+            // 本节点停顿超过租期，锁被其他节点获得
+            owner = "other";
+            expireTime = System.currentTimeMillis() + 60000;
+            try {
+                Thread.sleep(1500);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            lock.checkHeld();
+        }));
+        // 不释放其他节点的锁
+        assertEquals("other", owner);
+    }
+
+    /**
+     * 按CreateMysqlTablesMapper.xml中的语义模拟锁表，其他方法不应被调用
+     */
+    private CreateMysqlTablesMapper mapper() {
+        return (CreateMysqlTablesMapper) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{CreateMysqlTablesMapper.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "createMigrationLockTable":
+                            return null;
+                        case "tryMigrationLock":
+                            long now = System.currentTimeMillis();
+                            if (owner == null || expireTime < now) {
+                                owner = (String) args[2];
+                            }
+                            if (owner.equals(args[2])) {
+                                expireTime = now + (Integer) args[3] * 1000L;
+                            }
+                            return null;
+                        case "findMigrationLockOwner":
+                            return owner;
+                        case "releaseMigrationLock":
+                            if (args[2].equals(owner)) {
+                                owner = null;
+                            }
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,210 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.AlterTableParam;
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.SysMysqlColumns;
+import com.lance.mybatissharp.schema.command.TableOptionParam;
+import com.lance.mybatissharp.schema.constants.AlterAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Lance
+ */
+class AlterAlgorithmToolsTest {
+
+    @Test
+    public void testAddField() {
+        AlterTableParam alter = new AlterTableParam("t_a");
+        alter.getAddFields().add(varchar("name", 20));
+
+        assertEquals(AlterAlgorithm.INSTANT, AlterAlgorithmTools.classify(alter, columns(), "8.0.22"));
+        assertEquals(AlterAlgorithm.INPLACE, AlterAlgorithmTools.classify(alter, columns(), "5.7.30-log"));
+    }
+
+    @Test
+    public void testModifyVarchar() {
+        // utf8mb4，varchar(50)占200字节，varchar(60)占240字节，都用1个字节存长度
+        AlterTableParam alter = new AlterTableParam("t_a");
+        alter.addModifyField(varchar("name", 60));
+        assertEquals(AlterAlgorithm.INPLACE, AlterAlgorithmTools.classify(alter, columns(), "8.0.22"));
+
+        // varchar(100)占400字节，需要2个字节存长度
+        alter = new AlterTableParam("t_a");
+        alter.addModifyField(varchar("name", 100));
+        assertEquals(AlterAlgorithm.COPY, AlterAlgorithmTools.classify(alter, columns(), "8.0.22"));
+
+        alter = new AlterTableParam("t_a");
+        alter.addModifyField(varchar("name", 40));
+        assertEquals(AlterAlgorithm.COPY, AlterAlgorithmTools.classify(alter, columns(), "8.0.22"));
+    }
+
+    @Test
+    public void testModifyType() {
+        CreateTableParam field = varchar("name", 50);
+        field.setFieldType("text");
+        field.setFileTypeLength(0);
+        AlterTableParam alter = new AlterTableParam("t_a");
+        alter.addModifyField(field);
+
+        assertEquals(AlterAlgorithm.COPY, AlterAlgorithmTools.classify(alter, columns(), "8.0.22"));
+    }
+
+    @Test
+    public void testModifyEnum() {
+        Map<String, SysMysqlColumns> columnIndex = columns();
+        SysMysqlColumns column = columnIndex.get("name");
+        column.setData_type("enum");
+        column.setColumn_type("enum('NORMAL','BANNED')");
+        column.setCharacter_maximum_length("6");
+
+        // 在末尾追加取值只修改元数据
+        CreateTableParam field = varchar("name", 0);
+        ColumnTypeTools.inferType("Status", Arrays.asList("NORMAL", "BANNED", "DELETED"), 255, 0, field);
+        AlterTableParam alter = new AlterTableParam("t_a");
+        alter.addModifyField(field);
+        assertEquals(AlterAlgorithm.INSTANT, AlterAlgorithmTools.classify(alter, columnIndex, "8.0.22"));
+        assertEquals(AlterAlgorithm.INPLACE, AlterAlgorithmTools.classify(alter, columnIndex, "5.7.30"));
+
+        // 调整顺序需要复制整张表
+        ColumnTypeTools.inferType("Status", Arrays.asList("BANNED", "NORMAL"), 255, 0, field);
+        assertEquals(AlterAlgorithm.COPY, AlterAlgorithmTools.classify(alter, columnIndex, "8.0.22"));
+    }
+
+    @Test
+    public void testModifyIntegerDisplayWidth() {
+        Map<String, SysMysqlColumns> columnIndex = columns();
+        SysMysqlColumns column = columnIndex.get("name");
+        column.setData_type("int");
+        column.setColumn_type("int(11)");
+        column.setCharacter_maximum_length(null);
+        column.setCharacter_octet_length(null);
+
+        // 只有显示宽度不同，例如5.7中的int(11)与推断的int
+        CreateTableParam field = varchar("name", 0);
+        ColumnTypeTools.inferType("int", null, 255, 0, field);
+        field.setFieldIsNull(true);
+        AlterTableParam alter = new AlterTableParam("t_a");
+        alter.addModifyField(field);
+        assertEquals(AlterAlgorithm.INSTANT, AlterAlgorithmTools.classify(alter, columnIndex, "8.0.22"));
+
+        field.setFileTypeLength(1);
+        field.setFieldLength(10);
+        assertEquals(AlterAlgorithm.INSTANT, AlterAlgorithmTools.classify(alter, columnIndex, "8.0.22"));
+        assertEquals(AlterAlgorithm.INPLACE, AlterAlgorithmTools.classify(alter, columnIndex, "5.7.30"));
+    }
+
+    @Test
+    public void testLossyModify() {
+        SysMysqlColumns column = columns().get("name");
+        assertFalse(AlterAlgorithmTools.isLossyModify(varchar("name", 50), column));
+        assertFalse(AlterAlgorithmTools.isLossyModify(varchar("name", 100), column));
+        assertTrue(AlterAlgorithmTools.isLossyModify(varchar("name", 40), column));
+        assertTrue(AlterAlgorithmTools.isLossyModify(varchar("name", 50), null));
+
+        CreateTableParam field = varchar("name", 50);
+        field.setFieldType("char");
+        assertTrue(AlterAlgorithmTools.isLossyModify(field, column));
+
+        // decimal(10,2)：整数位和小数位都不能减少
+        column.setData_type("decimal");
+        column.setColumn_type("decimal(10,2)");
+        field = varchar("name", 12);
+        field.setFieldType("decimal");
+        field.setFileTypeLength(2);
+        field.setFieldDecimalLength(4);
+        assertFalse(AlterAlgorithmTools.isLossyModify(field, column));
+        field.setFieldLength(11);
+        assertTrue(AlterAlgorithmTools.isLossyModify(field, column));
+        field.setFieldLength(10);
+        field.setFieldDecimalLength(1);
+        assertTrue(AlterAlgorithmTools.isLossyModify(field, column));
+
+        // enum追加、调整顺序不丢失数据，删除取值丢失数据
+        column.setData_type("enum");
+        column.setColumn_type("enum('NORMAL','BANNED')");
+        field = varchar("name", 0);
+        ColumnTypeTools.inferType("Status", Arrays.asList("BANNED", "NORMAL", "DELETED"), 255, 0, field);
+        assertFalse(AlterAlgorithmTools.isLossyModify(field, column));
+        ColumnTypeTools.inferType("Status", Arrays.asList("NORMAL", "DELETED"), 255, 0, field);
+        assertTrue(AlterAlgorithmTools.isLossyModify(field, column));
+
+        // 整数只修改显示宽度
+        column.setData_type("int");
+        column.setColumn_type("int(11)");
+        ColumnTypeTools.inferType("int", null, 255, 0, field);
+        field.setFileTypeLength(1);
+        field.setFieldLength(10);
+        assertFalse(AlterAlgorithmTools.isLossyModify(field, column));
+    }
+
+    @Test
+    public void testRemoveField() {
+        AlterTableParam alter = new AlterTableParam("t_a");
+        alter.getRemoveFields().add("name");
+
+        assertEquals(AlterAlgorithm.INSTANT, AlterAlgorithmTools.classify(alter, columns(), "8.0.30"));
+        assertEquals(AlterAlgorithm.INPLACE, AlterAlgorithmTools.classify(alter, columns(), "8.0.22"));
+    }
+
+    @Test
+    public void testAddIndex() {
+        AlterTableParam alter = new AlterTableParam("t_a");
+        alter.getAddIndexes().add(IndexTools.indexParam("idx_name", new String[]{"name"}, new int[0], false, false));
+
+        assertEquals(AlterAlgorithm.INPLACE, AlterAlgorithmTools.classify(alter, columns(), "8.0.30"));
+    }
+
+    @Test
+    public void testTableOptions() {
+        AlterTableParam alter = new AlterTableParam("t_a");
+        TableOptionParam options = new TableOptionParam();
+        options.setRowFormat("COMPRESSED");
+        alter.setTableOptions(options);
+        assertEquals(AlterAlgorithm.INPLACE, AlterAlgorithmTools.classify(alter, columns(), "8.0.30"));
+
+        options.setEngine("MyISAM");
+        assertEquals(AlterAlgorithm.COPY, AlterAlgorithmTools.classify(alter, columns(), "8.0.30"));
+    }
+
+    @Test
+    public void testAlgorithmRefused() {
+        SQLException refused = new SQLException("ALGORITHM=INSTANT is not supported for this operation", "0A000", 1845);
+        assertTrue(AlterAlgorithmTools.isAlgorithmRefused(new RuntimeException(refused)));
+        assertFalse(AlterAlgorithmTools.isAlgorithmRefused(new RuntimeException(new SQLException("error", "42S02", 1146))));
+    }
+
+    private Map<String, SysMysqlColumns> columns() {
+        SysMysqlColumns column = new SysMysqlColumns();
+        column.setColumn_name("name");
+        column.setData_type("varchar");
+        column.setColumn_type("varchar(50)");
+        column.setCharacter_maximum_length("50");
+        column.setCharacter_octet_length("200");
+        column.setIs_nullable("YES");
+        column.setColumn_key("");
+        column.setExtra("");
+        Map<String, SysMysqlColumns> columnIndex = new HashMap<>();
+        columnIndex.put("name", column);
+        return columnIndex;
+    }
+
+    private CreateTableParam varchar(String name, int length) {
+        CreateTableParam param = new CreateTableParam();
+        param.setFieldName(name);
+        param.setFieldType("varchar");
+        param.setFieldLength(length);
+        param.setFieldIsNull(true);
+        param.setFieldDefaultValue("NULL");
+        param.setFileTypeLength(1);
+        return param;
+    }
+}
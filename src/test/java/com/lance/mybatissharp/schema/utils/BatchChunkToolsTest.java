@@ -0,0 +1,75 @@
+package com.lance.mybatissharp.schema.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Lance
+ */
+class BatchChunkToolsTest {
+
+    @Test
+    public void testChunkByRows() {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            keys.add(i);
+        }
+        List<List<Integer>> chunks = BatchChunkTools.chunk(keys, 1, 4 * 1024 * 1024, 0, 10, BatchChunkTools::estimateBytes);
+        assertEquals(3, chunks.size());
+        assertEquals(10, chunks.get(0).size());
+        assertEquals(5, chunks.get(2).size());
+    }
+
+    @Test
+    public void testChunkByPacket() {
+        List<String> columns = Arrays.asList("id", "name");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", i);
+            row.put("name", String.join("", Collections.nCopies(100, "a")));
+            rows.add(row);
+        }
+        long maxPacket = 1024 + 10000;
+        List<List<Map<String, Object>>> chunks = BatchChunkTools.chunk(rows, columns.size(), maxPacket, 0, 1000,
+                row -> BatchChunkTools.estimateRowBytes(row, columns));
+        assertTrue(chunks.size() > 1);
+        int total = 0;
+        for (List<Map<String, Object>> chunk : chunks) {
+            long bytes = 0;
+            for (Map<String, Object> row : chunk) {
+                bytes += BatchChunkTools.estimateRowBytes(row, columns) + 3;
+            }
+            assertTrue(bytes <= 10000);
+            total += chunk.size();
+        }
+        assertEquals(100, total);
+    }
+
+    @Test
+    public void testChunkByPlaceholders() {
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(i);
+        }
+        List<List<Integer>> chunks = BatchChunkTools.chunk(rows, 100, Long.MAX_VALUE / 2, 0, 10000, row -> 1);
+        assertEquals(BatchChunkTools.MAX_PLACEHOLDERS / 100, chunks.get(0).size());
+    }
+
+    @Test
+    public void testOversizedRow() {
+        List<String> values = Arrays.asList("a", String.join("", Collections.nCopies(5000, "b")), "c");
+        List<List<String>> chunks = BatchChunkTools.chunk(values, 1, 1024 + 100, 0, 1000, BatchChunkTools::estimateBytes);
+        assertEquals(3, chunks.size());
+        assertEquals(1, chunks.get(1).size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.ColumnAdvice;
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Lance
+ */
+class ColumnTypeToolsTest {
+
+    private enum Status { NORMAL, BANNED }
+
+    @Test
+    public void testInferType() {
+        assertEquals("tinyint(1)", infer(boolean.class, 255, 0));
+        assertEquals("bigint", infer(Long.class, 255, 0));
+        assertEquals("int", infer(int.class, 255, 0));
+        assertEquals("enum('NORMAL','BANNED')", infer(Status.class, 255, 0));
+        assertEquals("binary(16)", infer(java.util.UUID.class, 255, 0));
+        assertEquals("datetime(3)", infer(java.time.Instant.class, 255, 0));
+        assertEquals("datetime", infer(java.time.LocalDateTime.class, 255, 0));
+        assertEquals("varchar(32)", infer(String.class, 32, 0));
+        assertEquals("varbinary(1024)", infer(byte[].class, 1024, 0));
+        assertEquals("decimal(12,2)", infer(java.math.BigDecimal.class, 12, 2));
+
+        // BigDecimal必须指定不超过65的长度，不支持的类型需要指定type
+        CreateTableParam param = new CreateTableParam();
+        assertFalse(ColumnTypeTools.inferType("java.math.BigDecimal", Collections.emptyList(), 255, 0, param));
+        assertFalse(ColumnTypeTools.inferType("java.util.Map", Collections.emptyList(), 255, 0, param));
+    }
+
+    @Test
+    public void testNormalizeType() {
+        assertEquals("int", ColumnTypeTools.normalizeType("int(11)"));
+        assertEquals("bigint unsigned", ColumnTypeTools.normalizeType("bigint(20) unsigned"));
+        assertEquals("tinyint", ColumnTypeTools.normalizeType("tinyint(4)"));
+        assertEquals("tinyint(1)", ColumnTypeTools.normalizeType("tinyint(1)"));
+        assertEquals("varchar(32)", ColumnTypeTools.normalizeType("varchar(32)"));
+        assertEquals("point", ColumnTypeTools.normalizeType("point"));
+    }
+
+    @Test
+    public void testEstimateBytes() {
+        assertEquals(6, ColumnTypeTools.estimateBytes(declared("decimal", 2, 12, 2), -1));
+        assertEquals(7, ColumnTypeTools.estimateBytes(declared("datetime", 1, 3, 0), -1));
+        assertEquals(37, ColumnTypeTools.estimateBytes(declared("varchar", 1, 64, 0), 36));
+        assertEquals(-1, ColumnTypeTools.estimateBytes(declared("varchar", 1, 64, 0), -1));
+    }
+
+    @Test
+    public void testAdvise() {
+        ColumnAdvice advice = ColumnTypeTools.advise("t_player", "boolean", Collections.emptyList(),
+                declared("int", 1, 11, 0));
+        assertEquals("tinyint(1)", advice.getSuggestedType());
+        assertEquals(3, advice.getSavedBytes());
+
+        List<String> constants = ColumnTypeTools.enumConstants(Status.class);
+        advice = ColumnTypeTools.advise("t_player", ColumnTypeTools.javaTypeName(Status.class), constants,
+                declared("varchar", 1, 32, 0));
+        assertEquals("enum('NORMAL','BANNED')", advice.getSuggestedType());
+        assertEquals(6, advice.getSavedBytes());
+
+        advice = ColumnTypeTools.advise("t_player", "java.util.UUID", Collections.emptyList(),
+                declared("char", 1, 36, 0));
+        assertEquals(20, advice.getSavedBytes());
+        advice.setTableRows(1000);
+        assertEquals(20000, advice.getEstimatedSavedBytes());
+
+        // 已经紧凑、按序号存储的枚举、无法估算的字符串不给建议
+        assertNull(ColumnTypeTools.advise("t_player", "long", Collections.emptyList(), declared("bigint", 1, 20, 0)));
+        assertNull(ColumnTypeTools.advise("t_player", ColumnTypeTools.javaTypeName(Status.class), constants,
+                declared("tinyint", 1, 4, 0)));
+        assertNull(ColumnTypeTools.advise("t_player", "java.lang.String", Collections.emptyList(),
+                declared("varchar", 1, 255, 0)));
+        assertEquals(Arrays.asList("NORMAL", "BANNED"), constants);
+    }
+
+    private String infer(Class<?> type, int length, int decimalLength) {
+        CreateTableParam param = new CreateTableParam();
+        ColumnTypeTools.inferType(ColumnTypeTools.javaTypeName(type), ColumnTypeTools.enumConstants(type), length,
+                decimalLength, param);
+        return ColumnTypeTools.columnType(param);
+    }
+
+    private CreateTableParam declared(String type, int fileTypeLength, int length, int decimalLength) {
+        CreateTableParam param = new CreateTableParam();
+        param.setFieldName("a");
+        param.setFieldType(type);
+        param.setFileTypeLength(fileTypeLength);
+        param.setFieldLength(length);
+        param.setFieldDecimalLength(decimalLength);
+        return param;
+    }
+}
@@ -0,0 +1,86 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.IndexParam;
+import com.lance.mybatissharp.schema.command.SysMysqlStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Lance
+ */
+class IndexToolsTest {
+
+    @Test
+    public void testExistingIndexes() {
+        Map<String, IndexParam> indexes = IndexTools.existingIndexes(Arrays.asList(
+                statistics("PRIMARY", 0, 1, "id", null, "BTREE"),
+                statistics("idx_player_time", 1, 1, "player_id", null, "BTREE"),
+                statistics("idx_player_time", 1, 2, "create_time", null, "BTREE"),
+                statistics("uk_title", 0, 1, "title", 20, "BTREE")));
+
+        assertEquals(2, indexes.size());
+        assertEquals("idx_player_time(player_id,create_time)", indexes.get("idx_player_time").toString());
+        assertEquals("uk_title(unique title(20))", indexes.get("uk_title").toString());
+    }
+
+    @Test
+    public void testDiff() {
+        Map<String, IndexParam> existing = IndexTools.existingIndexes(Arrays.asList(
+                statistics("IDX_PLAYER_TIME", 1, 1, "PLAYER_ID", null, "BTREE"),
+                statistics("IDX_PLAYER_TIME", 1, 2, "CREATE_TIME", null, "BTREE"),
+                statistics("idx_guild", 1, 1, "guild_id", null, "BTREE"),
+                statistics("idx_manual", 1, 1, "level", null, "BTREE"),
+                statistics("name", 0, 1, "name", null, "BTREE")));
+        List<IndexParam> declared = Arrays.asList(
+                IndexTools.indexParam("idx_player_time", new String[]{"player_id", "create_time"}, new int[0], false, false),
+                IndexTools.indexParam("idx_guild", new String[]{"guild_id", "level"}, new int[0], false, false),
+                IndexTools.indexParam("ft_title", new String[]{"title"}, new int[0], false, true));
+
+        // 大小写不同视为相同，字段不同先删除再增加，没有声明的不删除
+        List<IndexParam> addIndexes = new ArrayList<>();
+        List<String> dropIndexes = new ArrayList<>();
+        IndexTools.diff(declared, existing, false, addIndexes, dropIndexes);
+        assertEquals("[idx_guild(guild_id,level), ft_title(fulltext title)]", addIndexes.toString());
+        assertEquals(Collections.singletonList("idx_guild"), dropIndexes);
+
+        // 开启删除时，单字段唯一索引仍由@Column(isUnique)管理
+        addIndexes.clear();
+        dropIndexes.clear();
+        IndexTools.diff(declared, existing, true, addIndexes, dropIndexes);
+        assertEquals(Arrays.asList("idx_guild", "idx_manual"), dropIndexes);
+    }
+
+    @Test
+    public void testIllegalIndex() {
+        assertThrows(IllegalStateException.class,
+                () -> IndexTools.indexParam("idx_a", new String[]{"a", "b"}, new int[]{10}, false, false));
+        assertThrows(IllegalStateException.class,
+                () -> IndexTools.indexParam("ft_a", new String[]{"a"}, new int[0], true, true));
+        assertThrows(IllegalStateException.class,
+                () -> IndexTools.indexParam("primary", new String[]{"a"}, new int[0], false, false));
+        assertTrue(IndexTools.hasFulltext(Collections.singletonList(
+                IndexTools.indexParam("ft_a", new String[]{"a"}, new int[0], false, true))));
+    }
+
+    private SysMysqlStatistics statistics(String indexName, int nonUnique, int seq, String column, Integer subPart,
+                                          String indexType) {
+        SysMysqlStatistics statistics = new SysMysqlStatistics();
+        statistics.setTable_name("t_a");
+        statistics.setIndex_name(indexName);
+        statistics.setNon_unique(nonUnique);
+        statistics.setSeq_in_index(seq);
+        statistics.setColumn_name(column);
+        statistics.setSub_part(subPart);
+        statistics.setIndex_type(indexType);
+        return statistics;
+    }
+}
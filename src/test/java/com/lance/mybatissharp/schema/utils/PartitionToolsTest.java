@@ -0,0 +1,169 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.PartitionParam;
+import com.lance.mybatissharp.schema.command.SysMysqlPartitions;
+import com.lance.mybatissharp.schema.command.TablePlan;
+import com.lance.mybatissharp.schema.constants.PartitionInterval;
+import com.lance.mybatissharp.schema.constants.PartitionType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Lance
+ */
+class PartitionToolsTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    @Test
+    public void testLayout() {
+        PartitionParam declared = PartitionTools.partitionParam(PartitionType.RANGE_COLUMNS, "create_date", 0,
+                new String[0], PartitionInterval.MONTH, 2, 3);
+
+        PartitionParam layout = PartitionTools.layout(declared, TODAY);
+        assertEquals(Arrays.asList("p202610", "p202611", "p202612"), layout.getNames());
+        assertEquals(Arrays.asList("'2026-11-01'", "'2026-12-01'", "'2027-01-01'"), layout.getRanges());
+    }
+
+    @Test
+    public void testRoll() {
+        PartitionParam declared = PartitionTools.partitionParam(PartitionType.RANGE_COLUMNS, "create_date", 0,
+                new String[0], PartitionInterval.MONTH, 2, 3);
+        List<SysMysqlPartitions> partitionsList = new ArrayList<>();
+        for (int month = 6; month <= 10; month++) {
+            partitionsList.add(partitions(String.format("p2026%02d", month), partitionsList.size() + 1, "RANGE COLUMNS",
+                    "`create_date`", String.format("'2026-%02d-01'", month + 1)));
+        }
+
+        // 提前创建到12月，删除上界不晚于7月1日的分区
+        TablePlan tablePlan = new TablePlan("t_log");
+        PartitionTools.diff(declared, PartitionTools.existingPartition(partitionsList), TODAY, tablePlan);
+        assertFalse(tablePlan.isRepartition());
+        assertEquals(Arrays.asList("p202611", "p202612"), tablePlan.getAddPartitions().getNames());
+        assertEquals(Arrays.asList("'2026-12-01'", "'2027-01-01'"), tablePlan.getAddPartitions().getRanges());
+        assertEquals(Collections.singletonList("p202606"), tablePlan.getDropPartitions());
+
+        // 已经是最新的分区时不需要变更
+        tablePlan = new TablePlan("t_log");
+        PartitionTools.diff(declared, PartitionTools.existingPartition(partitionsList), LocalDate.of(2026, 8, 31), tablePlan);
+        assertFalse(tablePlan.hasPartitionChanges());
+
+        // 最后一个分区是MAXVALUE时不能滚动，需要重新分区
+        partitionsList.add(partitions("pmax", partitionsList.size() + 1, "RANGE COLUMNS", "`create_date`", "MAXVALUE"));
+        tablePlan = new TablePlan("t_log");
+        PartitionTools.diff(declared, PartitionTools.existingPartition(partitionsList), TODAY, tablePlan);
+        assertTrue(tablePlan.isRepartition());
+        assertEquals(Arrays.asList("p202610", "p202611", "p202612"), tablePlan.getPartition().getNames());
+    }
+
+    @Test
+    public void testEvaluateRanges() {
+        List<SysMysqlPartitions> partitionsList = Arrays.asList(
+                partitions("p0", 1, "RANGE", "to_days(`create_date`)", "739251"),
+                partitions("p1", 2, "RANGE", "to_days(`create_date`)", "739617"));
+        PartitionParam declared = PartitionTools.partitionParam(PartitionType.RANGE, "to_days(create_date)", 0,
+                new String[]{"to_days('2024-01-01')", "to_days('2025-01-01')", "MAXVALUE"}, PartitionInterval.NONE, 0, 0);
+        Map<String, String> values = new HashMap<>();
+        values.put("to_days('2024-01-01')", "739251");
+        values.put("to_days('2025-01-01')", "739617");
+
+        // 计算后与库中的上界相同，只追加MAXVALUE分区
+        PartitionParam evaluated = PartitionTools.evaluateRanges(declared, values::get);
+        assertEquals(Arrays.asList("739251", "739617", "MAXVALUE"), evaluated.getRanges());
+        TablePlan tablePlan = new TablePlan("t_log");
+        PartitionTools.diff(evaluated, PartitionTools.existingPartition(partitionsList), TODAY, tablePlan);
+        assertFalse(tablePlan.isRepartition());
+        assertEquals(Collections.singletonList("pmax"), tablePlan.getAddPartitions().getNames());
+
+        // 都是常量时不需要计算
+        PartitionParam literal = PartitionTools.partitionParam(PartitionType.RANGE_COLUMNS, "create_date, level", 0,
+                new String[]{"'2024-01-01', 10", "MAXVALUE, MAXVALUE"}, PartitionInterval.NONE, 0, 0);
+        assertSame(literal, PartitionTools.evaluateRanges(literal, range -> {
+            throw new AssertionError(range);
+        }));
+        assertThrows(IllegalStateException.class, () -> PartitionTools.evaluateRanges(declared, range -> null));
+    }
+
+    @Test
+    public void testAppendRanges() {
+        List<SysMysqlPartitions> partitionsList = Arrays.asList(
+                partitions("p0", 1, "RANGE", "`level`", "100"),
+                partitions("p1", 2, "RANGE", "`level`", "200"));
+        PartitionParam declared = PartitionTools.partitionParam(PartitionType.RANGE, "level", 0,
+                new String[]{"100", "200", "300", "MAXVALUE"}, PartitionInterval.NONE, 0, 0);
+
+        TablePlan tablePlan = new TablePlan("t_a");
+        PartitionTools.diff(declared, PartitionTools.existingPartition(partitionsList), TODAY, tablePlan);
+        assertFalse(tablePlan.isRepartition());
+        assertEquals("RANGE(level) p2<300,pmax<MAXVALUE", tablePlan.getAddPartitions().toString());
+
+        // 修改了已有的范围时重新分区
+        declared = PartitionTools.partitionParam(PartitionType.RANGE, "level", 0, new String[]{"100", "250"},
+                PartitionInterval.NONE, 0, 0);
+        tablePlan = new TablePlan("t_a");
+        PartitionTools.diff(declared, PartitionTools.existingPartition(partitionsList), TODAY, tablePlan);
+        assertTrue(tablePlan.isRepartition());
+        assertNull(tablePlan.getAddPartitions());
+    }
+
+    @Test
+    public void testRepartitionAndRemove() {
+        List<SysMysqlPartitions> partitionsList = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            partitionsList.add(partitions("p" + i, i + 1, "HASH", "`id`", null));
+        }
+        PartitionParam existing = PartitionTools.existingPartition(partitionsList);
+        assertEquals("HASH(`id`) partitions 4", existing.toString());
+
+        TablePlan tablePlan = new TablePlan("t_a");
+        PartitionTools.diff(PartitionTools.partitionParam(PartitionType.HASH, "id", 4, new String[0],
+                PartitionInterval.NONE, 0, 0), existing, TODAY, tablePlan);
+        assertFalse(tablePlan.hasPartitionChanges());
+
+        PartitionTools.diff(PartitionTools.partitionParam(PartitionType.HASH, "id", 8, new String[0],
+                PartitionInterval.NONE, 0, 0), existing, TODAY, tablePlan);
+        assertTrue(tablePlan.isRepartition());
+
+        tablePlan = new TablePlan("t_a");
+        PartitionTools.diff(null, existing, TODAY, tablePlan);
+        assertTrue(tablePlan.isRemovePartitioning());
+    }
+
+    @Test
+    public void testIllegalPartition() {
+        assertThrows(IllegalStateException.class, () -> PartitionTools.partitionParam(PartitionType.HASH, "id", 0,
+                new String[0], PartitionInterval.NONE, 0, 0));
+        assertThrows(IllegalStateException.class, () -> PartitionTools.partitionParam(PartitionType.RANGE, "level", 0,
+                new String[]{"100"}, PartitionInterval.MONTH, 3, 0));
+        assertThrows(IllegalStateException.class, () -> PartitionTools.partitionParam(PartitionType.RANGE, "create_date", 0,
+                new String[0], PartitionInterval.DAY, 3, 0));
+        assertThrows(IllegalStateException.class, () -> PartitionTools.partitionParam(PartitionType.RANGE_COLUMNS,
+                "create_date", 0, new String[0], PartitionInterval.DAY, 0, 0));
+    }
+
+    private SysMysqlPartitions partitions(String name, int position, String method, String expression,
+                                          String description) {
+        SysMysqlPartitions partitions = new SysMysqlPartitions();
+        partitions.setTable_name("t_a");
+        partitions.setPartition_name(name);
+        partitions.setPartition_ordinal_position(position);
+        partitions.setPartition_method(method);
+        partitions.setPartition_expression(expression);
+        partitions.setPartition_description(description);
+        return partitions;
+    }
+}
@@ -0,0 +1,75 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.CreateTableParam;
+import com.lance.mybatissharp.schema.command.TableModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * @author Lance
+ */
+class SchemaFingerprintToolsTest {
+
+    @Test
+    public void testTableOrder() {
+        assertEquals(
+                SchemaFingerprintTools.fingerprint(Arrays.asList(model("t_a", 11), model("t_b", 11)), Collections.emptyMap()),
+                SchemaFingerprintTools.fingerprint(Arrays.asList(model("t_b", 11), model("t_a", 11)), Collections.emptyMap()));
+    }
+
+    @Test
+    public void testFieldChanged() {
+        assertNotEquals(SchemaFingerprintTools.fingerprint(Arrays.asList(model("t_a", 11)), Collections.emptyMap()),
+                SchemaFingerprintTools.fingerprint(Arrays.asList(model("t_a", 20)), Collections.emptyMap()));
+    }
+
+    @Test
+    public void testIndexChanged() {
+        TableModel noIndex = model("t_a", 11);
+        TableModel first = model("t_a", 11);
+        first.getIndexes().add(IndexTools.indexParam("idx_id", new String[]{"id"}, new int[0], false, false));
+        TableModel second = model("t_a", 11);
+        second.getIndexes().add(IndexTools.indexParam("idx_id", new String[]{"id"}, new int[0], true, false));
+
+        assertNotEquals(SchemaFingerprintTools.fingerprint(Arrays.asList(noIndex), Collections.emptyMap()),
+                SchemaFingerprintTools.fingerprint(Arrays.asList(first), Collections.emptyMap()));
+        assertNotEquals(SchemaFingerprintTools.fingerprint(Arrays.asList(first), Collections.emptyMap()),
+                SchemaFingerprintTools.fingerprint(Arrays.asList(second), Collections.emptyMap()));
+    }
+
+    @Test
+    public void testSettingsChanged() {
+        List<TableModel> models = Arrays.asList(model("t_a", 11));
+        assertNotEquals(SchemaFingerprintTools.fingerprint(models, Collections.singletonMap("indexDropEnabled", false)),
+                SchemaFingerprintTools.fingerprint(models, Collections.singletonMap("indexDropEnabled", true)));
+
+        // 与配置的顺序无关
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("indexDropEnabled", true);
+        first.put("engine", "InnoDB");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("engine", "InnoDB");
+        second.put("indexDropEnabled", true);
+        assertEquals(SchemaFingerprintTools.fingerprint(models, first), SchemaFingerprintTools.fingerprint(models, second));
+    }
+
+    private TableModel model(String tableName, int length) {
+        CreateTableParam param = new CreateTableParam();
+        param.setFieldName("id");
+        param.setFieldType("int");
+        param.setFieldLength(length);
+        param.setFieldDefaultValue("NULL");
+        param.setFileTypeLength(1);
+        TableModel model = new TableModel(tableName);
+        model.getFields().add(param);
+        return model;
+    }
+}
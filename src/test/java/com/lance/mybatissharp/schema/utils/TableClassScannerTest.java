@@ -0,0 +1,183 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.utils.scan.a.PlainClass;
+import com.lance.mybatissharp.schema.utils.scan.a.UserEntity;
+import com.lance.mybatissharp.schema.utils.scan.b.BaseEntity;
+import com.lance.mybatissharp.schema.utils.scan.b.OrderEntity;
+import com.lance.mybatissharp.schema.utils.scan.c.IndexedEntity;
+import com.lance.mybatissharp.schema.utils.scan.c.UnlistedEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 把测试用的实体类复制到临时目录或jar中，用只包含这些位置的类加载器扫描
+ *
+ * @author Lance
+ */
+class TableClassScannerTest {
+
+    private static final String SCAN_PACKAGE = "com.lance.mybatissharp.schema.utils.scan";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testDirectory() throws IOException {
+        Path root = directory("dir", UserEntity.class, PlainClass.class);
+        assertEquals(names(UserEntity.class), scan(SCAN_PACKAGE, root));
+    }
+
+    @Test
+    public void testJar() throws IOException {
+        Path root = jar("entities.jar", null, UserEntity.class, PlainClass.class);
+        assertEquals(names(UserEntity.class), scan(SCAN_PACKAGE, root));
+    }
+
+    @Test
+    public void testInheritedTable() throws IOException {
+        Path root = jar("entities.jar", null, BaseEntity.class, OrderEntity.class);
+        assertEquals(names(BaseEntity.class, OrderEntity.class), scan(SCAN_PACKAGE, root));
+
+        // 只扫描子包时同样识别
+        assertEquals(names(BaseEntity.class, OrderEntity.class), scan(SCAN_PACKAGE + ".b", root));
+        assertEquals(names(), scan(SCAN_PACKAGE + ".a", root));
+    }
+
+    @Test
+    public void testNotInitialized() throws IOException {
+        System.clearProperty(UserEntity.INITIALIZED_PROPERTY);
+        Path root = directory("dir", UserEntity.class, PlainClass.class);
+        try (URLClassLoader classLoader = classLoader(root)) {
+            Set<Class<?>> classes = new TableClassScanner(classLoader).scan(SCAN_PACKAGE);
+            assertEquals(1, classes.size());
+            assertEquals(classLoader, classes.iterator().next().getClassLoader());
+        }
+        assertNull(System.getProperty(UserEntity.INITIALIZED_PROPERTY));
+    }
+
+    @Test
+    public void testIndexedAndScannedRoots() throws IOException {
+        // 有索引文件的位置只使用索引中列出的类，没有索引文件的位置解析class
+        Path indexed = directory("indexed", IndexedEntity.class, UnlistedEntity.class);
+        Path index = indexed.resolve(TableClassScanner.INDEX_FILE);
+        Files.createDirectories(index.getParent());
+        Files.write(index, Arrays.asList("# generated", IndexedEntity.class.getName()), StandardCharsets.UTF_8);
+        Path scanned = jar("entities.jar", null, BaseEntity.class, OrderEntity.class, PlainClass.class);
+
+        assertEquals(names(IndexedEntity.class, BaseEntity.class, OrderEntity.class), scan(SCAN_PACKAGE, indexed, scanned));
+
+        // 有索引文件的jar
+        Path indexedJar = jar("indexed.jar", IndexedEntity.class.getName(), IndexedEntity.class, UnlistedEntity.class);
+        Path scannedDir = directory("dir", UserEntity.class, PlainClass.class);
+        assertEquals(names(IndexedEntity.class, UserEntity.class), scan(SCAN_PACKAGE, indexedJar, scannedDir));
+    }
+
+    private Set<String> scan(String pack, Path... roots) throws IOException {
+        try (URLClassLoader classLoader = classLoader(roots)) {
+            Set<String> classNames = new TreeSet<>();
+            for (Class<?> clas : new TableClassScanner(classLoader).scan(pack)) {
+                classNames.add(clas.getName());
+            }
+            return classNames;
+        }
+    }
+
+    /**
+     * 不委托给测试的类加载器，只能看到给定位置中的类
+     */
+    private URLClassLoader classLoader(Path... roots) throws IOException {
+        URL[] urls = new URL[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            urls[i] = roots[i].toUri().toURL();
+        }
+        return new URLClassLoader(urls, null);
+    }
+
+    private Path directory(String name, Class<?>... classes) throws IOException {
+        Path root = tempDir.resolve(name);
+        for (Class<?> clas : classes) {
+            Path file = root.resolve(classFile(clas));
+            Files.createDirectories(file.getParent());
+            try (InputStream in = classBytes(clas)) {
+                Files.copy(in, file);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * 与maven打出的jar一样包含目录条目，按包查找资源时需要
+     *
+     * @param index 索引文件的内容，为null时不包含索引文件
+     */
+    private Path jar(String name, String index, Class<?>... classes) throws IOException {
+        Path jar = tempDir.resolve(name);
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            if (index != null) {
+                out.putNextEntry(new JarEntry(TableClassScanner.INDEX_FILE));
+                out.write(index.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+            Set<String> dirs = new TreeSet<>();
+            for (Class<?> clas : classes) {
+                String file = classFile(clas);
+                for (int i = file.indexOf('/'); i >= 0; i = file.indexOf('/', i + 1)) {
+                    dirs.add(file.substring(0, i + 1));
+                }
+            }
+            for (String dir : dirs) {
+                out.putNextEntry(new JarEntry(dir));
+                out.closeEntry();
+            }
+            for (Class<?> clas : classes) {
+                out.putNextEntry(new JarEntry(classFile(clas)));
+                try (InputStream in = classBytes(clas)) {
+                    copy(in, out);
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static String classFile(Class<?> clas) {
+        return clas.getName().replace('.', '/') + ".class";
+    }
+
+    private static InputStream classBytes(Class<?> clas) {
+        return clas.getResourceAsStream(clas.getSimpleName() + ".class");
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+    }
+
+    private static Set<String> names(Class<?>... classes) {
+        Set<String> names = new TreeSet<>();
+        for (Class<?> clas : classes) {
+            names.add(clas.getName());
+        }
+        return names;
+    }
+}
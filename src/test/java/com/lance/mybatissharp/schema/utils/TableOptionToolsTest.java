@@ -0,0 +1,79 @@
+package com.lance.mybatissharp.schema.utils;
+
+import com.lance.mybatissharp.schema.command.SysMysqlTables;
+import com.lance.mybatissharp.schema.command.TableOptionParam;
+import com.lance.mybatissharp.schema.constants.PageCompression;
+import com.lance.mybatissharp.schema.constants.RowFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Lance
+ */
+class TableOptionToolsTest {
+
+    @Test
+    public void testExistingOption() {
+        TableOptionParam existing = TableOptionTools.existingOption(tables("InnoDB", "Compressed",
+                "row_format=COMPRESSED KEY_BLOCK_SIZE=8 stats_persistent=1 partitioned"));
+
+        assertEquals("engine=InnoDB row_format=COMPRESSED key_block_size=8 stats_persistent=1", existing.toString());
+        assertNull(TableOptionTools.existingOption(null));
+    }
+
+    @Test
+    public void testDiff() {
+        TableOptionParam declared = TableOptionTools.tableOption("", RowFormat.COMPRESSED, 8, PageCompression.DEFAULT, 1, 0);
+        TableOptionParam existing = TableOptionTools.existingOption(tables("InnoDB", "Dynamic", ""));
+
+        // 只对比声明了的选项
+        assertEquals("row_format=COMPRESSED key_block_size=8 stats_persistent=1",
+                TableOptionTools.diff(declared, existing).toString());
+        assertNull(TableOptionTools.diff(declared, TableOptionTools.existingOption(tables("InnoDB", "Compressed",
+                "row_format=COMPRESSED KEY_BLOCK_SIZE=8 stats_persistent=1"))));
+        assertNull(TableOptionTools.diff(null, existing));
+
+        // 改为DYNAMIC时取消库中的KEY_BLOCK_SIZE，页压缩没有设置时视为None
+        declared = TableOptionTools.tableOption("", RowFormat.DYNAMIC, 0, PageCompression.ZLIB, -1, 0);
+        existing = TableOptionTools.existingOption(tables("InnoDB", "Compressed", "row_format=COMPRESSED KEY_BLOCK_SIZE=8"));
+        assertEquals("row_format=DYNAMIC key_block_size=0 compression=zlib",
+                TableOptionTools.diff(declared, existing).toString());
+        declared = TableOptionTools.tableOption("", RowFormat.DEFAULT, 0, PageCompression.NONE, -1, 0);
+        assertNull(TableOptionTools.diff(declared, existing));
+    }
+
+    @Test
+    public void testCreateOptions() {
+        assertNull(TableOptionTools.createOptions(null, null, ""));
+        assertEquals("engine=InnoDB charset=utf8mb4",
+                TableOptionTools.createOptions(null, "InnoDB", "utf8mb4").toString());
+        TableOptionParam declared = TableOptionTools.tableOption("MyISAM", RowFormat.DEFAULT, 0, PageCompression.DEFAULT,
+                -1, 0);
+        assertEquals("engine=MyISAM", TableOptionTools.createOptions(declared, "InnoDB", null).toString());
+    }
+
+    @Test
+    public void testIllegalOption() {
+        assertThrows(IllegalStateException.class, () -> TableOptionTools.tableOption("", RowFormat.COMPRESSED, 3,
+                PageCompression.DEFAULT, -1, 0));
+        assertThrows(IllegalStateException.class, () -> TableOptionTools.tableOption("", RowFormat.DYNAMIC, 8,
+                PageCompression.DEFAULT, -1, 0));
+        assertThrows(IllegalStateException.class, () -> TableOptionTools.tableOption("", RowFormat.COMPRESSED, 0,
+                PageCompression.LZ4, -1, 0));
+        assertThrows(IllegalStateException.class, () -> TableOptionTools.tableOption("InnoDB;drop", RowFormat.DEFAULT, 0,
+                PageCompression.DEFAULT, -1, 0));
+        assertThrows(IllegalStateException.class, () -> TableOptionTools.createOptions(null, null, "utf8 collate"));
+    }
+
+    private SysMysqlTables tables(String engine, String rowFormat, String createOptions) {
+        SysMysqlTables tables = new SysMysqlTables();
+        tables.setTable_name("t_a");
+        tables.setEngine(engine);
+        tables.setRow_format(rowFormat);
+        tables.setCreate_options(createOptions);
+        return tables;
+    }
+}
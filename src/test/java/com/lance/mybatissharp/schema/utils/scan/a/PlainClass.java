@@ -0,0 +1,16 @@
+package com.lance.mybatissharp.schema.utils.scan.a;
+
+/**
+ * 扫描测试用的普通类，没有打{@code @Table}
+ *
+ * @author Lance
+ */
+public class PlainClass {
+
+    private static final double RATE = 0.5;
+    private static final long   LIMIT = 1L << 40;
+
+    public String describe() {
+        return "rate=" + RATE + ", limit=" + LIMIT;
+    }
+}
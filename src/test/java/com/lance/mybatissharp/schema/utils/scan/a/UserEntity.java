@@ -0,0 +1,24 @@
+package com.lance.mybatissharp.schema.utils.scan.a;
+
+import com.lance.mybatissharp.schema.annotation.Index;
+import com.lance.mybatissharp.schema.annotation.Table;
+import com.lance.mybatissharp.schema.constants.RowFormat;
+
+/**
+ * 扫描测试用的实体类，初始化时留下标记
+ *
+ * @author Lance
+ */
+@Index(name = "idx_name", columns = {"name"}, lengths = {16})
+@Table(name = "t_scan_user", rowFormat = RowFormat.COMPRESSED, keyBlockSize = 8)
+public class UserEntity {
+
+    public static final String INITIALIZED_PROPERTY = "mybatis-sharp.scan.UserEntity.initialized";
+
+    static {
+        System.setProperty(INITIALIZED_PROPERTY, "true");
+    }
+
+    private long   id;
+    private String name;
+}
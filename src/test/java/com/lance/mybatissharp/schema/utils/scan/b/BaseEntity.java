@@ -0,0 +1,14 @@
+package com.lance.mybatissharp.schema.utils.scan.b;
+
+import com.lance.mybatissharp.schema.annotation.Table;
+
+/**
+ * 扫描测试用的父类，{@code @Table}被子类继承
+ *
+ * @author Lance
+ */
+@Table(name = "t_scan_base")
+public abstract class BaseEntity {
+
+    private long id;
+}
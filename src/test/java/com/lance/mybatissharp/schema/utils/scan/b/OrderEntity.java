@@ -0,0 +1,11 @@
+package com.lance.mybatissharp.schema.utils.scan.b;
+
+/**
+ * 扫描测试用的子类，本身没有打{@code @Table}
+ *
+ * @author Lance
+ */
+public class OrderEntity extends BaseEntity {
+
+    private String orderNo;
+}
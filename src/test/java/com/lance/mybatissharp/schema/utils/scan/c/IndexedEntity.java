@@ -0,0 +1,14 @@
+package com.lance.mybatissharp.schema.utils.scan.c;
+
+import com.lance.mybatissharp.schema.annotation.Table;
+
+/**
+ * 扫描测试用的实体类，列在索引文件中
+ *
+ * @author Lance
+ */
+@Table(name = "t_scan_indexed")
+public class IndexedEntity {
+
+    private long id;
+}
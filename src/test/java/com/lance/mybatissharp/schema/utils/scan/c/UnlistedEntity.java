@@ -0,0 +1,14 @@
+package com.lance.mybatissharp.schema.utils.scan.c;
+
+import com.lance.mybatissharp.schema.annotation.Table;
+
+/**
+ * 扫描测试用的实体类，所在位置有索引文件但没有列在其中，不会被扫描到
+ *
+ * @author Lance
+ */
+@Table(name = "t_scan_unlisted")
+public class UnlistedEntity {
+
+    private long id;
+}